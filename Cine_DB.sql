@@ -17,12 +17,28 @@ CREATE TABLE Cartelera (
     ano INT NOT NULL,
     duracion INT NOT NULL,
     genero VARCHAR(50) NOT NULL,
+    -- Control de concurrencia optimista: se incrementa en cada UPDATE
+    version INT NOT NULL DEFAULT 0,
+    -- Fuente de cambios: updated_at se renueva en cada escritura y las bajas
+    -- marcan deleted_at (lapida) en lugar de borrar la fila
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    deleted_at TIMESTAMP(3) NULL DEFAULT NULL,
     
     -- Restricciones
     CONSTRAINT chk_titulo CHECK (CHAR_LENGTH(TRIM(titulo)) BETWEEN 1 AND 100),
     CONSTRAINT chk_director CHECK (CHAR_LENGTH(TRIM(director)) BETWEEN 1 AND 100),
     CONSTRAINT chk_ano CHECK (ano BETWEEN 1900 AND 2100),
-    CONSTRAINT chk_duracion CHECK (duracion BETWEEN 1 AND 300)
+    CONSTRAINT chk_duracion CHECK (duracion BETWEEN 1 AND 300),
+    
+    -- Indices para busquedas y ordenamiento por titulo
+    -- (InnoDB agrega el id a cada indice secundario, lo que cubre el keyset (titulo, id))
+    INDEX idx_cartelera_titulo (titulo),
+    INDEX idx_cartelera_genero_titulo (genero, titulo),
+    INDEX idx_cartelera_ano_titulo (ano, titulo),
+    INDEX idx_cartelera_director (director),
+    INDEX idx_cartelera_updated_at (updated_at),
+    FULLTEXT INDEX ft_cartelera_titulo (titulo)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Paso 4: Insertar datos de prueba
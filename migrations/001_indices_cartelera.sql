@@ -0,0 +1,25 @@
+-- =============================================
+-- MIGRACION 001: Indices de busqueda en Cartelera
+-- Objetivo: Evitar recorridos completos y filesort en las consultas del DAO
+-- Aplicar sobre bases creadas con una version anterior de Cine_DB.sql
+-- =============================================
+
+USE Cine_DB;
+
+-- Orden por titulo y paginacion por keyset (titulo, id)
+ALTER TABLE Cartelera ADD INDEX idx_cartelera_titulo (titulo);
+
+-- SELECT_BY_GENRE: WHERE genero = ? ORDER BY titulo
+ALTER TABLE Cartelera ADD INDEX idx_cartelera_genero_titulo (genero, titulo);
+
+-- SELECT_BY_YEAR y SELECT_BY_YEAR_RANGE: WHERE ano ... ORDER BY titulo
+ALTER TABLE Cartelera ADD INDEX idx_cartelera_ano_titulo (ano, titulo);
+
+-- Busquedas por director
+ALTER TABLE Cartelera ADD INDEX idx_cartelera_director (director);
+
+-- Busqueda de texto completo por titulo (MATCH ... AGAINST)
+ALTER TABLE Cartelera ADD FULLTEXT INDEX ft_cartelera_titulo (titulo);
+
+-- Verificar los indices creados
+SHOW INDEX FROM Cartelera;
@@ -0,0 +1,15 @@
+-- =============================================
+-- MIGRACION 002: Version de fila en Cartelera
+-- Objetivo: Control de concurrencia optimista en las actualizaciones
+-- Cada UPDATE incrementa la version; una edicion solo se aplica si la
+-- version leida sigue vigente (UPDATE ... WHERE id = ? AND version = ?)
+-- Aplicar sobre bases creadas con una version anterior de Cine_DB.sql
+-- =============================================
+
+USE Cine_DB;
+
+-- Las filas existentes empiezan en la version 0
+ALTER TABLE Cartelera ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+-- Verificar la columna creada
+SHOW COLUMNS FROM Cartelera LIKE 'version';
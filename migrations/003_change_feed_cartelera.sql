@@ -0,0 +1,22 @@
+-- =============================================
+-- MIGRACION 003: Fuente de cambios en Cartelera
+-- Objetivo: Refrescar caches y vistas pidiendo solo las filas modificadas
+-- (SELECT ... WHERE updated_at >= ?) en lugar de releer el catalogo
+-- Las eliminaciones pasan a ser lapidas (deleted_at) para que tambien
+-- aparezcan en la consulta de cambios
+-- Aplicar sobre bases creadas con una version anterior de Cine_DB.sql
+-- =============================================
+
+USE Cine_DB;
+
+-- Las filas existentes toman la fecha de aplicacion de la migracion
+ALTER TABLE Cartelera
+    ADD COLUMN created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD COLUMN deleted_at TIMESTAMP(3) NULL DEFAULT NULL;
+
+-- Indice para la consulta de cambios por fecha de modificacion
+CREATE INDEX idx_cartelera_updated_at ON Cartelera (updated_at);
+
+-- Verificar las columnas creadas
+SHOW COLUMNS FROM Cartelera LIKE '%_at';
@@ -23,8 +23,8 @@ public class DatabaseConfig {
     /** Nombre de la base de datos */
     public static final String DB_NAME = "Cine_DB";
     
-    /** URL completa de conexion a la base de datos */
-    public static final String DB_URL = String.format("jdbc:mysql://%s:%s/%s?useSSL=false&serverTimezone=UTC", 
+    /** URL completa de conexion a la base de datos (sentencias preparadas en el servidor y lotes reescritos) */
+    public static final String DB_URL = String.format("jdbc:mysql://%s:%s/%s?useSSL=false&serverTimezone=UTC&useServerPrepStmts=true&rewriteBatchedStatements=true", 
                                                       DB_HOST, DB_PORT, DB_NAME);
     
     /** Nombre de usuario para la conexion - MODIFICAR segun configuracion local */
@@ -42,6 +42,66 @@ public class DatabaseConfig {
     /** Timeout de conexion en milisegundos */
     public static final int CONNECTION_TIMEOUT = 30000;
     
+    /** Tiempo maximo que una conexion puede estar prestada antes de reportarse como fuga (ms) */
+    public static final long LEAK_DETECTION_THRESHOLD = 60000;
+    
+    /** Numero maximo de sentencias preparadas en cache por conexion (0 desactiva el cache) */
+    public static final int STATEMENT_CACHE_SIZE = 16;
+    
+    /** Tiempo sin uso tras el cual una conexion se valida con el servidor antes de prestarse (ms) */
+    public static final long VALIDATION_INTERVAL = 30000;
+    
+    /** Numero minimo de conexiones libres que el pool mantiene abiertas */
+    public static final int MIN_IDLE_CONNECTIONS = 2;
+    
+    /** Tiempo sin uso tras el cual se cierra una conexion libre sobrante (ms) */
+    public static final long IDLE_TIMEOUT = 600000;
+    
+    /** Tiempo de vida maximo de una conexion fisica, menor que wait_timeout de MySQL (ms) */
+    public static final long MAX_LIFETIME = 1800000;
+    
+    /** Intervalo entre ejecuciones del mantenimiento del pool (ms) */
+    public static final long MAINTENANCE_INTERVAL = 30000;
+    
+    /** Numero maximo de resultados de una busqueda avanzada */
+    public static final int MAX_SEARCH_RESULTS = 1000;
+    
+    /** Tamaño de pagina por defecto en consultas paginadas */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    
+    /** Tamaño de pagina maximo permitido en consultas paginadas */
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    /** Fetch size de los recorridos en streaming (Integer.MIN_VALUE activa el streaming fila a fila de MySQL) */
+    public static final int STREAM_FETCH_SIZE = Integer.MIN_VALUE;
+    
+    /** Numero de operaciones por lote en inserciones, actualizaciones y eliminaciones masivas */
+    public static final int BATCH_SIZE = 100;
+    
+    /** Numero maximo de IDs por consulta WHERE id IN (...); potencia de dos */
+    public static final int MAX_IN_LIST_SIZE = 128;
+    
+    /** Longitud minima de palabra indexada por FULLTEXT (innodb_ft_min_token_size) */
+    public static final int FULLTEXT_MIN_TOKEN_LENGTH = 3;
+    
+    /** Tiempo de vida de las peliculas en el cache de lectura del servicio (ms) */
+    public static final long MOVIE_CACHE_TTL = 300000;
+    
+    /** Tiempo tras el cual el indice de busqueda en memoria se sincroniza con la base de datos (ms) */
+    public static final long SEARCH_INDEX_REFRESH_INTERVAL = 300000;
+    
+    /** Margen hacia atras al pedir cambios, para no perder filas con la misma marca de tiempo (ms) */
+    public static final long CHANGE_FEED_OVERLAP = 1000;
+    
+    /** Numero maximo de sugerencias de autocompletado */
+    public static final int SUGGESTION_LIMIT = 8;
+    
+    /** Espera tras la ultima tecla antes de lanzar la busqueda en vivo (ms) */
+    public static final int SEARCH_DEBOUNCE_DELAY = 300;
+    
+    /** Verifica en segundo plano si la pelicula seleccionada cambio en la base de datos */
+    public static final boolean VERIFY_SELECTION_FRESHNESS = true;
+    
     /** Nombre de la aplicacion */
     public static final String APP_NAME = "Sistema Cine Magenta";
     
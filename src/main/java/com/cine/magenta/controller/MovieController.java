@@ -4,10 +4,23 @@
  */
 package com.cine.magenta.controller;
 
+import com.cine.magenta.config.DatabaseConfig;
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
+import com.cine.magenta.service.CachingMovieService;
+import com.cine.magenta.service.IndexedMovieService;
 import com.cine.magenta.service.MovieService;
 import com.cine.magenta.service.MovieServiceImpl;
+import com.cine.magenta.service.SuggestionService;
+import com.cine.magenta.service.WriteResult;
+import com.cine.magenta.util.IntLinkedMap;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Controlador principal para operaciones sobre Movie.
@@ -22,11 +35,21 @@ public class MovieController {
     /** Servicio de negocio para operaciones sobre peliculas */
     private final MovieService movieService;
     
+    /** Indice en memoria que alimenta las sugerencias (null si no hay sugerencias) */
+    private final IndexedMovieService searchIndex;
+    
+    /** Servicio de autocompletado (null si no hay sugerencias) */
+    private final SuggestionService suggestionService;
+    
     /**
-    * Constructor que inicializa el servicio de peliculas.
+    * Constructor que inicializa el servicio de peliculas con cache de lectura,
+    * indice de busqueda por subcadenas y autocompletado.
     */
     public MovieController() {
-    this.movieService = new MovieServiceImpl();
+    this.searchIndex = new IndexedMovieService(new MovieServiceImpl());
+    this.suggestionService = new SuggestionService();
+    this.searchIndex.addChangeListener(suggestionService);
+    this.movieService = new CachingMovieService(searchIndex);
     }
     
     /**
@@ -36,6 +59,21 @@ public class MovieController {
     */
     public MovieController(MovieService movieService) {
     this.movieService = movieService;
+    this.searchIndex = null;
+    this.suggestionService = null;
+    }
+    
+    /**
+    * Constructor con inyeccion de dependencias que incluye autocompletado.
+    * 
+    * @param movieService servicio de peliculas a utilizar
+    * @param searchIndex indice en memoria que mantiene las sugerencias
+    * @param suggestionService servicio de autocompletado registrado en el indice
+    */
+    public MovieController(MovieService movieService, IndexedMovieService searchIndex, SuggestionService suggestionService) {
+    this.movieService = movieService;
+    this.searchIndex = searchIndex;
+    this.suggestionService = suggestionService;
     }
     
     /**
@@ -79,6 +117,36 @@ public class MovieController {
     return movieService.getMovieById(id);
     }
     
+    /**
+    * Busca varias peliculas por ID en pocas consultas.
+    * 
+    * @param ids identificadores de las peliculas
+    * @return peliculas encontradas por ID, en el orden pedido; los IDs inexistentes no aparecen
+    * @throws Exception si ocurre error en la busqueda
+    */
+    public IntLinkedMap<Movie> getMoviesByIds(int[] ids) throws Exception {
+    if (ids == null) {
+    throw new IllegalArgumentException("La lista de IDs no puede ser null");
+    }
+    return movieService.getMoviesByIds(ids);
+    }
+    
+    /**
+    * Obtiene la version actual de una pelicula para verificar datos ya mostrados.
+    * Se lee de la base de datos sin pasar por el cache, que podria devolver la misma
+    * copia ya mostrada. A diferencia de getMovieById, una pelicula eliminada no es un error.
+    * 
+    * @param id identificador de la pelicula
+    * @return Movie actual o null si ya no existe
+    * @throws Exception si ocurre error en la consulta
+    */
+    public Movie getCurrentMovie(int id) throws Exception {
+    if (id <= 0) {
+    throw new IllegalArgumentException("ID debe ser un numero positivo");
+    }
+    return movieService.refreshMovie(id);
+    }
+    
     /**
     * Obtiene todas las peliculas del sistema.
     * 
@@ -103,6 +171,65 @@ public class MovieController {
     return movieService.searchMoviesByTitle(title.trim());
     }
     
+    /**
+    * Busca peliculas por palabras del titulo usando el indice de texto completo.
+    * Encuentra titulos que contienen todas las palabras (o palabras que empiezan por ellas).
+    * 
+    * @param title palabras a buscar
+    * @return Lista de peliculas que coinciden con el criterio
+    * @throws Exception si ocurre error en la busqueda
+    */
+    public List<Movie> searchMoviesByTitleFullText(String title) throws Exception {
+    if (title == null || title.trim().isEmpty()) {
+    throw new IllegalArgumentException("Titulo de busqueda no puede estar vacio");
+    }
+    return movieService.searchMoviesByTitle(title.trim(), true);
+    }
+    
+    /**
+    * Sugiere titulos para autocompletar el texto escrito.
+    * 
+    * @param prefix texto escrito por el usuario
+    * @return titulos sugeridos (vacio si no hay autocompletado)
+    * @throws Exception si falla la carga inicial del catalogo
+    */
+    public List<String> suggestTitles(String prefix) throws Exception {
+    if (suggestionService == null) {
+    return Collections.emptyList();
+    }
+    searchIndex.ensureIndexed();
+    return suggestionService.suggestTitles(prefix, DatabaseConfig.SUGGESTION_LIMIT);
+    }
+    
+    /**
+    * Sugiere directores para autocompletar el texto escrito.
+    * 
+    * @param prefix texto escrito por el usuario
+    * @return directores sugeridos (vacio si no hay autocompletado)
+    * @throws Exception si falla la carga inicial del catalogo
+    */
+    public List<String> suggestDirectors(String prefix) throws Exception {
+    if (suggestionService == null) {
+    return Collections.emptyList();
+    }
+    searchIndex.ensureIndexed();
+    return suggestionService.suggestDirectors(prefix, DatabaseConfig.SUGGESTION_LIMIT);
+    }
+    
+    /**
+    * Cuenta las peliculas de cada genero que cumplen los demas criterios de busqueda.
+    * 
+    * @param criteria criterios de busqueda (el genero se ignora)
+    * @return peliculas por genero (vacio si no hay indice en memoria)
+    * @throws Exception si falla la carga inicial del catalogo
+    */
+    public Map<String, Integer> getGenreCounts(MovieSearchCriteria criteria) throws Exception {
+    if (searchIndex == null) {
+    return Collections.emptyMap();
+    }
+    return searchIndex.getGenreCounts(criteria);
+    }
+    
     /**
     * Obtiene peliculas filtradas por director.
     * 
@@ -157,6 +284,55 @@ public class MovieController {
     return movieService.getMoviesByYearRange(startYear, endYear);
     }
     
+    /**
+    * Realiza una busqueda combinada por titulo, director, genero y rango de años.
+    * 
+    * @param criteria criterios de busqueda, orden y limite
+    * @return Lista de peliculas que cumplen los criterios
+    * @throws Exception si ocurre error en la busqueda
+    */
+    public List<Movie> searchMovies(MovieSearchCriteria criteria) throws Exception {
+    if (criteria == null) {
+    throw new IllegalArgumentException("Los criterios de busqueda no pueden ser null");
+    }
+    return movieService.searchMovies(criteria);
+    }
+    
+    /**
+    * Procesa todas las peliculas una a una sin cargar el catalogo completo en memoria.
+    * 
+    * @param consumer accion a ejecutar por cada pelicula
+    * @throws Exception si ocurre error en el recorrido
+    */
+    public void forEachMovie(Consumer<Movie> consumer) throws Exception {
+    movieService.forEachMovie(consumer);
+    }
+    
+    /**
+    * Obtiene una pagina de peliculas que cumplen los criterios, ordenada por titulo.
+    * 
+    * @param criteria filtros de busqueda o null para todas las peliculas
+    * @param cursor cursor de la pagina anterior o null para la primera
+    * @param pageSize numero de peliculas por pagina
+    * @param includeTotal true para incluir el total estimado
+    * @return pagina de peliculas con el cursor de la siguiente
+    * @throws Exception si ocurre error en la consulta
+    */
+    public MoviePage getMoviesPage(MovieSearchCriteria criteria, String cursor, int pageSize, boolean includeTotal) throws Exception {
+    return movieService.getMoviesPage(criteria, cursor, pageSize, includeTotal);
+    }
+    
+    /**
+    * Obtiene una pagina de todas las peliculas con el tamaño de pagina por defecto.
+    * 
+    * @param cursor cursor de la pagina anterior o null para la primera
+    * @return pagina de peliculas con el cursor de la siguiente
+    * @throws Exception si ocurre error en la consulta
+    */
+    public MoviePage getMoviesPage(String cursor) throws Exception {
+    return movieService.getMoviesPage(null, cursor, DatabaseConfig.DEFAULT_PAGE_SIZE, cursor == null);
+    }
+    
     /**
     * Actualiza los datos de una pelicula existente.
     * 
@@ -174,6 +350,24 @@ public class MovieController {
     return movieService.updateMovie(movie);
     }
     
+    /**
+    * Actualiza una pelicula informando un conflicto en lugar de fallar.
+    * Si otro usuario la modifico desde que se leyo, no se sobrescriben sus cambios.
+    * 
+    * @param movie pelicula con datos actualizados y la version leida
+    * @return SUCCESS, NOT_FOUND o CONFLICT
+    * @throws Exception si los datos son invalidos o la actualizacion falla
+    */
+    public WriteResult tryUpdateMovie(Movie movie) throws Exception {
+    if (movie == null) {
+    throw new IllegalArgumentException("Movie no puede ser null");
+    }
+    if (movie.getId() <= 0) {
+    throw new IllegalArgumentException("Movie debe tener un ID valido");
+    }
+    return movieService.tryUpdateMovie(movie);
+    }
+    
     /**
     * Actualiza una pelicula usando parametros individuales.
     * 
@@ -203,12 +397,45 @@ public class MovieController {
     throw new IllegalArgumentException("ID debe ser un numero positivo");
     }
     
-    // Verificar que la pelicula existe antes de eliminar
-    if (!movieService.movieExists(id)) {
+    // Las filas afectadas por el DELETE indican si existia; no se consulta antes
+    if (movieService.tryDeleteMovie(id) == WriteResult.NOT_FOUND) {
     throw new IllegalArgumentException("No existe pelicula con ID: " + id);
     }
     
-    return movieService.deleteMovie(id);
+    return true;
+    }
+    
+    /**
+    * Crea varias peliculas en una sola operacion por lotes.
+    * 
+    * @param movies peliculas a crear
+    * @return las peliculas con sus IDs asignados
+    * @throws Exception si alguna pelicula no es valida o la operacion falla
+    */
+    public List<Movie> createMovies(List<Movie> movies) throws Exception {
+    return movieService.createMovies(movies);
+    }
+    
+    /**
+    * Actualiza varias peliculas en una sola operacion por lotes.
+    * 
+    * @param movies peliculas con datos actualizados
+    * @return numero de peliculas actualizadas
+    * @throws Exception si alguna pelicula no es valida o la operacion falla
+    */
+    public int updateMovies(List<Movie> movies) throws Exception {
+    return movieService.updateMovies(movies);
+    }
+    
+    /**
+    * Elimina varias peliculas en una sola operacion por lotes.
+    * 
+    * @param ids identificadores de las peliculas
+    * @return numero de peliculas eliminadas
+    * @throws Exception si la operacion falla
+    */
+    public int deleteMovies(int[] ids) throws Exception {
+    return movieService.deleteMovies(ids);
     }
     
     /**
@@ -232,6 +459,31 @@ public class MovieController {
     return movieService.getTotalMovies();
     }
     
+    /**
+    * Obtiene las peliculas creadas, modificadas o eliminadas desde una marca de sincronizacion.
+    * 
+    * @param since marca devuelta por la consulta anterior
+    * @return cambios y marca para la siguiente consulta
+    * @throws Exception si ocurre error en la consulta
+    */
+    public MovieChanges getChangesSince(Instant since) throws Exception {
+    if (since == null) {
+    throw new IllegalArgumentException("La marca de sincronizacion no puede ser null");
+    }
+    return movieService.getChangesSince(since);
+    }
+    
+    /**
+    * Obtiene la hora actual del servidor de base de datos, para usarla como
+    * marca inicial de getChangesSince.
+    * 
+    * @return hora del servidor
+    * @throws Exception si ocurre error en la consulta
+    */
+    public Instant getServerTime() throws Exception {
+    return movieService.getServerTime();
+    }
+    
     /**
     * Valida los datos de una pelicula.
     * 
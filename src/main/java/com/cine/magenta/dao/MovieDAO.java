@@ -5,8 +5,15 @@
 package com.cine.magenta.dao;
 
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
+import com.cine.magenta.util.IntLinkedMap;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interface que define las operaciones de acceso a datos para Movie.
@@ -27,6 +34,37 @@ public interface MovieDAO {
     */
     int create(Movie movie) throws SQLException;
     
+    /**
+    * Inserta varias peliculas en lotes dentro de una sola transaccion.
+    * Asigna a cada pelicula el ID generado; si falla, no se inserta ninguna.
+    * 
+    * @param movies peliculas a crear
+    * @return numero de peliculas creadas
+    * @throws SQLException si ocurre error en la operacion
+    */
+    int createAll(List<Movie> movies) throws SQLException;
+    
+    /**
+    * Actualiza varias peliculas en lotes dentro de una sola transaccion.
+    * Como update(), las peliculas con version conocida solo se actualizan si su version
+    * coincide con la de la tabla, y tras confirmar la transaccion se les incrementa.
+    * Si alguna fue modificada o eliminada por otro usuario no se actualiza ninguna.
+    * 
+    * @param movies peliculas con datos actualizados
+    * @return numero de filas actualizadas
+    * @throws SQLException si alguna version no coincide o si ocurre error en la operacion
+    */
+    int updateAll(List<Movie> movies) throws SQLException;
+    
+    /**
+    * Elimina varias peliculas en lotes dentro de una sola transaccion.
+    * 
+    * @param ids identificadores de las peliculas a eliminar
+    * @return numero de filas eliminadas
+    * @throws SQLException si ocurre error en la operacion
+    */
+    int deleteAll(int[] ids) throws SQLException;
+    
     /**
     * Busca una pelicula por su ID unico.
     * 
@@ -36,6 +74,16 @@ public interface MovieDAO {
     */
     Movie findById(int id) throws SQLException;
     
+    /**
+    * Busca varias peliculas por ID con consultas WHERE id IN (...) de tamaño acotado.
+    * Los IDs repetidos o no positivos se ignoran.
+    * 
+    * @param ids identificadores de las peliculas
+    * @return peliculas encontradas por ID, en el orden pedido; los IDs inexistentes no aparecen
+    * @throws SQLException si ocurre error en la consulta
+    */
+    IntLinkedMap<Movie> findByIds(int[] ids) throws SQLException;
+    
     /**
     * Obtiene todas las peliculas de la base de datos.
     * 
@@ -53,6 +101,18 @@ public interface MovieDAO {
     */
     List<Movie> findByTitle(String title) throws SQLException;
     
+    /**
+    * Busca peliculas por titulo eligiendo el modo de busqueda.
+    * El modo de texto completo usa el indice FULLTEXT y encuentra palabras o
+    * prefijos de palabras; el modo parcial usa LIKE y encuentra cualquier fragmento.
+    * 
+    * @param title titulo o palabras del titulo a buscar
+    * @param fullText true para usar MATCH ... AGAINST en lugar de LIKE
+    * @return Lista de peliculas que coinciden
+    * @throws SQLException si ocurre error en la consulta
+    */
+    List<Movie> findByTitle(String title, boolean fullText) throws SQLException;
+    
     /**
     * Busca peliculas por director.
     * 
@@ -82,9 +142,11 @@ public interface MovieDAO {
     
     /**
     * Actualiza los datos de una pelicula existente.
+    * Si la pelicula tiene version conocida, solo se actualiza cuando la version
+    * almacenada coincide, y entonces la version de la pelicula se incrementa.
     * 
     * @param movie objeto Movie con datos actualizados
-    * @return true si la actualizacion fue exitosa
+    * @return true si la actualizacion fue exitosa, false si no existe o su version cambio
     * @throws SQLException si ocurre error en la operacion
     */
     boolean update(Movie movie) throws SQLException;
@@ -124,4 +186,67 @@ public interface MovieDAO {
     * @throws SQLException si ocurre error en la consulta
     */
     List<Movie> findByYearRange(int startYear, int endYear) throws SQLException;
+    
+    /**
+    * Busca peliculas combinando en una sola consulta los filtros establecidos.
+    * Aplica el orden y el limite de resultados indicados en los criterios.
+    * 
+    * @param criteria criterios de busqueda
+    * @return Lista de peliculas que cumplen todos los filtros
+    * @throws SQLException si ocurre error en la consulta
+    */
+    List<Movie> search(MovieSearchCriteria criteria) throws SQLException;
+    
+    /**
+    * Recorre todas las peliculas ordenadas por titulo sin cargarlas en memoria.
+    * Usa un ResultSet en streaming; el stream retiene una conexion del pool hasta
+    * cerrarse, por lo que debe usarse con try-with-resources.
+    * 
+    * @return Stream de peliculas que libera su conexion al cerrarse
+    * @throws SQLException si no se puede abrir el recorrido
+    */
+    Stream<Movie> streamAll() throws SQLException;
+    
+    /**
+    * Entrega cada pelicula al consumidor a medida que se lee de la base de datos.
+    * La conexion se libera al terminar, incluso si el consumidor lanza una excepcion.
+    * 
+    * @param consumer accion a ejecutar por cada pelicula
+    * @throws SQLException si ocurre error en el recorrido
+    */
+    void streamAll(Consumer<Movie> consumer) throws SQLException;
+    
+    /**
+    * Obtiene una pagina de peliculas ordenada por titulo e id usando paginacion por keyset.
+    * El orden y el limite de los criterios se ignoran.
+    * 
+    * @param criteria filtros de busqueda o null para todas las peliculas
+    * @param cursor cursor devuelto por la pagina anterior o null para la primera
+    * @param pageSize numero maximo de peliculas de la pagina
+    * @param includeTotal true para calcular el total estimado de resultados; sin filtros se toma
+    *        de las estadisticas de la tabla y con filtros se cuenta
+    * @return pagina con las peliculas y el cursor de la siguiente
+    * @throws SQLException si ocurre error en la consulta
+    */
+    MoviePage findPage(MovieSearchCriteria criteria, String cursor, int pageSize, boolean includeTotal) throws SQLException;
+    
+    /**
+    * Obtiene las peliculas creadas, modificadas o eliminadas desde una marca de tiempo.
+    * Las eliminadas se devuelven solo como IDs (lapidas). La consulta se solapa un
+    * margen hacia atras, por lo que puede repetir cambios ya vistos.
+    * 
+    * @param since marca devuelta por la consulta anterior, o Instant.EPOCH para todo el historial
+    * @return cambios ordenados por fecha de modificacion y la marca para la siguiente consulta
+    * @throws SQLException si ocurre error en la consulta
+    */
+    MovieChanges findChangedSince(Instant since) throws SQLException;
+    
+    /**
+    * Obtiene la hora actual del servidor de base de datos, el mismo reloj que
+    * asigna updated_at. Sirve como marca inicial para findChangedSince.
+    * 
+    * @return hora del servidor con precision de milisegundos
+    * @throws SQLException si ocurre error en la consulta
+    */
+    Instant currentTimestamp() throws SQLException;
 }
\ No newline at end of file
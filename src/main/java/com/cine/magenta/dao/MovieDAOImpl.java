@@ -4,16 +4,31 @@
  */
 package com.cine.magenta.dao;
 
+import com.cine.magenta.config.DatabaseConfig;
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
 import com.cine.magenta.util.DatabaseConnection;
+import com.cine.magenta.util.IntLinkedMap;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementacion concreta del DAO para operaciones sobre Movie.
  * Maneja todas las operaciones CRUD contra la tabla Cartelera.
  * Utiliza prepared statements para seguridad y performance.
+ * Cada operacion cierra su conexion con try-with-resources, devolviendola al pool.
  *
  * @author Sistema Cine Magenta
  * @version 1.0
@@ -23,53 +38,100 @@ public class MovieDAOImpl implements MovieDAO {
     /** Instancia de conexion a la base de datos */
     private final DatabaseConnection dbConnection;
     
+    /** Numero de operaciones enviadas por cada executeBatch */
+    private int batchSize = DatabaseConfig.BATCH_SIZE;
+    
+    /** Columnas leidas de cada pelicula */
+    private static final String MOVIE_COLUMNS = 
+    "id, titulo, director, ano, duracion, genero, version, created_at, updated_at";
+    
+    /** Condicion de peliculas vigentes; las eliminadas quedan como lapidas con deleted_at */
+    private static final String NOT_DELETED = "deleted_at IS NULL";
+    
     /** Consulta SQL para insertar nueva pelicula */
     private static final String INSERT_MOVIE = 
     "INSERT INTO Cartelera (titulo, director, ano, duracion, genero) VALUES (?, ?, ?, ?, ?)";
     
     /** Consulta SQL para buscar pelicula por ID */
     private static final String SELECT_BY_ID = 
-    "SELECT id, titulo, director, ano, duracion, genero FROM Cartelera WHERE id = ?";
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE id = ? AND " + NOT_DELETED;
     
     /** Consulta SQL para obtener todas las peliculas */
     private static final String SELECT_ALL = 
-    "SELECT id, titulo, director, ano, duracion, genero FROM Cartelera ORDER BY titulo";
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE " + NOT_DELETED + " ORDER BY titulo";
     
     /** Consulta SQL para buscar por titulo */
     private static final String SELECT_BY_TITLE = 
-    "SELECT id, titulo, director, ano, duracion, genero FROM Cartelera WHERE titulo LIKE ? ORDER BY titulo";
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE titulo LIKE ? AND " + NOT_DELETED + " ORDER BY titulo";
+    
+    /** Consulta SQL para buscar por titulo con el indice FULLTEXT */
+    private static final String SELECT_BY_TITLE_FULLTEXT = 
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE MATCH(titulo) AGAINST (? IN BOOLEAN MODE) AND " + NOT_DELETED + " ORDER BY titulo";
     
     /** Consulta SQL para buscar por director */
     private static final String SELECT_BY_DIRECTOR = 
-    "SELECT id, titulo, director, ano, duracion, genero FROM Cartelera WHERE director LIKE ? ORDER BY titulo";
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE director LIKE ? AND " + NOT_DELETED + " ORDER BY titulo";
     
     /** Consulta SQL para buscar por genero */
     private static final String SELECT_BY_GENRE = 
-    "SELECT id, titulo, director, ano, duracion, genero FROM Cartelera WHERE genero = ? ORDER BY titulo";
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE genero = ? AND " + NOT_DELETED + " ORDER BY titulo";
     
     /** Consulta SQL para buscar por año */
     private static final String SELECT_BY_YEAR = 
-    "SELECT id, titulo, director, ano, duracion, genero FROM Cartelera WHERE ano = ? ORDER BY titulo";
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE ano = ? AND " + NOT_DELETED + " ORDER BY titulo";
     
-    /** Consulta SQL para actualizar pelicula */
+    /** Consulta SQL para actualizar pelicula sin comprobar su version */
     private static final String UPDATE_MOVIE = 
-    "UPDATE Cartelera SET titulo = ?, director = ?, ano = ?, duracion = ?, genero = ? WHERE id = ?";
+    "UPDATE Cartelera SET titulo = ?, director = ?, ano = ?, duracion = ?, genero = ?, version = version + 1"
+    + " WHERE id = ? AND " + NOT_DELETED;
     
-    /** Consulta SQL para eliminar pelicula */
+    /** Consulta SQL para actualizar pelicula solo si nadie la modifico desde que se leyo */
+    private static final String UPDATE_MOVIE_VERSIONED = 
+    "UPDATE Cartelera SET titulo = ?, director = ?, ano = ?, duracion = ?, genero = ?, version = version + 1"
+    + " WHERE id = ? AND version = ? AND " + NOT_DELETED;
+    
+    /** Consulta SQL para eliminar pelicula: la marca como lapida para el registro de cambios */
     private static final String DELETE_MOVIE = 
-    "DELETE FROM Cartelera WHERE id = ?";
+    "UPDATE Cartelera SET deleted_at = CURRENT_TIMESTAMP(3), version = version + 1 WHERE id = ? AND " + NOT_DELETED;
     
     /** Consulta SQL para verificar existencia */
     private static final String EXISTS_QUERY = 
-    "SELECT 1 FROM Cartelera WHERE id = ? LIMIT 1";
+    "SELECT 1 FROM Cartelera WHERE id = ? AND " + NOT_DELETED + " LIMIT 1";
     
     /** Consulta SQL para buscar por rango de años */
     private static final String SELECT_BY_YEAR_RANGE = 
-    "SELECT id, titulo, director, ano, duracion, genero FROM Cartelera WHERE ano BETWEEN ? AND ? ORDER BY titulo";
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera WHERE ano BETWEEN ? AND ? AND " + NOT_DELETED + " ORDER BY titulo";
+    
+    /** Consulta SQL de los cambios desde una marca, incluidas las lapidas */
+    private static final String SELECT_CHANGED_SINCE = 
+    "SELECT " + MOVIE_COLUMNS + ", deleted_at FROM Cartelera WHERE updated_at >= ? ORDER BY updated_at, id";
+    
+    /** Consulta SQL de la hora del servidor, con la precision de updated_at */
+    private static final String SELECT_CURRENT_TIMESTAMP = 
+    "SELECT CURRENT_TIMESTAMP(3) AS ahora";
+    
+    /** Inicio de la consulta de busqueda combinada; los filtros se agregan dinamicamente */
+    private static final String SEARCH_BASE = 
+    "SELECT " + MOVIE_COLUMNS + " FROM Cartelera";
+    
+    /** Inicio de la consulta de conteo para busquedas combinadas y paginadas */
+    private static final String SEARCH_COUNT_BASE = 
+    "SELECT COUNT(*) as total FROM Cartelera";
+    
+    /** Consulta SQL del numero aproximado de filas segun las estadisticas de la tabla */
+    private static final String ESTIMATE_ROWS_QUERY = 
+    "SELECT TABLE_ROWS AS total FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'Cartelera'";
+    
+    /** Condicion de keyset: filas posteriores a la ultima (titulo, id) entregada */
+    private static final String KEYSET_CONDITION = 
+    "(titulo > ? OR (titulo = ? AND id > ?))";
+    
+    /** Separador entre titulo e id dentro del cursor */
+    private static final char CURSOR_SEPARATOR = '\u0000';
     
     /** Consulta SQL para contar registros */
     private static final String COUNT_QUERY = 
-    "SELECT COUNT(*) as total FROM Cartelera";
+    "SELECT COUNT(*) as total FROM Cartelera WHERE " + NOT_DELETED;
     
     /**
     * Constructor que inicializa la conexion a la base de datos.
@@ -98,13 +160,8 @@ public class MovieDAOImpl implements MovieDAO {
     movie.validate().getErrorMessages());
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet generatedKeys = null;
-    
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(INSERT_MOVIE, Statement.RETURN_GENERATED_KEYS);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(INSERT_MOVIE, Statement.RETURN_GENERATED_KEYS)) {
     
     // Establecer parametros
     stmt.setString(1, movie.getTitle());
@@ -116,20 +173,288 @@ public class MovieDAOImpl implements MovieDAO {
     int rowsAffected = stmt.executeUpdate();
     
     if (rowsAffected > 0) {
-    generatedKeys = stmt.getGeneratedKeys();
+    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
     if (generatedKeys.next()) {
     int generatedId = generatedKeys.getInt(1);
     movie.setId(generatedId);
+    movie.setVersion(0);
     return generatedId;
     }
     }
+    }
     
     throw new SQLException("Error al crear pelicula, no se genero ID");
     
     } catch (SQLException e) {
     throw new SQLException("Error al insertar pelicula: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public int createAll(List<Movie> movies) throws SQLException {
+    validateBatch(movies);
+    for (Movie movie : movies) {
+    if (!movie.isValid()) {
+    throw new IllegalArgumentException("Datos de Movie no validos: " + 
+    movie.validate().getErrorMessages());
+    }
+    }
+    if (movies.isEmpty()) {
+    return 0;
+    }
+    
+    try (Connection conn = dbConnection.getConnection()) {
+    boolean autoCommit = conn.getAutoCommit();
+    conn.setAutoCommit(false);
+    
+    try (PreparedStatement stmt = conn.prepareStatement(INSERT_MOVIE, Statement.RETURN_GENERATED_KEYS)) {
+    int chunkStart = 0;
+    
+    for (int i = 0; i < movies.size(); i++) {
+    Movie movie = movies.get(i);
+    stmt.setString(1, movie.getTitle());
+    stmt.setString(2, movie.getDirector());
+    stmt.setInt(3, movie.getYear());
+    stmt.setInt(4, movie.getDuration());
+    stmt.setString(5, movie.getGenre());
+    stmt.addBatch();
+    
+    if (i + 1 - chunkStart == batchSize || i == movies.size() - 1) {
+    stmt.executeBatch();
+    assignGeneratedIds(stmt, movies, chunkStart, i + 1);
+    chunkStart = i + 1;
+    }
+    }
+    
+    conn.commit();
+    return movies.size();
+    } catch (SQLException e) {
+    rollbackQuietly(conn);
+    // Los ids asignados en la transaccion revertida ya no son validos
+    for (Movie movie : movies) {
+    movie.setId(0);
+    }
+    throw e;
+    } finally {
+    conn.setAutoCommit(autoCommit);
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al insertar lote de " + movies.size() + " peliculas: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public int updateAll(List<Movie> movies) throws SQLException {
+    validateBatch(movies);
+    for (Movie movie : movies) {
+    if (movie.getId() <= 0) {
+    throw new IllegalArgumentException("Movie debe tener un ID valido para actualizar");
+    }
+    }
+    if (movies.isEmpty()) {
+    return 0;
+    }
+    
+    try (Connection conn = dbConnection.getConnection()) {
+    boolean autoCommit = conn.getAutoCommit();
+    conn.setAutoCommit(false);
+    
+    try {
+    // Como en update(), las peliculas con version conocida solo se actualizan si no cambiaron
+    List<Movie> unversioned = new ArrayList<>();
+    List<Movie> versioned = new ArrayList<>();
+    for (Movie movie : movies) {
+    (movie.hasVersion() ? versioned : unversioned).add(movie);
+    }
+    
+    int affected = sumUpdateCounts(executeUpdateBatch(conn, unversioned, false));
+    int[] counts = executeUpdateBatch(conn, versioned, true);
+    
+    List<Integer> conflicts = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+    if (counts[i] == 0) {
+    conflicts.add(versioned.get(i).getId());
+    }
+    }
+    if (!conflicts.isEmpty()) {
+    throw new SQLException(conflicts.size() + " peliculas fueron modificadas o eliminadas por otro usuario, IDs "
+    + conflicts + "; no se actualizo ninguna");
+    }
+    affected += sumUpdateCounts(counts);
+    
+    conn.commit();
+    for (Movie movie : versioned) {
+    movie.setVersion(movie.getVersion() + 1);
+    }
+    return affected;
+    } catch (SQLException e) {
+    rollbackQuietly(conn);
+    throw e;
     } finally {
-    closeResources(generatedKeys, stmt, null);
+    conn.setAutoCommit(autoCommit);
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al actualizar lote de " + movies.size() + " peliculas: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public int deleteAll(int[] ids) throws SQLException {
+    if (ids == null) {
+    throw new IllegalArgumentException("La lista de IDs no puede ser null");
+    }
+    if (ids.length == 0) {
+    return 0;
+    }
+    
+    try (Connection conn = dbConnection.getConnection()) {
+    boolean autoCommit = conn.getAutoCommit();
+    conn.setAutoCommit(false);
+    
+    try (PreparedStatement stmt = conn.prepareStatement(DELETE_MOVIE)) {
+    int affected = 0;
+    
+    for (int i = 0; i < ids.length; i++) {
+    stmt.setInt(1, ids[i]);
+    stmt.addBatch();
+    
+    if ((i + 1) % batchSize == 0 || i == ids.length - 1) {
+    affected += sumUpdateCounts(stmt.executeBatch());
+    }
+    }
+    
+    conn.commit();
+    return affected;
+    } catch (SQLException e) {
+    rollbackQuietly(conn);
+    throw e;
+    } finally {
+    conn.setAutoCommit(autoCommit);
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al eliminar lote de " + ids.length + " peliculas: " + e.getMessage(), e);
+    }
+    }
+    
+    /**
+    * Establece el numero de operaciones enviadas en cada lote.
+    * 
+    * @param batchSize operaciones por lote (mayor que cero)
+    */
+    public void setBatchSize(int batchSize) {
+    if (batchSize <= 0) {
+    throw new IllegalArgumentException("El tamaño de lote debe ser mayor que cero");
+    }
+    this.batchSize = batchSize;
+    }
+    
+    /**
+    * Verifica que la lista de un lote no sea null ni contenga elementos null.
+    * 
+    * @param movies lista a verificar
+    */
+    private void validateBatch(List<Movie> movies) {
+    if (movies == null) {
+    throw new IllegalArgumentException("La lista de peliculas no puede ser null");
+    }
+    for (Movie movie : movies) {
+    if (movie == null) {
+    throw new IllegalArgumentException("La lista de peliculas no puede contener null");
+    }
+    }
+    }
+    
+    /**
+    * Asigna los ids generados por un lote de inserciones a sus peliculas, en orden.
+    * 
+    * @param stmt sentencia cuyo lote se acaba de ejecutar
+    * @param movies peliculas del lote completo
+    * @param from indice de la primera pelicula del lote (inclusive)
+    * @param to indice final del lote (exclusivo)
+    * @throws SQLException si faltan ids generados
+    */
+    private void assignGeneratedIds(PreparedStatement stmt, List<Movie> movies, int from, int to) throws SQLException {
+    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+    for (int i = from; i < to; i++) {
+    if (!generatedKeys.next()) {
+    throw new SQLException("No se generaron IDs para todas las peliculas del lote");
+    }
+    movies.get(i).setId(generatedKeys.getInt(1));
+    movies.get(i).setVersion(0);
+    }
+    }
+    }
+    
+    /**
+    * Actualiza peliculas en lotes con la consulta con o sin comprobacion de version.
+    * 
+    * @param conn conexion con la transaccion abierta
+    * @param movies peliculas a actualizar
+    * @param versioned true para actualizar solo si la version coincide
+    * @return filas afectadas por cada pelicula, en el mismo orden; 0 si no se actualizo
+    *         y Statement.SUCCESS_NO_INFO si el driver no informa el conteo
+    * @throws SQLException si falla algun lote
+    */
+    private int[] executeUpdateBatch(Connection conn, List<Movie> movies, boolean versioned) throws SQLException {
+    int[] counts = new int[movies.size()];
+    if (movies.isEmpty()) {
+    return counts;
+    }
+    
+    try (PreparedStatement stmt = conn.prepareStatement(versioned ? UPDATE_MOVIE_VERSIONED : UPDATE_MOVIE)) {
+    int start = 0;
+    for (int i = 0; i < movies.size(); i++) {
+    Movie movie = movies.get(i);
+    stmt.setString(1, movie.getTitle());
+    stmt.setString(2, movie.getDirector());
+    stmt.setInt(3, movie.getYear());
+    stmt.setInt(4, movie.getDuration());
+    stmt.setString(5, movie.getGenre());
+    stmt.setInt(6, movie.getId());
+    if (versioned) {
+    stmt.setInt(7, movie.getVersion());
+    }
+    stmt.addBatch();
+    
+    if ((i + 1) % batchSize == 0 || i == movies.size() - 1) {
+    int[] batch = stmt.executeBatch();
+    System.arraycopy(batch, 0, counts, start, batch.length);
+    start += batch.length;
+    }
+    }
+    }
+    return counts;
+    }
+    
+    /**
+    * Suma las filas afectadas de un lote.
+    * Si el driver no informa el conteo de una operacion exitosa, se cuenta como una fila.
+    * 
+    * @param counts resultado de executeBatch
+    * @return total de filas afectadas
+    */
+    private int sumUpdateCounts(int[] counts) {
+    int total = 0;
+    for (int count : counts) {
+    if (count > 0) {
+    total += count;
+    } else if (count == Statement.SUCCESS_NO_INFO) {
+    total++;
+    }
+    }
+    return total;
+    }
+    
+    /**
+    * Revierte la transaccion en curso ignorando errores del rollback.
+    * 
+    * @param conn conexion con la transaccion abierta
+    */
+    private void rollbackQuietly(Connection conn) {
+    try {
+    conn.rollback();
+    } catch (SQLException e) {
+    System.err.println("Error al revertir transaccion: " + e.getMessage());
     }
     }
     
@@ -139,52 +464,83 @@ public class MovieDAOImpl implements MovieDAO {
     throw new IllegalArgumentException("ID debe ser positivo, recibido: " + id);
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
-    
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(SELECT_BY_ID);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
     stmt.setInt(1, id);
     
-    rs = stmt.executeQuery();
-    
+    try (ResultSet rs = stmt.executeQuery()) {
     if (rs.next()) {
     return mapResultSetToMovie(rs);
     }
     
     return null; // No encontrada
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al buscar pelicula por ID " + id + ": " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
+    @Override
+    public IntLinkedMap<Movie> findByIds(int[] ids) throws SQLException {
+    if (ids == null) {
+    throw new IllegalArgumentException("La lista de IDs no puede ser null");
+    }
+    
+    int[] unique = Arrays.stream(ids).filter(id -> id > 0).distinct().toArray();
+    IntLinkedMap<Movie> found = new IntLinkedMap<>(unique.length);
+    if (unique.length == 0) {
+    return found;
+    }
+    
+    try (Connection conn = dbConnection.getConnection()) {
+    for (int from = 0; from < unique.length; from += DatabaseConfig.MAX_IN_LIST_SIZE) {
+    int to = Math.min(from + DatabaseConfig.MAX_IN_LIST_SIZE, unique.length);
+    int listSize = inListSize(to - from);
+    
+    try (PreparedStatement stmt = conn.prepareStatement(buildFindByIdsQuery(listSize))) {
+    // Las posiciones sobrantes repiten el ultimo ID para reutilizar la sentencia preparada
+    for (int i = 0; i < listSize; i++) {
+    stmt.setInt(i + 1, unique[Math.min(from + i, to - 1)]);
+    }
+    
+    try (ResultSet rs = stmt.executeQuery()) {
+    while (rs.next()) {
+    Movie movie = mapResultSetToMovie(rs);
+    found.put(movie.getId(), movie);
+    }
+    }
+    }
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al buscar " + unique.length + " peliculas por ID: " + e.getMessage(), e);
+    }
+    
+    // La base de datos devuelve las filas en cualquier orden; se reordenan segun lo pedido
+    IntLinkedMap<Movie> result = new IntLinkedMap<>(found.size());
+    for (int id : unique) {
+    Movie movie = found.get(id);
+    if (movie != null) {
+    result.put(id, movie);
+    }
+    }
+    return result;
+    }
+    
     @Override
     public List<Movie> findAll() throws SQLException {
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
     List<Movie> movies = new ArrayList<>();
     
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(SELECT_ALL);
-    rs = stmt.executeQuery();
-    
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_ALL)) {
+    try (ResultSet rs = stmt.executeQuery()) {
     while (rs.next()) {
     movies.add(mapResultSetToMovie(rs));
     }
     
     return movies;
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al obtener todas las peliculas: " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
@@ -194,59 +550,102 @@ public class MovieDAOImpl implements MovieDAO {
     throw new IllegalArgumentException("Titulo no puede estar vacio");
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
     List<Movie> movies = new ArrayList<>();
     
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(SELECT_BY_TITLE);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_BY_TITLE)) {
     stmt.setString(1, "%" + title.trim() + "%");
     
-    rs = stmt.executeQuery();
-    
+    try (ResultSet rs = stmt.executeQuery()) {
     while (rs.next()) {
     movies.add(mapResultSetToMovie(rs));
     }
     
     return movies;
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al buscar peliculas por titulo '" + title + "': " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
+    @Override
+    public List<Movie> findByTitle(String title, boolean fullText) throws SQLException {
+    if (!fullText) {
+    return findByTitle(title);
+    }
+    if (title == null || title.trim().isEmpty()) {
+    throw new IllegalArgumentException("Titulo no puede estar vacio");
+    }
+    
+    // Si ninguna palabra alcanza el tamaño indexado, solo LIKE puede encontrarla
+    String query = toFullTextQuery(title);
+    if (query == null) {
+    return findByTitle(title);
+    }
+    
+    List<Movie> movies = new ArrayList<>();
+    
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_BY_TITLE_FULLTEXT)) {
+    stmt.setString(1, query);
+    
+    try (ResultSet rs = stmt.executeQuery()) {
+    while (rs.next()) {
+    movies.add(mapResultSetToMovie(rs));
+    }
+    
+    return movies;
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al buscar peliculas por texto completo '" + title + "': " + e.getMessage(), e);
+    }
+    }
+    
+    /**
+    * Convierte el texto del usuario en una consulta FULLTEXT en modo booleano.
+    * Cada palabra se exige (+) y se busca como prefijo (*); se eliminan los
+    * operadores del modo booleano para que el texto no altere la consulta.
+    * 
+    * @param title texto buscado
+    * @return consulta booleana o null si ninguna palabra es indexable
+    */
+    static String toFullTextQuery(String title) {
+    StringBuilder query = new StringBuilder();
+    
+    for (String word : title.trim().split("\\s+")) {
+    String clean = word.replaceAll("[+\\-<>()~*\"@]", "");
+    if (clean.length() >= DatabaseConfig.FULLTEXT_MIN_TOKEN_LENGTH) {
+    if (query.length() > 0) {
+    query.append(' ');
+    }
+    query.append('+').append(clean).append('*');
+    }
+    }
+    
+    return query.length() > 0 ? query.toString() : null;
+    }
+    
     @Override
     public List<Movie> findByDirector(String director) throws SQLException {
     if (director == null || director.trim().isEmpty()) {
     throw new IllegalArgumentException("Director no puede estar vacio");
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
     List<Movie> movies = new ArrayList<>();
     
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(SELECT_BY_DIRECTOR);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_BY_DIRECTOR)) {
     stmt.setString(1, "%" + director.trim() + "%");
     
-    rs = stmt.executeQuery();
-    
+    try (ResultSet rs = stmt.executeQuery()) {
     while (rs.next()) {
     movies.add(mapResultSetToMovie(rs));
     }
     
     return movies;
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al buscar peliculas por director '" + director + "': " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
@@ -256,55 +655,41 @@ public class MovieDAOImpl implements MovieDAO {
     throw new IllegalArgumentException("Genero no puede estar vacio");
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
     List<Movie> movies = new ArrayList<>();
     
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(SELECT_BY_GENRE);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_BY_GENRE)) {
     stmt.setString(1, genre.trim());
     
-    rs = stmt.executeQuery();
-    
+    try (ResultSet rs = stmt.executeQuery()) {
     while (rs.next()) {
     movies.add(mapResultSetToMovie(rs));
     }
     
     return movies;
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al buscar peliculas por genero '" + genre + "': " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
     @Override
     public List<Movie> findByYear(int year) throws SQLException {
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
     List<Movie> movies = new ArrayList<>();
     
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(SELECT_BY_YEAR);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_BY_YEAR)) {
     stmt.setInt(1, year);
     
-    rs = stmt.executeQuery();
-    
+    try (ResultSet rs = stmt.executeQuery()) {
     while (rs.next()) {
     movies.add(mapResultSetToMovie(rs));
     }
     
     return movies;
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al buscar peliculas por año " + year + ": " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
@@ -323,12 +708,11 @@ public class MovieDAOImpl implements MovieDAO {
     movie.validate().getErrorMessages());
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
+    // Con version conocida la fila solo se actualiza si nadie la modifico desde que se leyo
+    boolean versioned = movie.hasVersion();
     
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(UPDATE_MOVIE);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(versioned ? UPDATE_MOVIE_VERSIONED : UPDATE_MOVIE)) {
     
     // Establecer parametros
     stmt.setString(1, movie.getTitle());
@@ -337,14 +721,18 @@ public class MovieDAOImpl implements MovieDAO {
     stmt.setInt(4, movie.getDuration());
     stmt.setString(5, movie.getGenre());
     stmt.setInt(6, movie.getId());
+    if (versioned) {
+    stmt.setInt(7, movie.getVersion());
+    }
     
     int rowsAffected = stmt.executeUpdate();
+    if (rowsAffected > 0 && versioned) {
+    movie.setVersion(movie.getVersion() + 1);
+    }
     return rowsAffected > 0;
     
     } catch (SQLException e) {
     throw new SQLException("Error al actualizar pelicula ID " + movie.getId() + ": " + e.getMessage(), e);
-    } finally {
-    closeResources(null, stmt, null);
     }
     }
     
@@ -354,12 +742,8 @@ public class MovieDAOImpl implements MovieDAO {
     throw new IllegalArgumentException("ID debe ser positivo, recibido: " + id);
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(DELETE_MOVIE);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(DELETE_MOVIE)) {
     stmt.setInt(1, id);
     
     int rowsAffected = stmt.executeUpdate();
@@ -367,8 +751,6 @@ public class MovieDAOImpl implements MovieDAO {
     
     } catch (SQLException e) {
     throw new SQLException("Error al eliminar pelicula ID " + id + ": " + e.getMessage(), e);
-    } finally {
-    closeResources(null, stmt, null);
     }
     }
     
@@ -378,22 +760,15 @@ public class MovieDAOImpl implements MovieDAO {
     return false;
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
-    
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(EXISTS_QUERY);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(EXISTS_QUERY)) {
     stmt.setInt(1, id);
     
-    rs = stmt.executeQuery();
+    try (ResultSet rs = stmt.executeQuery()) {
     return rs.next();
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al verificar existencia de pelicula ID " + id + ": " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
@@ -403,53 +778,489 @@ public class MovieDAOImpl implements MovieDAO {
     throw new IllegalArgumentException("El año inicial debe ser menor o igual al año final");
     }
     
-    Connection conn = null;
-    PreparedStatement stmt = null;
-    ResultSet rs = null;
     List<Movie> movies = new ArrayList<>();
     
-    try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(SELECT_BY_YEAR_RANGE);
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_BY_YEAR_RANGE)) {
     stmt.setInt(1, startYear);
     stmt.setInt(2, endYear);
     
-    rs = stmt.executeQuery();
-    
+    try (ResultSet rs = stmt.executeQuery()) {
     while (rs.next()) {
     movies.add(mapResultSetToMovie(rs));
     }
     
     return movies;
-    
+    }
     } catch (SQLException e) {
     throw new SQLException("Error al buscar peliculas por rango de años " + startYear + "-" + endYear + ": " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
     }
     }
     
     @Override
     public int count() throws SQLException {
-    Connection conn = null;
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(COUNT_QUERY)) {
+    try (ResultSet rs = stmt.executeQuery()) {
+    if (rs.next()) {
+    return rs.getInt("total");
+    }
+    
+    return 0;
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al contar peliculas: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public MovieChanges findChangedSince(Instant since) throws SQLException {
+    if (since == null) {
+    throw new IllegalArgumentException("La marca de sincronizacion no puede ser null");
+    }
+    
+    // Se consulta con un margen hacia atras: una fila confirmada con la misma marca de
+    // tiempo que la ultima vista no se pierde, y repetirla no tiene efecto
+    Instant from = since.minusMillis(DatabaseConfig.CHANGE_FEED_OVERLAP);
+    if (from.isBefore(Instant.EPOCH)) {
+    from = Instant.EPOCH;
+    }
+    
+    List<Movie> changed = new ArrayList<>();
+    List<Integer> deleted = new ArrayList<>();
+    Instant watermark = since;
+    
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_CHANGED_SINCE)) {
+    stmt.setTimestamp(1, Timestamp.from(from));
+    
+    try (ResultSet rs = stmt.executeQuery()) {
+    while (rs.next()) {
+    if (rs.getTimestamp("deleted_at") != null) {
+    deleted.add(rs.getInt("id"));
+    } else {
+    changed.add(mapResultSetToMovie(rs));
+    }
+    
+    Timestamp updatedAt = rs.getTimestamp("updated_at");
+    if (updatedAt != null && updatedAt.toInstant().isAfter(watermark)) {
+    watermark = updatedAt.toInstant();
+    }
+    }
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al obtener cambios desde " + since + ": " + e.getMessage(), e);
+    }
+    
+    return new MovieChanges(changed, deleted.stream().mapToInt(Integer::intValue).toArray(), watermark);
+    }
+    
+    @Override
+    public Instant currentTimestamp() throws SQLException {
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(SELECT_CURRENT_TIMESTAMP);
+    ResultSet rs = stmt.executeQuery()) {
+    if (!rs.next()) {
+    throw new SQLException("La consulta no devolvio la hora");
+    }
+    return rs.getTimestamp("ahora").toInstant();
+    } catch (SQLException e) {
+    throw new SQLException("Error al obtener la hora del servidor: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public List<Movie> search(MovieSearchCriteria criteria) throws SQLException {
+    if (criteria == null) {
+    throw new IllegalArgumentException("Los criterios de busqueda no pueden ser null");
+    }
+    criteria.validate();
+    
+    List<Object> params = new ArrayList<>();
+    String sql = buildSearchQuery(criteria, params);
+    List<Movie> movies = new ArrayList<>();
+    
+    try (Connection conn = dbConnection.getConnection();
+    PreparedStatement stmt = conn.prepareStatement(sql)) {
+    bindParameters(stmt, params);
+    
+    try (ResultSet rs = stmt.executeQuery()) {
+    while (rs.next()) {
+    movies.add(mapResultSetToMovie(rs));
+    }
+    
+    return movies;
+    }
+    } catch (SQLException e) {
+    throw new SQLException("Error al buscar peliculas con " + criteria + ": " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public Stream<Movie> streamAll() throws SQLException {
+    Connection conn = dbConnection.getConnection();
     PreparedStatement stmt = null;
     ResultSet rs = null;
     
     try {
-    conn = dbConnection.getConnection();
-    stmt = conn.prepareStatement(COUNT_QUERY);
+    // Sentencia no cacheada, de solo avance y lectura, requisito del streaming de MySQL
+    stmt = conn.prepareStatement(SELECT_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    stmt.setFetchSize(DatabaseConfig.STREAM_FETCH_SIZE);
     rs = stmt.executeQuery();
+    } catch (SQLException e) {
+    closeQuietly(rs, stmt, conn);
+    throw new SQLException("Error al abrir el recorrido de peliculas: " + e.getMessage(), e);
+    }
     
-    if (rs.next()) {
-    return rs.getInt("total");
+    final ResultSet cursor = rs;
+    final PreparedStatement cursorStmt = stmt;
+    
+    Spliterator<Movie> spliterator = new Spliterators.AbstractSpliterator<Movie>(
+    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+    @Override
+    public boolean tryAdvance(Consumer<? super Movie> action) {
+    try {
+    if (!cursor.next()) {
+    return false;
+    }
+    action.accept(mapResultSetToMovie(cursor));
+    return true;
+    } catch (SQLException e) {
+    throw new IllegalStateException("Error al leer pelicula del recorrido: " + e.getMessage(), e);
     }
+    }
+    };
     
-    return 0;
+    // Cerrar el stream libera el cursor y devuelve la conexion al pool
+    return StreamSupport.stream(spliterator, false)
+    .onClose(() -> closeQuietly(cursor, cursorStmt, conn));
+    }
     
+    @Override
+    public void streamAll(Consumer<Movie> consumer) throws SQLException {
+    if (consumer == null) {
+    throw new IllegalArgumentException("El consumidor no puede ser null");
+    }
+    
+    try (Stream<Movie> movies = streamAll()) {
+    movies.forEach(consumer);
+    } catch (IllegalStateException e) {
+    if (e.getCause() instanceof SQLException) {
+    throw (SQLException) e.getCause();
+    }
+    throw e;
+    }
+    }
+    
+    /**
+    * Cierra los recursos de un recorrido en orden inverso, ignorando errores.
+    * 
+    * @param rs ResultSet a cerrar (puede ser null)
+    * @param stmt sentencia a cerrar (puede ser null)
+    * @param conn conexion a devolver al pool
+    */
+    private void closeQuietly(ResultSet rs, Statement stmt, Connection conn) {
+    try {
+    if (rs != null) {
+    rs.close();
+    }
     } catch (SQLException e) {
-    throw new SQLException("Error al contar peliculas: " + e.getMessage(), e);
-    } finally {
-    closeResources(rs, stmt, null);
+    System.err.println("Error al cerrar ResultSet del recorrido: " + e.getMessage());
+    }
+    try {
+    if (stmt != null) {
+    stmt.close();
+    }
+    } catch (SQLException e) {
+    System.err.println("Error al cerrar sentencia del recorrido: " + e.getMessage());
+    }
+    try {
+    conn.close();
+    } catch (SQLException e) {
+    System.err.println("Error al devolver conexion del recorrido: " + e.getMessage());
+    }
+    }
+    
+    @Override
+    public MoviePage findPage(MovieSearchCriteria criteria, String cursor, int pageSize, boolean includeTotal) throws SQLException {
+    if (pageSize <= 0) {
+    throw new IllegalArgumentException("El tamaño de pagina debe ser mayor que cero");
+    }
+    MovieSearchCriteria filters = criteria != null ? criteria : new MovieSearchCriteria();
+    filters.validate();
+    
+    List<Object> params = new ArrayList<>();
+    String sql = buildPageQuery(filters, cursor, pageSize, params);
+    List<Movie> movies = new ArrayList<>(pageSize + 1);
+    
+    try (Connection conn = dbConnection.getConnection()) {
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+    bindParameters(stmt, params);
+    
+    try (ResultSet rs = stmt.executeQuery()) {
+    while (rs.next()) {
+    movies.add(mapResultSetToMovie(rs));
+    }
+    }
+    }
+    
+    // Se pidio una fila extra solo para saber si existe otra pagina
+    String nextCursor = null;
+    if (movies.size() > pageSize) {
+    movies.remove(pageSize);
+    Movie last = movies.get(pageSize - 1);
+    nextCursor = encodeCursor(last.getTitle(), last.getId());
+    }
+    
+    int total = MoviePage.UNKNOWN_TOTAL;
+    if (includeTotal) {
+    // Sin filtros, COUNT(*) recorreria toda la tabla; las estadisticas dan una estimacion sin leerla
+    total = hasFilters(filters) ? countMatching(conn, filters) : estimateRowCount(conn);
+    }
+    return new MoviePage(movies, nextCursor, total);
+    } catch (SQLException e) {
+    throw new SQLException("Error al obtener pagina de peliculas con " + filters + ": " + e.getMessage(), e);
+    }
+    }
+    
+    /**
+    * Construye la consulta de una pagina ordenada por (titulo, id).
+    * El cursor se traduce en una condicion de keyset en lugar de OFFSET, de modo que
+    * el costo de una pagina no depende de su profundidad.
+    * 
+    * @param criteria filtros de busqueda (se ignoran su orden y limite)
+    * @param cursor cursor de la pagina anterior o null para la primera
+    * @param pageSize tamaño de la pagina
+    * @param params lista donde se agregan los valores de los parametros en orden
+    * @return consulta SQL con marcadores de parametros
+    */
+    String buildPageQuery(MovieSearchCriteria criteria, String cursor, int pageSize, List<Object> params) {
+    StringBuilder sql = new StringBuilder(SEARCH_BASE);
+    List<String> conditions = new ArrayList<>();
+    addFilterConditions(criteria, conditions, params);
+    
+    if (cursor != null && !cursor.isEmpty()) {
+    Object[] position = decodeCursor(cursor);
+    conditions.add(KEYSET_CONDITION);
+    params.add(position[0]);
+    params.add(position[0]);
+    params.add(position[1]);
+    }
+    
+    if (!conditions.isEmpty()) {
+    sql.append(" WHERE ").append(String.join(" AND ", conditions));
+    }
+    
+    sql.append(" ORDER BY titulo ASC, id ASC LIMIT ?");
+    params.add(pageSize + 1);
+    
+    return sql.toString();
+    }
+    
+    /**
+    * Cuenta las peliculas que cumplen los filtros, sin considerar el cursor.
+    * El valor es una estimacion: el catalogo puede cambiar entre paginas.
+    * 
+    * @param conn conexion a reutilizar
+    * @param criteria filtros de busqueda
+    * @return numero de peliculas que cumplen los filtros
+    * @throws SQLException si ocurre error en la consulta
+    */
+    private int countMatching(Connection conn, MovieSearchCriteria criteria) throws SQLException {
+    List<Object> params = new ArrayList<>();
+    List<String> conditions = new ArrayList<>();
+    addFilterConditions(criteria, conditions, params);
+    
+    String sql = SEARCH_COUNT_BASE;
+    if (!conditions.isEmpty()) {
+    sql += " WHERE " + String.join(" AND ", conditions);
+    }
+    
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+    bindParameters(stmt, params);
+    
+    try (ResultSet rs = stmt.executeQuery()) {
+    return rs.next() ? rs.getInt("total") : 0;
+    }
+    }
+    }
+    
+    /**
+    * Obtiene el numero aproximado de filas de la tabla desde sus estadisticas.
+    * No recorre la tabla, por lo que su costo no depende del tamaño del catalogo;
+    * el valor puede estar desactualizado e incluye las lapidas.
+    * 
+    * @param conn conexion a reutilizar
+    * @return filas estimadas o MoviePage.UNKNOWN_TOTAL si no hay estadisticas
+    */
+    private int estimateRowCount(Connection conn) {
+    try (PreparedStatement stmt = conn.prepareStatement(ESTIMATE_ROWS_QUERY);
+    ResultSet rs = stmt.executeQuery()) {
+    if (rs.next()) {
+    long rows = rs.getLong("total");
+    if (!rs.wasNull()) {
+    return (int) Math.min(rows, Integer.MAX_VALUE);
+    }
+    }
+    } catch (SQLException e) {
+    // La estimacion es opcional: sin ella la tabla crece a medida que llegan las paginas
+    System.err.println("No se pudo estimar el numero de peliculas: " + e.getMessage());
+    }
+    return MoviePage.UNKNOWN_TOTAL;
+    }
+    
+    /**
+    * Indica si los criterios restringen las peliculas, sin contar orden ni limite.
+    * 
+    * @param criteria criterios de busqueda
+    * @return true si hay algun filtro
+    */
+    private static boolean hasFilters(MovieSearchCriteria criteria) {
+    return criteria.getTitle() != null || criteria.getDirector() != null || criteria.getGenre() != null
+    || criteria.getYearFrom() != null || criteria.getYearTo() != null;
+    }
+    
+    /**
+    * Codifica la posicion (titulo, id) de la ultima fila entregada como cursor opaco.
+    * 
+    * @param title titulo de la ultima pelicula
+    * @param id identificador de la ultima pelicula
+    * @return cursor en Base64 apto para URLs
+    */
+    static String encodeCursor(String title, int id) {
+    String raw = title + CURSOR_SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+    * Decodifica un cursor generado por encodeCursor.
+    * 
+    * @param cursor cursor opaco
+    * @return arreglo con el titulo (String) y el id (Integer)
+    * @throws IllegalArgumentException si el cursor no es valido
+    */
+    static Object[] decodeCursor(String cursor) {
+    try {
+    String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    int separator = raw.lastIndexOf(CURSOR_SEPARATOR);
+    if (separator < 0) {
+    throw new IllegalArgumentException("Cursor de pagina invalido");
+    }
+    return new Object[] { raw.substring(0, separator), Integer.parseInt(raw.substring(separator + 1)) };
+    } catch (IllegalArgumentException e) {
+    // NumberFormatException tambien es IllegalArgumentException
+    throw new IllegalArgumentException("Cursor de pagina invalido", e);
+    }
+    }
+    
+    /**
+    * Asigna los parametros a la sentencia segun su tipo.
+    * 
+    * @param stmt sentencia preparada
+    * @param params valores en orden (Integer o String)
+    * @throws SQLException si ocurre error al asignar
+    */
+    private void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+    for (int i = 0; i < params.size(); i++) {
+    Object param = params.get(i);
+    if (param instanceof Integer) {
+    stmt.setInt(i + 1, (Integer) param);
+    } else {
+    stmt.setString(i + 1, (String) param);
+    }
+    }
+    }
+    
+    /**
+    * Construye la consulta de busqueda por IDs con el numero de marcadores indicado.
+    * 
+    * @param listSize numero de marcadores de la lista IN
+    * @return consulta SQL con marcadores de parametros
+    */
+    static String buildFindByIdsQuery(int listSize) {
+    StringBuilder sql = new StringBuilder("SELECT ").append(MOVIE_COLUMNS)
+    .append(" FROM Cartelera WHERE id IN (");
+    for (int i = 0; i < listSize; i++) {
+    sql.append(i == 0 ? "?" : ", ?");
+    }
+    return sql.append(") AND ").append(NOT_DELETED).toString();
+    }
+    
+    /**
+    * Redondea el tamaño de la lista IN a la siguiente potencia de dos, sin superar el maximo.
+    * Asi solo existen unas pocas sentencias distintas y todas caben en el cache de sentencias.
+    * 
+    * @param count IDs del bloque
+    * @return numero de marcadores a usar
+    */
+    static int inListSize(int count) {
+    int size = count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    return Math.min(size, DatabaseConfig.MAX_IN_LIST_SIZE);
+    }
+    
+    /**
+    * Construye la consulta parametrizada de busqueda combinada.
+    * Solo agrega condiciones para los filtros establecidos; la columna de orden
+    * proviene del enum de criterios, nunca del texto del usuario.
+    * 
+    * @param criteria criterios de busqueda
+    * @param params lista donde se agregan los valores de los parametros en orden
+    * @return consulta SQL con marcadores de parametros
+    */
+    String buildSearchQuery(MovieSearchCriteria criteria, List<Object> params) {
+    StringBuilder sql = new StringBuilder(SEARCH_BASE);
+    List<String> conditions = new ArrayList<>();
+    addFilterConditions(criteria, conditions, params);
+    
+    if (!conditions.isEmpty()) {
+    sql.append(" WHERE ").append(String.join(" AND ", conditions));
+    }
+    
+    // El id desempata para que el orden sea estable entre consultas
+    String direction = criteria.isAscending() ? "ASC" : "DESC";
+    sql.append(" ORDER BY ").append(criteria.getSortField().getColumn()).append(' ').append(direction)
+    .append(", id ").append(direction);
+    
+    if (criteria.getLimit() > 0) {
+    sql.append(" LIMIT ?");
+    params.add(criteria.getLimit());
+    }
+    
+    return sql.toString();
+    }
+    
+    /**
+    * Agrega las condiciones y parametros de los filtros establecidos en los criterios.
+    * 
+    * @param criteria criterios de busqueda
+    * @param conditions lista donde se agregan las condiciones SQL
+    * @param params lista donde se agregan los valores de los parametros en orden
+    */
+    private void addFilterConditions(MovieSearchCriteria criteria, List<String> conditions, List<Object> params) {
+    conditions.add(NOT_DELETED);
+    if (criteria.getTitle() != null) {
+    conditions.add("titulo LIKE ?");
+    params.add("%" + criteria.getTitle() + "%");
+    }
+    
+    if (criteria.getDirector() != null) {
+    conditions.add("director LIKE ?");
+    params.add("%" + criteria.getDirector() + "%");
+    }
+    
+    if (criteria.getGenre() != null) {
+    conditions.add("genero = ?");
+    params.add(criteria.getGenre());
+    }
+    
+    if (criteria.getYearFrom() != null) {
+    conditions.add("ano >= ?");
+    params.add(criteria.getYearFrom());
+    }
+    
+    if (criteria.getYearTo() != null) {
+    conditions.add("ano <= ?");
+    params.add(criteria.getYearTo());
     }
     }
     
@@ -463,7 +1274,7 @@ public class MovieDAOImpl implements MovieDAO {
     */
     private Movie mapResultSetToMovie(ResultSet rs) throws SQLException {
     try {
-    return new Movie(
+    Movie movie = new Movie(
     rs.getInt("id"),
     rs.getString("titulo"),
     rs.getString("director"),
@@ -471,39 +1282,18 @@ public class MovieDAOImpl implements MovieDAO {
     rs.getInt("duracion"),
     rs.getString("genero")
     );
-    } catch (SQLException e) {
-    throw new SQLException("Error al mapear ResultSet a Movie: " + e.getMessage(), e);
-    }
-    }
-    
-    /**
-    * Cierra recursos de base de datos de forma segura.
-    * Metodo de utilidad para limpiar recursos.
-    * 
-    * @param rs ResultSet a cerrar (puede ser null)
-    * @param stmt Statement a cerrar (puede ser null) 
-    * @param conn Connection a cerrar (puede ser null)
-    */
-    private void closeResources(ResultSet rs, Statement stmt, Connection conn) {
-    // Cerrar ResultSet
-    if (rs != null) {
-    try {
-    rs.close();
-    } catch (SQLException e) {
-    System.err.println("Error al cerrar ResultSet: " + e.getMessage());
+    movie.setVersion(rs.getInt("version"));
+    Timestamp createdAt = rs.getTimestamp("created_at");
+    if (createdAt != null) {
+    movie.setCreatedAt(createdAt.toLocalDateTime());
     }
+    Timestamp updatedAt = rs.getTimestamp("updated_at");
+    if (updatedAt != null) {
+    movie.setUpdatedAt(updatedAt.toLocalDateTime());
     }
-    
-    // Cerrar Statement
-    if (stmt != null) {
-    try {
-    stmt.close();
+    return movie;
     } catch (SQLException e) {
-    System.err.println("Error al cerrar Statement: " + e.getMessage());
-    }
+    throw new SQLException("Error al mapear ResultSet a Movie: " + e.getMessage(), e);
     }
-    
-    // NOTA: No cerrar Connection aqui porque DatabaseConnection maneja su ciclo de vida
-    // La conexion se reutiliza a traves del patron Singleton en DatabaseConnection
     }
 }
\ No newline at end of file
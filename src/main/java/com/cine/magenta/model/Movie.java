@@ -5,6 +5,7 @@
 package com.cine.magenta.model;
 
 import com.cine.magenta.config.DatabaseConfig;
+import com.cine.magenta.util.TextNormalizer;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 
@@ -18,6 +19,9 @@ import java.util.Arrays;
  */
 public class Movie {
     
+    /** Version de una pelicula que no se leyo de la base de datos */
+    public static final int UNKNOWN_VERSION = -1;
+    
     /** Identificador unico de la pelicula */
     private int id;
     
@@ -36,6 +40,14 @@ public class Movie {
     /** Genero cinematografico */
     private String genre;
     
+    /** Claves de busqueda sin tildes ni mayusculas, calculadas una vez al pedirse */
+    private String titleKey;
+    private String directorKey;
+    private String genreKey;
+    
+    /** Version del registro para el control de concurrencia optimista */
+    private int version = UNKNOWN_VERSION;
+    
     /** Fecha de creacion del registro */
     private LocalDateTime createdAt;
     
@@ -86,6 +98,24 @@ public class Movie {
         this.id = id;
     }
     
+    /**
+     * Crea una copia independiente con todos los campos, incluidas la version y las fechas.
+     * Las capas que guardan peliculas (caches, indices) entregan copias para que el
+     * llamador no pueda modificar su estado interno.
+     * 
+     * @return copia de la pelicula
+     */
+    public Movie copy() {
+        Movie copy = new Movie(id, title, director, year, duration, genre);
+        copy.titleKey = titleKey;
+        copy.directorKey = directorKey;
+        copy.genreKey = genreKey;
+        copy.version = version;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+    
     // Getters y Setters
     
     public int getId() {
@@ -102,6 +132,7 @@ public class Movie {
     
     public void setTitle(String title) {
         this.title = title != null ? title.trim() : null;
+        this.titleKey = null;
         updateTimestamp();
     }
     
@@ -111,6 +142,7 @@ public class Movie {
     
     public void setDirector(String director) {
         this.director = director != null ? director.trim() : null;
+        this.directorKey = null;
         updateTimestamp();
     }
     
@@ -138,9 +170,64 @@ public class Movie {
     
     public void setGenre(String genre) {
         this.genre = genre != null ? genre.trim() : null;
+        this.genreKey = null;
         updateTimestamp();
     }
     
+    /**
+     * Obtiene la clave de busqueda del titulo (sin tildes y en minusculas).
+     * 
+     * @return clave del titulo, vacia si no hay titulo
+     */
+    public String getTitleKey() {
+        if (titleKey == null) {
+            titleKey = TextNormalizer.normalize(title);
+        }
+        return titleKey;
+    }
+    
+    /**
+     * Obtiene la clave de busqueda del director (sin tildes y en minusculas).
+     * 
+     * @return clave del director, vacia si no hay director
+     */
+    public String getDirectorKey() {
+        if (directorKey == null) {
+            directorKey = TextNormalizer.normalize(director);
+        }
+        return directorKey;
+    }
+    
+    /**
+     * Obtiene la clave de busqueda del genero (sin tildes y en minusculas).
+     * 
+     * @return clave del genero, vacia si no hay genero
+     */
+    public String getGenreKey() {
+        if (genreKey == null) {
+            genreKey = TextNormalizer.normalize(genre);
+        }
+        return genreKey;
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
+    /**
+     * Indica si se conoce la version del registro, es decir, si la pelicula se leyo
+     * de la base de datos. Solo en ese caso una actualizacion puede detectar conflictos.
+     * 
+     * @return true si la version es conocida
+     */
+    public boolean hasVersion() {
+        return version != UNKNOWN_VERSION;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -215,7 +302,7 @@ public class Movie {
      * @return true si el genero es valido
      */
     private boolean isValidGenre(String genre) {
-        return Arrays.asList(DatabaseConfig.AVAILABLE_GENRES).contains(genre);
+        return TextNormalizer.findGenre(genre) != null;
     }
     
     /**
@@ -0,0 +1,70 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.model;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cambios del catalogo desde una marca de sincronizacion.
+ * Contiene las peliculas creadas o modificadas, los IDs eliminados (lapidas) y la
+ * marca a usar en la siguiente consulta. Aplicar dos veces los mismos cambios no
+ * tiene efecto adicional, por lo que las consultas pueden solaparse.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class MovieChanges {
+
+    /** Peliculas creadas o modificadas, en orden de modificacion */
+    private final List<Movie> changed;
+
+    /** IDs de las peliculas eliminadas */
+    private final int[] deletedIds;
+
+    /** Marca de sincronizacion para pedir los cambios siguientes */
+    private final Instant watermark;
+
+    /**
+     * Crea un conjunto de cambios.
+     *
+     * @param changed peliculas creadas o modificadas
+     * @param deletedIds IDs eliminados
+     * @param watermark marca para la siguiente consulta
+     */
+    public MovieChanges(List<Movie> changed, int[] deletedIds, Instant watermark) {
+        this.changed = changed != null ? Collections.unmodifiableList(changed) : Collections.emptyList();
+        this.deletedIds = deletedIds != null ? deletedIds.clone() : new int[0];
+        this.watermark = watermark;
+    }
+
+    public List<Movie> getChanged() {
+        return changed;
+    }
+
+    public int[] getDeletedIds() {
+        return deletedIds.clone();
+    }
+
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Indica si no hubo cambios.
+     *
+     * @return true si no hay peliculas modificadas ni eliminadas
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MovieChanges{changed=%d, deleted=%d, watermark=%s}",
+            changed.size(), deletedIds.length, watermark);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pagina de resultados de una consulta paginada de peliculas.
+ * Contiene el cursor opaco para pedir la pagina siguiente y, si se solicito,
+ * una estimacion del total de peliculas que cumplen los filtros.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class MoviePage {
+
+    /** Valor de total cuando no se solicito o no pudo estimarse */
+    public static final int UNKNOWN_TOTAL = -1;
+
+    /** Peliculas de la pagina en orden */
+    private final List<Movie> movies;
+
+    /** Cursor de la pagina siguiente o null si es la ultima */
+    private final String nextCursor;
+
+    /** Total estimado de resultados o UNKNOWN_TOTAL */
+    private final int estimatedTotal;
+
+    /**
+     * Crea una pagina de resultados.
+     *
+     * @param movies peliculas de la pagina
+     * @param nextCursor cursor de la pagina siguiente o null si es la ultima
+     * @param estimatedTotal total estimado o UNKNOWN_TOTAL
+     */
+    public MoviePage(List<Movie> movies, String nextCursor, int estimatedTotal) {
+        this.movies = movies != null ? Collections.unmodifiableList(movies) : Collections.emptyList();
+        this.nextCursor = nextCursor;
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    public List<Movie> getMovies() {
+        return movies;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    /**
+     * Indica si existe una pagina siguiente.
+     *
+     * @return true si hay mas resultados
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Indica si se conoce el total estimado de resultados.
+     *
+     * @return true si se solicito y pudo estimarse
+     */
+    public boolean hasEstimatedTotal() {
+        return estimatedTotal != UNKNOWN_TOTAL;
+    }
+
+    /**
+     * Obtiene el numero de peliculas de la pagina.
+     *
+     * @return tamaño de la pagina
+     */
+    public int size() {
+        return movies.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MoviePage{size=%d, hasNext=%s, estimatedTotal=%d}",
+            movies.size(), hasNext(), estimatedTotal);
+    }
+}
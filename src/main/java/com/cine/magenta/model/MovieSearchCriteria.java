@@ -0,0 +1,179 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.model;
+
+/**
+ * Criterios de busqueda combinada de peliculas.
+ * Solo los filtros establecidos se incluyen en la consulta; los demas se ignoran.
+ * Incluye el orden de los resultados y un limite opcional de filas.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class MovieSearchCriteria {
+
+    /**
+     * Campos por los que se pueden ordenar los resultados.
+     * Cada campo conoce su columna en la tabla Cartelera.
+     */
+    public enum SortField {
+        TITLE("titulo"),
+        DIRECTOR("director"),
+        YEAR("ano"),
+        DURATION("duracion"),
+        GENRE("genero");
+
+        /** Columna de la tabla asociada al campo */
+        private final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    /** Titulo o parte del titulo */
+    private String title;
+
+    /** Nombre o parte del nombre del director */
+    private String director;
+
+    /** Genero exacto */
+    private String genre;
+
+    /** Año inicial del rango (inclusive) */
+    private Integer yearFrom;
+
+    /** Año final del rango (inclusive) */
+    private Integer yearTo;
+
+    /** Campo de ordenamiento */
+    private SortField sortField = SortField.TITLE;
+
+    /** Indica si el orden es ascendente */
+    private boolean ascending = true;
+
+    /** Numero maximo de resultados (0 sin limite) */
+    private int limit = 0;
+
+    /**
+     * Constructor por defecto sin filtros.
+     */
+    public MovieSearchCriteria() {
+    }
+
+    // Getters y Setters
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = normalize(title);
+    }
+
+    public String getDirector() {
+        return director;
+    }
+
+    public void setDirector(String director) {
+        this.director = normalize(director);
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = normalize(genre);
+    }
+
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public Integer getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    public void setSortField(SortField sortField) {
+        this.sortField = sortField != null ? sortField : SortField.TITLE;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public void setAscending(boolean ascending) {
+        this.ascending = ascending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("El limite de resultados no puede ser negativo");
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * Indica si hay al menos un filtro establecido.
+     *
+     * @return true si algun filtro restringe los resultados
+     */
+    public boolean hasFilters() {
+        return title != null || director != null || genre != null
+            || yearFrom != null || yearTo != null;
+    }
+
+    /**
+     * Verifica que el rango de años sea coherente.
+     *
+     * @throws IllegalArgumentException si el año inicial es mayor que el final
+     */
+    public void validate() {
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            throw new IllegalArgumentException("El año inicial debe ser menor o igual al año final");
+        }
+    }
+
+    /**
+     * Convierte textos vacios en null para que no se usen como filtro.
+     *
+     * @param value texto a normalizar
+     * @return texto sin espacios extremos o null si esta vacio
+     */
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MovieSearchCriteria{title='%s', director='%s', genre='%s', years=%s-%s, sort=%s %s, limit=%d}",
+            title, director, genre, yearFrom, yearTo, sortField, ascending ? "ASC" : "DESC", limit);
+    }
+}
@@ -0,0 +1,521 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.config.DatabaseConfig;
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
+import com.cine.magenta.util.IntLinkedMap;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Version asincrona de MovieService: cada operacion devuelve un CompletableFuture
+ * en lugar de bloquear al llamador, de modo que lecturas independientes (conteo,
+ * generos, primera pagina) pueden lanzarse en paralelo.
+ * Las operaciones se ejecutan con hilos virtuales cuando la JVM los ofrece
+ * (Java 21 o superior) y con un pool de hilos daemon en caso contrario.
+ * El numero de operaciones simultaneas se limita a los permisos configurados,
+ * por defecto las conexiones del pool; las demas esperan en una cola sin ocupar
+ * un hilo hasta que se libera un permiso.
+ * Los futuros fallidos conservan la excepcion original del servicio.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class AsyncMovieService implements AutoCloseable {
+
+    /** Servicio sincrono que realiza las operaciones */
+    private final MovieService delegate;
+
+    /** Ejecutor de las operaciones admitidas */
+    private final Executor executor;
+
+    /** Ejecutor creado por este servicio, que se cierra con close() (null si es externo) */
+    private final ExecutorService ownedExecutor;
+
+    /** Indica si el ejecutor propio usa hilos virtuales */
+    private final boolean virtualThreads;
+
+    /** Permisos de ejecucion simultanea */
+    private final Semaphore permits;
+
+    /** Operaciones a la espera de un permiso, en orden de llegada */
+    private final Queue<PendingCall<?>> waiting = new ConcurrentLinkedQueue<>();
+
+    /** Operaciones en ejecucion */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Crea el servicio con su propio ejecutor, limitado por las conexiones del pool.
+     *
+     * @param delegate servicio sincrono
+     */
+    public AsyncMovieService(MovieService delegate) {
+        this(delegate, createExecutor(), DatabaseConfig.MAX_CONNECTIONS, true);
+    }
+
+    /**
+     * Crea el servicio con un ejecutor externo, que no se cierra con close().
+     *
+     * @param delegate servicio sincrono
+     * @param executor ejecutor de las operaciones
+     * @param maxConcurrent numero maximo de operaciones simultaneas
+     */
+    public AsyncMovieService(MovieService delegate, Executor executor, int maxConcurrent) {
+        this(delegate, executor, maxConcurrent, false);
+    }
+
+    /**
+     * Constructor comun.
+     *
+     * @param delegate servicio sincrono
+     * @param executor ejecutor de las operaciones
+     * @param maxConcurrent numero maximo de operaciones simultaneas
+     * @param owned true si el ejecutor pertenece a este servicio
+     */
+    private AsyncMovieService(MovieService delegate, Executor executor, int maxConcurrent, boolean owned) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("MovieService no puede ser null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("El ejecutor no puede ser null");
+        }
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("El maximo de operaciones simultaneas debe ser positivo");
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.virtualThreads = owned && executor.getClass().getName().contains("ThreadPerTaskExecutor");
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Crea una pelicula aplicando las validaciones del servicio.
+     *
+     * @param movie pelicula a crear
+     * @return futuro con la pelicula y su ID asignado
+     */
+    public CompletableFuture<Movie> createMovie(Movie movie) {
+        return submit(() -> delegate.createMovie(movie));
+    }
+
+    /**
+     * Obtiene una pelicula por su ID.
+     *
+     * @param id identificador de la pelicula
+     * @return futuro con la pelicula
+     */
+    public CompletableFuture<Movie> getMovieById(int id) {
+        return submit(() -> delegate.getMovieById(id));
+    }
+
+    /**
+     * Lee la version actual de una pelicula sin pasar por caches.
+     *
+     * @param id identificador de la pelicula
+     * @return futuro con la pelicula o null si ya no existe
+     */
+    public CompletableFuture<Movie> refreshMovie(int id) {
+        return submit(() -> delegate.refreshMovie(id));
+    }
+
+    /**
+     * Obtiene varias peliculas por ID en pocas consultas.
+     *
+     * @param ids identificadores de las peliculas
+     * @return futuro con las peliculas encontradas en el orden pedido
+     */
+    public CompletableFuture<IntLinkedMap<Movie>> getMoviesByIds(int[] ids) {
+        return submit(() -> delegate.getMoviesByIds(ids));
+    }
+
+    /**
+     * Obtiene todas las peliculas.
+     *
+     * @return futuro con la lista de peliculas
+     */
+    public CompletableFuture<List<Movie>> getAllMovies() {
+        return submit(delegate::getAllMovies);
+    }
+
+    /**
+     * Busca peliculas por titulo.
+     *
+     * @param title texto a buscar en el titulo
+     * @return futuro con las peliculas encontradas
+     */
+    public CompletableFuture<List<Movie>> searchMoviesByTitle(String title) {
+        return submit(() -> delegate.searchMoviesByTitle(title));
+    }
+
+    /**
+     * Busca peliculas por titulo, opcionalmente con el indice de texto completo.
+     *
+     * @param title texto a buscar en el titulo
+     * @param fullText true para usar el indice de texto completo
+     * @return futuro con las peliculas encontradas
+     */
+    public CompletableFuture<List<Movie>> searchMoviesByTitle(String title, boolean fullText) {
+        return submit(() -> delegate.searchMoviesByTitle(title, fullText));
+    }
+
+    /**
+     * Obtiene las peliculas de un director.
+     *
+     * @param director nombre del director
+     * @return futuro con las peliculas del director
+     */
+    public CompletableFuture<List<Movie>> getMoviesByDirector(String director) {
+        return submit(() -> delegate.getMoviesByDirector(director));
+    }
+
+    /**
+     * Obtiene las peliculas de un genero.
+     *
+     * @param genre genero a filtrar
+     * @return futuro con las peliculas del genero
+     */
+    public CompletableFuture<List<Movie>> getMoviesByGenre(String genre) {
+        return submit(() -> delegate.getMoviesByGenre(genre));
+    }
+
+    /**
+     * Obtiene las peliculas de un año.
+     *
+     * @param year año de estreno
+     * @return futuro con las peliculas del año
+     */
+    public CompletableFuture<List<Movie>> getMoviesByYear(int year) {
+        return submit(() -> delegate.getMoviesByYear(year));
+    }
+
+    /**
+     * Obtiene las peliculas de un rango de años.
+     *
+     * @param startYear año inicial inclusive
+     * @param endYear año final inclusive
+     * @return futuro con las peliculas del rango
+     */
+    public CompletableFuture<List<Movie>> getMoviesByYearRange(int startYear, int endYear) {
+        return submit(() -> delegate.getMoviesByYearRange(startYear, endYear));
+    }
+
+    /**
+     * Busca peliculas combinando los criterios en una sola consulta.
+     *
+     * @param criteria criterios de busqueda
+     * @return futuro con las peliculas encontradas
+     */
+    public CompletableFuture<List<Movie>> searchMovies(MovieSearchCriteria criteria) {
+        return submit(() -> delegate.searchMovies(criteria));
+    }
+
+    /**
+     * Recorre todas las peliculas; el consumidor se ejecuta en el hilo de la operacion.
+     *
+     * @param consumer accion a ejecutar por cada pelicula
+     * @return futuro que termina al recorrer la ultima pelicula
+     */
+    public CompletableFuture<Void> forEachMovie(Consumer<Movie> consumer) {
+        return submit(() -> {
+            delegate.forEachMovie(consumer);
+            return null;
+        });
+    }
+
+    /**
+     * Obtiene una pagina de peliculas ordenada por titulo.
+     *
+     * @param criteria filtros de busqueda o null para todas las peliculas
+     * @param cursor cursor de la pagina anterior o null para la primera
+     * @param pageSize numero de peliculas por pagina
+     * @param includeTotal true para incluir el total estimado
+     * @return futuro con la pagina
+     */
+    public CompletableFuture<MoviePage> getMoviesPage(MovieSearchCriteria criteria, String cursor,
+                                                      int pageSize, boolean includeTotal) {
+        return submit(() -> delegate.getMoviesPage(criteria, cursor, pageSize, includeTotal));
+    }
+
+    /**
+     * Actualiza una pelicula existente.
+     *
+     * @param movie pelicula con los nuevos datos
+     * @return futuro con la pelicula actualizada
+     */
+    public CompletableFuture<Movie> updateMovie(Movie movie) {
+        return submit(() -> delegate.updateMovie(movie));
+    }
+
+    /**
+     * Elimina una pelicula.
+     *
+     * @param id identificador de la pelicula
+     * @return futuro con true si se elimino
+     */
+    public CompletableFuture<Boolean> deleteMovie(int id) {
+        return submit(() -> delegate.deleteMovie(id));
+    }
+
+    /**
+     * Actualiza una pelicula informando si no existe en lugar de fallar.
+     *
+     * @param movie pelicula con los nuevos datos
+     * @return futuro con SUCCESS o NOT_FOUND
+     */
+    public CompletableFuture<WriteResult> tryUpdateMovie(Movie movie) {
+        return submit(() -> delegate.tryUpdateMovie(movie));
+    }
+
+    /**
+     * Elimina una pelicula informando si no existia en lugar de fallar.
+     *
+     * @param id identificador de la pelicula
+     * @return futuro con SUCCESS o NOT_FOUND
+     */
+    public CompletableFuture<WriteResult> tryDeleteMovie(int id) {
+        return submit(() -> delegate.tryDeleteMovie(id));
+    }
+
+    /**
+     * Verifica si existe una pelicula.
+     *
+     * @param id identificador de la pelicula
+     * @return futuro con true si existe
+     */
+    public CompletableFuture<Boolean> movieExists(int id) {
+        return submit(() -> delegate.movieExists(id));
+    }
+
+    /**
+     * Crea varias peliculas en lote.
+     *
+     * @param movies peliculas a crear
+     * @return futuro con las peliculas creadas
+     */
+    public CompletableFuture<List<Movie>> createMovies(List<Movie> movies) {
+        return submit(() -> delegate.createMovies(movies));
+    }
+
+    /**
+     * Actualiza varias peliculas en lote.
+     *
+     * @param movies peliculas con los nuevos datos
+     * @return futuro con el numero de peliculas actualizadas
+     */
+    public CompletableFuture<Integer> updateMovies(List<Movie> movies) {
+        return submit(() -> delegate.updateMovies(movies));
+    }
+
+    /**
+     * Elimina varias peliculas en lote.
+     *
+     * @param ids identificadores de las peliculas
+     * @return futuro con el numero de peliculas eliminadas
+     */
+    public CompletableFuture<Integer> deleteMovies(int[] ids) {
+        return submit(() -> delegate.deleteMovies(ids));
+    }
+
+    /**
+     * Obtiene el numero total de peliculas.
+     *
+     * @return futuro con el total
+     */
+    public CompletableFuture<Integer> getTotalMovies() {
+        return submit(delegate::getTotalMovies);
+    }
+
+    /**
+     * Obtiene los cambios del catalogo desde una marca de sincronizacion.
+     *
+     * @param since marca de la consulta anterior
+     * @return futuro con los cambios
+     */
+    public CompletableFuture<MovieChanges> getChangesSince(Instant since) {
+        return submit(() -> delegate.getChangesSince(since));
+    }
+
+    /**
+     * Obtiene la hora actual del servidor de base de datos.
+     *
+     * @return futuro con la hora del servidor
+     */
+    public CompletableFuture<Instant> getServerTime() {
+        return submit(delegate::getServerTime);
+    }
+
+    /**
+     * Valida los datos de una pelicula.
+     *
+     * @param movie pelicula a validar
+     * @return futuro que falla con IllegalArgumentException si los datos son invalidos
+     */
+    public CompletableFuture<Void> validateMovie(Movie movie) {
+        return submit(() -> {
+            delegate.validateMovie(movie);
+            return null;
+        });
+    }
+
+    /**
+     * Indica si las operaciones se ejecutan con hilos virtuales.
+     *
+     * @return true si el ejecutor propio usa hilos virtuales
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Obtiene el numero de operaciones en ejecucion.
+     *
+     * @return operaciones activas
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Obtiene el numero de operaciones a la espera de un permiso.
+     *
+     * @return operaciones en cola
+     */
+    public int getQueuedCount() {
+        return waiting.size();
+    }
+
+    /**
+     * Cierra el ejecutor propio; las operaciones en cola fallan.
+     * Un ejecutor externo no se cierra.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        PendingCall<?> call;
+        while ((call = waiting.poll()) != null) {
+            call.future.completeExceptionally(new RejectedExecutionException("AsyncMovieService cerrado"));
+        }
+    }
+
+    /**
+     * Encola una operacion y la ejecuta en cuanto haya un permiso libre.
+     *
+     * @param call operacion del servicio sincrono
+     * @return futuro con el resultado
+     */
+    private <T> CompletableFuture<T> submit(ServiceCall<T> call) {
+        PendingCall<T> pending = new PendingCall<>(call);
+        waiting.add(pending);
+        dispatch();
+        return pending.future;
+    }
+
+    /**
+     * Entrega operaciones de la cola al ejecutor mientras haya permisos.
+     * Se llama al encolar y al terminar cada operacion, por lo que ninguna queda
+     * esperando con permisos libres.
+     */
+    private void dispatch() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            PendingCall<?> call = waiting.poll();
+            if (call == null) {
+                permits.release();
+                continue;
+            }
+            active.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        call.run();
+                    } finally {
+                        finished();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                call.future.completeExceptionally(e);
+                finished();
+            }
+        }
+    }
+
+    /**
+     * Libera el permiso de una operacion terminada y admite la siguiente.
+     */
+    private void finished() {
+        active.decrementAndGet();
+        permits.release();
+        dispatch();
+    }
+
+    /**
+     * Crea un ejecutor de un hilo virtual por tarea si la JVM lo ofrece,
+     * o un pool de hilos daemon en caso contrario.
+     *
+     * @return ejecutor de las operaciones
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            // Disponible desde Java 21; se busca por reflexion para compilar con Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "cine-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Operacion del servicio sincrono.
+     *
+     * @param <T> tipo del resultado
+     */
+    @FunctionalInterface
+    private interface ServiceCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Operacion en espera junto al futuro que recibe su resultado.
+     *
+     * @param <T> tipo del resultado
+     */
+    private static final class PendingCall<T> implements Runnable {
+        private final ServiceCall<T> call;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        PendingCall(ServiceCall<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.config.DatabaseConfig;
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
+import com.cine.magenta.util.IntLinkedMap;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Decorador de MovieService con cache de lectura en memoria.
+ * Guarda las peliculas por ID y una copia ordenada del catalogo completo;
+ * las escrituras realizadas a traves de este servicio invalidan el cache.
+ * Las entradas caducan tras un tiempo para acotar la desactualizacion frente
+ * a cambios hechos por otros clientes de la base de datos.
+ * Las peliculas se entregan como copias para que el llamador no altere el cache.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class CachingMovieService implements MovieService {
+
+    /** Servicio real al que se delegan las operaciones */
+    private final MovieService delegate;
+
+    /** Tiempo de vida de las entradas del cache (ms) */
+    private final long ttlMillis;
+
+    /** Peliculas cacheadas por ID */
+    private final Map<Integer, CachedMovie> moviesById = new ConcurrentHashMap<>();
+
+    /** Copia del catalogo completo ordenada por titulo, o null si no esta cargada */
+    private volatile CachedList allMovies;
+
+    /**
+     * Generacion del cache; cada escritura la incrementa para que una lectura
+     * iniciada antes no guarde datos anteriores a la escritura.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Bloqueo que hace atomicos la comprobacion de generacion y el guardado de una
+     * lectura frente a las invalidaciones; sin el, una escritura podria intercalarse
+     * entre ambos pasos y la lectura guardaria datos anteriores a ella.
+     */
+    private final Object storeLock = new Object();
+
+    /** Lecturas resueltas desde el cache */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Lecturas que tuvieron que ir a la base de datos */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Crea el cache sobre el servicio indicado con el tiempo de vida por defecto.
+     *
+     * @param delegate servicio real
+     */
+    public CachingMovieService(MovieService delegate) {
+        this(delegate, DatabaseConfig.MOVIE_CACHE_TTL);
+    }
+
+    /**
+     * Crea el cache sobre el servicio indicado.
+     *
+     * @param delegate servicio real
+     * @param ttlMillis tiempo de vida de las entradas en milisegundos
+     */
+    public CachingMovieService(MovieService delegate, long ttlMillis) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("MovieService no puede ser null");
+        }
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public Movie createMovie(Movie movie) throws Exception {
+        Movie created = delegate.createMovie(movie);
+        invalidateList();
+        cacheMovie(created);
+        return created;
+    }
+
+    @Override
+    public Movie getMovieById(int id) throws Exception {
+        CachedMovie cached = moviesById.get(id);
+        if (cached != null && !isExpired(cached.loadedAt)) {
+            hits.incrementAndGet();
+            return cached.movie.copy();
+        }
+
+        misses.incrementAndGet();
+        long startGeneration = generation.get();
+        Movie movie = delegate.getMovieById(id);
+        storeIfCurrent(startGeneration, () -> cacheMovie(movie));
+        return movie != null ? movie.copy() : null;
+    }
+
+    @Override
+    public Movie refreshMovie(int id) throws Exception {
+        // Siempre se lee de la base de datos; la fila leida reemplaza a la cacheada
+        long startGeneration = generation.get();
+        Movie movie = delegate.refreshMovie(id);
+        storeIfCurrent(startGeneration, () -> {
+            if (movie != null) {
+                cacheMovie(movie);
+            } else {
+                moviesById.remove(id);
+            }
+        });
+        return movie != null ? movie.copy() : null;
+    }
+
+    @Override
+    public IntLinkedMap<Movie> getMoviesByIds(int[] ids) throws Exception {
+        if (ids == null) {
+            throw new IllegalArgumentException("La lista de IDs no puede ser null");
+        }
+
+        // Solo se consultan los IDs que no estan en el cache o ya vencieron
+        int[] requested = Arrays.stream(ids).filter(id -> id > 0).distinct().toArray();
+        IntLinkedMap<Movie> cachedMovies = new IntLinkedMap<>(requested.length);
+        int[] missing = new int[requested.length];
+        int missingCount = 0;
+        for (int id : requested) {
+            CachedMovie cached = moviesById.get(id);
+            if (cached != null && !isExpired(cached.loadedAt)) {
+                cachedMovies.put(id, cached.movie);
+            } else {
+                missing[missingCount++] = id;
+            }
+        }
+        hits.addAndGet(cachedMovies.size());
+        misses.addAndGet(missingCount);
+
+        IntLinkedMap<Movie> loaded = new IntLinkedMap<>(0);
+        if (missingCount > 0) {
+            long startGeneration = generation.get();
+            IntLinkedMap<Movie> fetched = delegate.getMoviesByIds(Arrays.copyOf(missing, missingCount));
+            storeIfCurrent(startGeneration, () -> {
+                for (int i = 0; i < fetched.size(); i++) {
+                    cacheMovie(fetched.valueAt(i));
+                }
+            });
+            loaded = fetched;
+        }
+
+        IntLinkedMap<Movie> result = new IntLinkedMap<>(requested.length);
+        for (int id : requested) {
+            Movie movie = cachedMovies.containsKey(id) ? cachedMovies.get(id) : loaded.get(id);
+            if (movie != null) {
+                result.put(id, movie.copy());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Movie> getAllMovies() throws Exception {
+        CachedList cached = allMovies;
+        if (cached != null && !isExpired(cached.loadedAt)) {
+            hits.incrementAndGet();
+            return copyOf(cached.movies);
+        }
+
+        misses.incrementAndGet();
+        long startGeneration = generation.get();
+        List<Movie> movies = delegate.getAllMovies();
+        List<Movie> snapshot = Collections.unmodifiableList(copyOf(movies));
+
+        // Solo se guarda si ninguna escritura ocurrio durante la consulta
+        storeIfCurrent(startGeneration, () -> {
+            allMovies = new CachedList(snapshot, System.currentTimeMillis());
+            for (Movie movie : snapshot) {
+                cacheMovie(movie);
+            }
+        });
+        return copyOf(snapshot);
+    }
+
+    @Override
+    public List<Movie> searchMoviesByTitle(String title) throws Exception {
+        return delegate.searchMoviesByTitle(title);
+    }
+
+    @Override
+    public List<Movie> searchMoviesByTitle(String title, boolean fullText) throws Exception {
+        return delegate.searchMoviesByTitle(title, fullText);
+    }
+
+    @Override
+    public List<Movie> getMoviesByDirector(String director) throws Exception {
+        return delegate.getMoviesByDirector(director);
+    }
+
+    @Override
+    public List<Movie> getMoviesByGenre(String genre) throws Exception {
+        return delegate.getMoviesByGenre(genre);
+    }
+
+    @Override
+    public List<Movie> getMoviesByYear(int year) throws Exception {
+        return delegate.getMoviesByYear(year);
+    }
+
+    @Override
+    public List<Movie> getMoviesByYearRange(int startYear, int endYear) throws Exception {
+        return delegate.getMoviesByYearRange(startYear, endYear);
+    }
+
+    @Override
+    public List<Movie> searchMovies(MovieSearchCriteria criteria) throws Exception {
+        return delegate.searchMovies(criteria);
+    }
+
+    @Override
+    public void forEachMovie(Consumer<Movie> consumer) throws Exception {
+        delegate.forEachMovie(consumer);
+    }
+
+    @Override
+    public MoviePage getMoviesPage(MovieSearchCriteria criteria, String cursor, int pageSize, boolean includeTotal) throws Exception {
+        return delegate.getMoviesPage(criteria, cursor, pageSize, includeTotal);
+    }
+
+    @Override
+    public Movie updateMovie(Movie movie) throws Exception {
+        try {
+            Movie updated = delegate.updateMovie(movie);
+            invalidateList();
+            cacheMovie(updated);
+            return updated;
+        } catch (Exception e) {
+            // Ante un fallo se descarta la entrada: el estado real es incierto
+            if (movie != null) {
+                invalidateMovie(movie.getId());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean deleteMovie(int id) throws Exception {
+        try {
+            return delegate.deleteMovie(id);
+        } finally {
+            invalidateMovie(id);
+        }
+    }
+
+    @Override
+    public WriteResult tryUpdateMovie(Movie movie) throws Exception {
+        try {
+            WriteResult result = delegate.tryUpdateMovie(movie);
+            if (result.isSuccess()) {
+                invalidateList();
+                cacheMovie(movie);
+            } else {
+                invalidateMovie(movie.getId());
+            }
+            return result;
+        } catch (Exception e) {
+            if (movie != null) {
+                invalidateMovie(movie.getId());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public WriteResult tryDeleteMovie(int id) throws Exception {
+        try {
+            return delegate.tryDeleteMovie(id);
+        } finally {
+            invalidateMovie(id);
+        }
+    }
+
+    @Override
+    public boolean movieExists(int id) throws Exception {
+        CachedMovie cached = moviesById.get(id);
+        if (cached != null && !isExpired(cached.loadedAt)) {
+            hits.incrementAndGet();
+            return true;
+        }
+
+        misses.incrementAndGet();
+        return delegate.movieExists(id);
+    }
+
+    @Override
+    public List<Movie> createMovies(List<Movie> movies) throws Exception {
+        try {
+            return delegate.createMovies(movies);
+        } finally {
+            invalidateList();
+        }
+    }
+
+    @Override
+    public int updateMovies(List<Movie> movies) throws Exception {
+        try {
+            return delegate.updateMovies(movies);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public int deleteMovies(int[] ids) throws Exception {
+        try {
+            return delegate.deleteMovies(ids);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public int getTotalMovies() throws Exception {
+        CachedList cached = allMovies;
+        if (cached != null && !isExpired(cached.loadedAt)) {
+            hits.incrementAndGet();
+            return cached.movies.size();
+        }
+
+        misses.incrementAndGet();
+        return delegate.getTotalMovies();
+    }
+
+    @Override
+    public MovieChanges getChangesSince(Instant since) throws Exception {
+        MovieChanges changes = delegate.getChangesSince(since);
+        if (!changes.isEmpty()) {
+            // Las filas modificadas llegan completas: se guardan en lugar de descartarlas
+            invalidateList();
+            for (Movie movie : changes.getChanged()) {
+                cacheMovie(movie);
+            }
+            for (int id : changes.getDeletedIds()) {
+                invalidateMovie(id);
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public Instant getServerTime() throws Exception {
+        return delegate.getServerTime();
+    }
+
+    @Override
+    public void validateMovie(Movie movie) throws Exception {
+        delegate.validateMovie(movie);
+    }
+
+    /**
+     * Descarta todo el contenido del cache.
+     */
+    public void invalidateAll() {
+        synchronized (storeLock) {
+            generation.incrementAndGet();
+            allMovies = null;
+            moviesById.clear();
+        }
+    }
+
+    /**
+     * Obtiene el numero de lecturas resueltas desde el cache.
+     *
+     * @return aciertos
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Obtiene el numero de lecturas que consultaron la base de datos.
+     *
+     * @return fallos
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Obtiene la proporcion de lecturas resueltas desde el cache.
+     *
+     * @return valor entre 0 y 1 (0 si aun no hubo lecturas)
+     */
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Obtiene un resumen del estado del cache.
+     *
+     * @return texto con aciertos, fallos, tasa y entradas
+     */
+    public String getCacheStats() {
+        CachedList cached = allMovies;
+        return String.format("Cache de peliculas: aciertos %d, fallos %d, tasa %.1f%%, entradas %d, catalogo %s",
+            hits.get(), misses.get(), getHitRate() * 100, moviesById.size(),
+            cached != null ? "cargado" : "no cargado");
+    }
+
+    /**
+     * Guarda una copia de la pelicula en el cache por ID.
+     *
+     * @param movie pelicula a guardar (se ignora si es null o no tiene ID)
+     */
+    private void cacheMovie(Movie movie) {
+        if (movie != null && movie.getId() > 0) {
+            moviesById.put(movie.getId(), new CachedMovie(movie.copy(), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Descarta una pelicula y la copia del catalogo completo.
+     *
+     * @param id identificador de la pelicula
+     */
+    private void invalidateMovie(int id) {
+        synchronized (storeLock) {
+            generation.incrementAndGet();
+            moviesById.remove(id);
+            allMovies = null;
+        }
+    }
+
+    /**
+     * Descarta la copia del catalogo completo tras una escritura.
+     */
+    private void invalidateList() {
+        synchronized (storeLock) {
+            generation.incrementAndGet();
+            allMovies = null;
+        }
+    }
+
+    /**
+     * Guarda el resultado de una lectura solo si ninguna escritura ocurrio desde que empezo.
+     * Las escrituras invalidan bajo el mismo bloqueo antes de guardar sus propios datos,
+     * por lo que una lectura anterior no puede reemplazarlos.
+     *
+     * @param startGeneration generacion leida antes de consultar al servicio real
+     * @param store guardado a realizar
+     */
+    private void storeIfCurrent(long startGeneration, Runnable store) {
+        synchronized (storeLock) {
+            if (generation.get() == startGeneration) {
+                store.run();
+            }
+        }
+    }
+
+    /**
+     * Indica si una entrada cargada en el instante dado ya caduco.
+     *
+     * @param loadedAt instante de carga en milisegundos
+     * @return true si supero el tiempo de vida
+     */
+    private boolean isExpired(long loadedAt) {
+        return ttlMillis > 0 && System.currentTimeMillis() - loadedAt > ttlMillis;
+    }
+
+    /**
+     * Crea una lista modificable con copias de las peliculas.
+     *
+     * @param movies peliculas originales
+     * @return lista nueva con copias
+     */
+    private static List<Movie> copyOf(List<Movie> movies) {
+        List<Movie> copies = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            copies.add(movie.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Pelicula cacheada con su instante de carga.
+     */
+    private static final class CachedMovie {
+        private final Movie movie;
+        private final long loadedAt;
+
+        CachedMovie(Movie movie, long loadedAt) {
+            this.movie = movie;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Catalogo completo cacheado con su instante de carga.
+     */
+    private static final class CachedList {
+        private final List<Movie> movies;
+        private final long loadedAt;
+
+        CachedList(List<Movie> movies, long loadedAt) {
+            this.movies = movies;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
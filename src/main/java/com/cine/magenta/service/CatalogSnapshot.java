@@ -0,0 +1,854 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.util.TextNormalizer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copia inmutable del catalogo organizada por columnas.
+ * Cada pelicula ocupa una fila, ordenadas por ID; el año, la duracion y el ID se
+ * guardan en arreglos int, el genero como codigo byte de un diccionario y el titulo,
+ * el director y el genero tal como se escribio como indices a tablas de textos compartidos.
+ * El diccionario agrupa las grafias de un genero sin tildes ni mayusculas y solo se usa
+ * para filtrar; cada pelicula se reconstruye con su propia grafia.
+ * Los filtros recorren solo la columna que necesitan y devuelven un BitSet de filas,
+ * de modo que varios filtros se combinan con operaciones de bits.
+ * Para los filtros frecuentes hay indices precalculados: un mapa de bits por genero,
+ * que se copia en lugar de recorrer la columna, y las filas ordenadas por año, donde
+ * un rango se resuelve con dos busquedas binarias. Los conteos por genero de un
+ * conjunto de filas se calculan en una pasada con AND y conteo de bits.
+ * Las fechas de creacion y actualizacion se guardan como milisegundos en arreglos long.
+ * Las peliculas se reconstruyen desde las columnas al pedirse, siempre como objetos nuevos.
+ * Un cambio de una sola pelicula no reconstruye la copia: withMovie y withoutMovie
+ * devuelven una copia nueva corregida con copias de arreglos, en tiempo lineal y sin
+ * volver a ordenar. Los textos de las filas corregidas se agregan al final de las tablas;
+ * cuando las tablas acumulan demasiados textos sin usar, la copia se reconstruye.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public final class CatalogSnapshot {
+
+    /** Maximo de generos distintos que admite el codigo byte */
+    private static final int MAX_GENRES = 256;
+
+    /** Marca de fecha ausente en las columnas de fechas */
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    /** IDs por fila en orden ascendente */
+    private int[] ids;
+
+    /** Año de cada fila */
+    private int[] years;
+
+    /** Duracion de cada fila */
+    private int[] durations;
+
+    /** Version de cada fila */
+    private int[] versions;
+
+    /** Fecha de creacion de cada fila en milisegundos, o NO_TIME */
+    private long[] createdTimes;
+
+    /** Fecha de actualizacion de cada fila en milisegundos, o NO_TIME */
+    private long[] updatedTimes;
+
+    /** Codigo de genero de cada fila (sin signo) */
+    private byte[] genreCodes;
+
+    /** Genero, con la grafia de la primera fila que lo usa, de cada codigo */
+    private String[] genreNames;
+
+    /** Codigo de cada clave de genero sin tildes ni mayusculas */
+    private Map<String, Integer> genreCodeByKey;
+
+    /** Indice del genero de cada fila, tal como se escribio, en la tabla de generos */
+    private int[] genreTextCodes;
+
+    /** Generos distintos tal como se escribieron */
+    private String[] genreTextTable;
+
+    /** Indice del titulo de cada fila en la tabla de titulos */
+    private int[] titleCodes;
+
+    /** Titulos distintos */
+    private String[] titleTable;
+
+    /** Clave de busqueda de cada titulo de la tabla */
+    private String[] titleKeyTable;
+
+    /** Indice del director de cada fila en la tabla de directores */
+    private int[] directorCodes;
+
+    /** Directores distintos */
+    private String[] directorTable;
+
+    /** Filas en orden de titulo, como ORDER BY titulo, id */
+    private int[] rowsByTitle;
+
+    /** Posicion de cada fila en rowsByTitle */
+    private int[] titleRanks;
+
+    /** Mapa de bits de filas por codigo de genero */
+    private long[][] genreBitmaps;
+
+    /** Filas ordenadas por año */
+    private int[] rowsByYear;
+
+    /** Años en el orden de rowsByYear, para las busquedas binarias */
+    private int[] sortedYears;
+
+    /**
+     * Construye la copia por columnas de las peliculas dadas.
+     *
+     * @param movies peliculas del catalogo
+     * @throws IllegalStateException si hay mas generos distintos de los que admite el codigo
+     */
+    public CatalogSnapshot(Collection<Movie> movies) {
+        Movie[] rows = movies.toArray(new Movie[0]);
+        Arrays.sort(rows, Comparator.comparingInt(Movie::getId));
+        int size = rows.length;
+
+        ids = new int[size];
+        years = new int[size];
+        durations = new int[size];
+        versions = new int[size];
+        createdTimes = new long[size];
+        updatedTimes = new long[size];
+        genreCodes = new byte[size];
+        genreTextCodes = new int[size];
+        titleCodes = new int[size];
+        directorCodes = new int[size];
+
+        List<String> genres = new ArrayList<>();
+        genreCodeByKey = new HashMap<>();
+        StringTable titles = new StringTable();
+        List<String> titleKeys = new ArrayList<>();
+        StringTable directors = new StringTable();
+        StringTable genreTexts = new StringTable();
+
+        for (int row = 0; row < size; row++) {
+            Movie movie = rows[row];
+            ids[row] = movie.getId();
+            years[row] = movie.getYear();
+            durations[row] = movie.getDuration();
+            versions[row] = movie.getVersion();
+            createdTimes[row] = toMillis(movie.getCreatedAt());
+            updatedTimes[row] = toMillis(movie.getUpdatedAt());
+            titleCodes[row] = titles.codeOf(movie.getTitle());
+            if (titleCodes[row] == titleKeys.size()) {
+                titleKeys.add(movie.getTitleKey());
+            }
+            directorCodes[row] = directors.codeOf(movie.getDirector());
+            genreTextCodes[row] = genreTexts.codeOf(movie.getGenre());
+
+            Integer code = genreCodeByKey.get(movie.getGenreKey());
+            if (code == null) {
+                if (genres.size() == MAX_GENRES) {
+                    throw new IllegalStateException("El catalogo supera los " + MAX_GENRES + " generos distintos");
+                }
+                code = genres.size();
+                genres.add(movie.getGenre());
+                genreCodeByKey.put(movie.getGenreKey(), code);
+            }
+            genreCodes[row] = (byte) code.intValue();
+        }
+
+        genreNames = genres.toArray(new String[0]);
+        titleTable = titles.toArray();
+        titleKeyTable = titleKeys.toArray(new String[0]);
+        directorTable = directors.toArray();
+        genreTextTable = genreTexts.toArray();
+
+        // Solo se comparan los titulos distintos; las filas se ordenan por el rango de su
+        // titulo y, como estan ordenadas por ID, la fila desempata igual que el ID
+        Integer[] codesByKey = new Integer[titleKeyTable.length];
+        for (int code = 0; code < codesByKey.length; code++) {
+            codesByKey[code] = code;
+        }
+        Arrays.sort(codesByKey, Comparator.comparing((Integer code) -> titleKeyTable[code]));
+        int[] keyRanks = new int[codesByKey.length];
+        for (int i = 1; i < codesByKey.length; i++) {
+            boolean sameKey = titleKeyTable[codesByKey[i]].equals(titleKeyTable[codesByKey[i - 1]]);
+            keyRanks[codesByKey[i]] = sameKey ? keyRanks[codesByKey[i - 1]] : i;
+        }
+        long[] titleRows = new long[size];
+        for (int row = 0; row < size; row++) {
+            titleRows[row] = ((long) keyRanks[titleCodes[row]] << 32) | row;
+        }
+        Arrays.sort(titleRows);
+        rowsByTitle = new int[size];
+        for (int i = 0; i < size; i++) {
+            rowsByTitle[i] = (int) titleRows[i];
+        }
+        titleRanks = ranksOf(rowsByTitle);
+
+        // Un mapa de bits denso por genero: una palabra long cubre 64 filas
+        genreBitmaps = new long[genreNames.length][(size + 63) >>> 6];
+        for (int row = 0; row < size; row++) {
+            genreBitmaps[genreCodes[row] & 0xFF][row >>> 6] |= 1L << row;
+        }
+
+        // Filas ordenadas por año para los rangos
+        long[] yearRows = new long[size];
+        for (int row = 0; row < size; row++) {
+            yearRows[row] = ((long) years[row] << 32) | row;
+        }
+        Arrays.sort(yearRows);
+        rowsByYear = new int[size];
+        sortedYears = new int[size];
+        for (int i = 0; i < size; i++) {
+            rowsByYear[i] = (int) yearRows[i];
+            sortedYears[i] = (int) (yearRows[i] >> 32);
+        }
+    }
+
+    /**
+     * Obtiene el numero de peliculas de la copia.
+     *
+     * @return filas
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Obtiene todas las filas.
+     *
+     * @return BitSet con todas las filas marcadas
+     */
+    public BitSet allRows() {
+        BitSet rows = new BitSet(ids.length);
+        rows.set(0, ids.length);
+        return rows;
+    }
+
+    /**
+     * Filtra por rango de años con el indice ordenado por año.
+     * El costo es logaritmico para ubicar el rango mas el numero de filas que contiene.
+     *
+     * @param from año inicial inclusive
+     * @param to año final inclusive
+     * @return filas dentro del rango
+     */
+    public BitSet filterYearRange(int from, int to) {
+        BitSet rows = new BitSet(ids.length);
+        if (from > to) {
+            return rows;
+        }
+        int end = firstYearIndexAbove(to);
+        for (int i = firstYearIndexAbove(from - 1L); i < end; i++) {
+            rows.set(rowsByYear[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * Filtra por rango de duracion leyendo solo la columna de duraciones.
+     *
+     * @param min duracion minima en minutos inclusive
+     * @param max duracion maxima en minutos inclusive
+     * @return filas dentro del rango
+     */
+    public BitSet filterDurationRange(int min, int max) {
+        BitSet rows = new BitSet(ids.length);
+        for (int row = 0; row < durations.length; row++) {
+            int duration = durations[row];
+            if (duration >= min && duration <= max) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Filtra por genero copiando su mapa de bits precalculado.
+     *
+     * @param genre genero buscado, sin distinguir tildes ni mayusculas
+     * @return filas del genero (vacio si el genero no existe)
+     */
+    public BitSet filterGenre(String genre) {
+        int code = genreCode(genre);
+        if (code < 0) {
+            return new BitSet(ids.length);
+        }
+        return BitSet.valueOf(genreBitmaps[code]);
+    }
+
+    /**
+     * Cuenta las filas de cada genero dentro de un conjunto de filas.
+     * Recorre una vez las palabras de cada mapa de bits haciendo AND con el conjunto.
+     *
+     * @param rows filas a contar, por ejemplo las de un rango de años
+     * @return conteo por codigo de genero
+     */
+    public int[] countByGenre(BitSet rows) {
+        long[] words = rows.toLongArray();
+        int[] counts = new int[genreNames.length];
+        for (int code = 0; code < genreBitmaps.length; code++) {
+            long[] bitmap = genreBitmaps[code];
+            int limit = Math.min(bitmap.length, words.length);
+            int count = 0;
+            for (int i = 0; i < limit; i++) {
+                count += Long.bitCount(bitmap[i] & words[i]);
+            }
+            counts[code] = count;
+        }
+        return counts;
+    }
+
+    /**
+     * Convierte una lista de IDs en filas buscando en la columna ordenada de IDs.
+     *
+     * @param sortedIds IDs en orden ascendente
+     * @return filas de los IDs presentes en la copia
+     */
+    public BitSet rowsForIds(int[] sortedIds) {
+        BitSet rows = new BitSet(ids.length);
+        int from = 0;
+        for (int id : sortedIds) {
+            int row = Arrays.binarySearch(ids, from, ids.length, id);
+            if (row >= 0) {
+                rows.set(row);
+                from = row + 1;
+            } else {
+                from = -row - 1;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Obtiene el codigo de diccionario de un genero.
+     *
+     * @param genre genero buscado
+     * @return codigo entre 0 y 255, o -1 si ningun genero coincide
+     */
+    public int genreCode(String genre) {
+        Integer code = genreCodeByKey.get(TextNormalizer.normalize(genre == null ? null : genre.trim()));
+        return code != null ? code : -1;
+    }
+
+    /**
+     * Obtiene el numero de generos distintos del diccionario.
+     *
+     * @return generos distintos
+     */
+    public int getGenreCount() {
+        return genreNames.length;
+    }
+
+    /**
+     * Obtiene el genero, tal como aparece en los datos, de un codigo.
+     *
+     * @param code codigo de diccionario
+     * @return genero
+     */
+    public String getGenreName(int code) {
+        return genreNames[code];
+    }
+
+    /**
+     * Obtiene el ID de una fila.
+     *
+     * @param row fila
+     * @return ID de la pelicula
+     */
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Reconstruye la pelicula de una fila como un objeto nuevo.
+     *
+     * @param row fila
+     * @return pelicula
+     */
+    public Movie getMovie(int row) {
+        Movie movie = new Movie(ids[row], titleTable[titleCodes[row]], directorTable[directorCodes[row]],
+            years[row], durations[row], genreTextTable[genreTextCodes[row]]);
+        movie.setVersion(versions[row]);
+        movie.setCreatedAt(toDateTime(createdTimes[row]));
+        movie.setUpdatedAt(toDateTime(updatedTimes[row]));
+        return movie;
+    }
+
+    /**
+     * Reconstruye las peliculas de las filas marcadas en orden de titulo.
+     * Con pocas filas se ordenan solo sus posiciones en el orden por titulo; con muchas
+     * se recorre ese orden completo, que entonces resulta mas barato.
+     *
+     * @param rows filas a incluir
+     * @return peliculas nuevas ordenadas por titulo e ID
+     */
+    public List<Movie> getMoviesByTitle(BitSet rows) {
+        int count = rows.cardinality();
+        List<Movie> movies = new ArrayList<>(count);
+        if ((long) count * (32 - Integer.numberOfLeadingZeros(count)) < rowsByTitle.length) {
+            int[] ranks = new int[count];
+            int i = 0;
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                ranks[i++] = titleRanks[row];
+            }
+            Arrays.sort(ranks);
+            for (int rank : ranks) {
+                movies.add(getMovie(rowsByTitle[rank]));
+            }
+            return movies;
+        }
+
+        for (int row : rowsByTitle) {
+            if (rows.get(row)) {
+                movies.add(getMovie(row));
+            }
+        }
+        return movies;
+    }
+
+    /**
+     * Devuelve una copia con la pelicula agregada o reemplazada, sin reconstruir
+     * los indices: las columnas se copian y la fila se ubica con busquedas binarias.
+     *
+     * @param movie pelicula a guardar
+     * @return copia nueva; esta copia no cambia
+     * @throws IllegalStateException si la pelicula agrega un genero por encima del maximo
+     */
+    public CatalogSnapshot withMovie(Movie movie) {
+        CatalogSnapshot patched = new CatalogSnapshot(this);
+        int row = Arrays.binarySearch(ids, movie.getId());
+        if (row >= 0) {
+            patched.removeRow(row);
+        } else {
+            row = -row - 1;
+        }
+        patched.insertRow(row, movie);
+        return patched.needsCompaction() ? new CatalogSnapshot(patched.getMovies()) : patched;
+    }
+
+    /**
+     * Devuelve una copia sin la pelicula indicada, sin reconstruir los indices.
+     *
+     * @param id identificador de la pelicula
+     * @return copia nueva, o esta misma si la pelicula no esta
+     */
+    public CatalogSnapshot withoutMovie(int id) {
+        int row = Arrays.binarySearch(ids, id);
+        if (row < 0) {
+            return this;
+        }
+        CatalogSnapshot patched = new CatalogSnapshot(this);
+        patched.removeRow(row);
+        return patched;
+    }
+
+    /**
+     * Copia superficial para corregir; los metodos de correccion reemplazan cada
+     * arreglo que modifican en lugar de escribir sobre el compartido.
+     *
+     * @param source copia de origen
+     */
+    private CatalogSnapshot(CatalogSnapshot source) {
+        ids = source.ids;
+        years = source.years;
+        durations = source.durations;
+        versions = source.versions;
+        createdTimes = source.createdTimes;
+        updatedTimes = source.updatedTimes;
+        genreCodes = source.genreCodes;
+        genreNames = source.genreNames;
+        genreCodeByKey = source.genreCodeByKey;
+        genreTextCodes = source.genreTextCodes;
+        genreTextTable = source.genreTextTable;
+        titleCodes = source.titleCodes;
+        titleTable = source.titleTable;
+        titleKeyTable = source.titleKeyTable;
+        directorCodes = source.directorCodes;
+        directorTable = source.directorTable;
+        rowsByTitle = source.rowsByTitle;
+        titleRanks = source.titleRanks;
+        genreBitmaps = source.genreBitmaps;
+        rowsByYear = source.rowsByYear;
+        sortedYears = source.sortedYears;
+    }
+
+    /**
+     * Inserta una fila en la posicion indicada, desplazando las siguientes.
+     *
+     * @param row posicion que mantiene el orden por ID
+     * @param movie pelicula de la fila
+     */
+    private void insertRow(int row, Movie movie) {
+        int code = genreCodeOf(movie);
+        int size = ids.length + 1;
+
+        ids = insertAt(ids, row, movie.getId());
+        years = insertAt(years, row, movie.getYear());
+        durations = insertAt(durations, row, movie.getDuration());
+        versions = insertAt(versions, row, movie.getVersion());
+        createdTimes = insertAt(createdTimes, row, toMillis(movie.getCreatedAt()));
+        updatedTimes = insertAt(updatedTimes, row, toMillis(movie.getUpdatedAt()));
+        genreCodes = insertAt(genreCodes, row, (byte) code);
+        genreTextTable = append(genreTextTable, movie.getGenre());
+        genreTextCodes = insertAt(genreTextCodes, row, genreTextTable.length - 1);
+        titleTable = append(titleTable, movie.getTitle());
+        titleKeyTable = append(titleKeyTable, movie.getTitleKey());
+        titleCodes = insertAt(titleCodes, row, titleTable.length - 1);
+        directorTable = append(directorTable, movie.getDirector());
+        directorCodes = insertAt(directorCodes, row, directorTable.length - 1);
+
+        // Las filas desde la insertada se desplazan una posicion en los indices
+        int[] byTitle = shiftRows(rowsByTitle, row, 1);
+        rowsByTitle = insertAt(byTitle, titlePosition(byTitle, row), row);
+        titleRanks = ranksOf(rowsByTitle);
+
+        int[] byYear = shiftRows(rowsByYear, row, 1);
+        int yearPosition = yearPosition(byYear, sortedYears, movie.getYear(), row);
+        rowsByYear = insertAt(byYear, yearPosition, row);
+        sortedYears = insertAt(sortedYears, yearPosition, movie.getYear());
+
+        long[][] bitmaps = new long[genreNames.length][];
+        for (int genre = 0; genre < bitmaps.length; genre++) {
+            bitmaps[genre] = genre < genreBitmaps.length
+                ? insertBit(genreBitmaps[genre], row, size)
+                : new long[(size + 63) >>> 6];
+        }
+        bitmaps[code][row >>> 6] |= 1L << row;
+        genreBitmaps = bitmaps;
+    }
+
+    /**
+     * Quita una fila, desplazando las siguientes.
+     *
+     * @param row fila a quitar
+     */
+    private void removeRow(int row) {
+        int size = ids.length - 1;
+        int yearPosition = yearPosition(rowsByYear, sortedYears, years[row], row);
+        int titlePosition = titleRanks[row];
+
+        ids = removeAt(ids, row);
+        years = removeAt(years, row);
+        durations = removeAt(durations, row);
+        versions = removeAt(versions, row);
+        createdTimes = removeAt(createdTimes, row);
+        updatedTimes = removeAt(updatedTimes, row);
+        genreCodes = removeAt(genreCodes, row);
+        genreTextCodes = removeAt(genreTextCodes, row);
+        titleCodes = removeAt(titleCodes, row);
+        directorCodes = removeAt(directorCodes, row);
+
+        rowsByTitle = shiftRows(removeAt(rowsByTitle, titlePosition), row, -1);
+        titleRanks = ranksOf(rowsByTitle);
+        rowsByYear = shiftRows(removeAt(rowsByYear, yearPosition), row, -1);
+        sortedYears = removeAt(sortedYears, yearPosition);
+
+        long[][] bitmaps = new long[genreBitmaps.length][];
+        for (int genre = 0; genre < bitmaps.length; genre++) {
+            bitmaps[genre] = removeBit(genreBitmaps[genre], row, size);
+        }
+        genreBitmaps = bitmaps;
+    }
+
+    /**
+     * Obtiene el codigo de genero de una pelicula, agregandolo al diccionario si es nuevo.
+     *
+     * @param movie pelicula
+     * @return codigo de genero
+     * @throws IllegalStateException si el diccionario ya tiene el maximo de generos
+     */
+    private int genreCodeOf(Movie movie) {
+        Integer code = genreCodeByKey.get(movie.getGenreKey());
+        if (code != null) {
+            return code;
+        }
+        if (genreNames.length == MAX_GENRES) {
+            throw new IllegalStateException("El catalogo supera los " + MAX_GENRES + " generos distintos");
+        }
+        genreCodeByKey = new HashMap<>(genreCodeByKey);
+        genreCodeByKey.put(movie.getGenreKey(), genreNames.length);
+        genreNames = append(genreNames, movie.getGenre());
+        return genreNames.length - 1;
+    }
+
+    /**
+     * Busca la posicion de una fila en el orden por titulo e ID.
+     *
+     * @param byTitle filas en orden de titulo, sin la fila buscada
+     * @param row fila a ubicar, ya guardada en las columnas
+     * @return posicion de insercion
+     */
+    private int titlePosition(int[] byTitle, int row) {
+        String key = titleKeyTable[titleCodes[row]];
+        int low = 0;
+        int high = byTitle.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int other = byTitle[mid];
+            int cmp = titleKeyTable[titleCodes[other]].compareTo(key);
+            if (cmp < 0 || (cmp == 0 && ids[other] < ids[row])) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Busca la posicion de un par (año, fila) en el indice por año.
+     *
+     * @param byYear filas en orden de año
+     * @param yearsInOrder años en el mismo orden
+     * @param year año buscado
+     * @param row fila buscada
+     * @return posicion del par o de insercion
+     */
+    private static int yearPosition(int[] byYear, int[] yearsInOrder, int year, int row) {
+        int low = 0;
+        int high = byYear.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (yearsInOrder[mid] < year || (yearsInOrder[mid] == year && byYear[mid] < row)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Indica si las tablas de textos acumularon demasiados textos sin usar.
+     *
+     * @return true si conviene reconstruir la copia
+     */
+    private boolean needsCompaction() {
+        int limit = 2 * ids.length + 64;
+        return titleTable.length > limit || directorTable.length > limit || genreTextTable.length > limit;
+    }
+
+    /**
+     * Reconstruye todas las peliculas de la copia.
+     *
+     * @return peliculas en orden de ID
+     */
+    private List<Movie> getMovies() {
+        List<Movie> movies = new ArrayList<>(ids.length);
+        for (int row = 0; row < ids.length; row++) {
+            movies.add(getMovie(row));
+        }
+        return movies;
+    }
+
+    /**
+     * Busca la primera posicion del indice por año cuyo año supera el valor.
+     *
+     * @param year valor de referencia
+     * @return posicion en rowsByYear (size si ninguno lo supera)
+     */
+    private int firstYearIndexAbove(long year) {
+        int low = 0;
+        int high = sortedYears.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedYears[mid] <= year) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Convierte una fecha a milisegundos. La fecha local se codifica como si fuera UTC,
+     * de modo que la conversion inversa recupera la misma fecha sin depender de la zona horaria.
+     *
+     * @param dateTime fecha o null
+     * @return milisegundos o NO_TIME si la fecha es null
+     */
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    /**
+     * Reconstruye una fecha guardada con toMillis.
+     *
+     * @param millis milisegundos o NO_TIME
+     * @return fecha o null si no habia fecha
+     */
+    private static LocalDateTime toDateTime(long millis) {
+        return millis != NO_TIME ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * Calcula la posicion de cada fila en un orden de filas.
+     *
+     * @param order filas en orden
+     * @return posicion de cada fila
+     */
+    private static int[] ranksOf(int[] order) {
+        int[] ranks = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ranks[order[i]] = i;
+        }
+        return ranks;
+    }
+
+    /**
+     * Suma un desplazamiento a las filas mayores o iguales a la indicada.
+     *
+     * @param rows filas de un indice
+     * @param from primera fila desplazada
+     * @param delta desplazamiento
+     * @return arreglo nuevo con las filas desplazadas
+     */
+    private static int[] shiftRows(int[] rows, int from, int delta) {
+        int[] shifted = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            shifted[i] = rows[i] >= from ? rows[i] + delta : rows[i];
+        }
+        return shifted;
+    }
+
+    /**
+     * Inserta un bit en cero en la posicion indicada, desplazando los siguientes.
+     *
+     * @param words mapa de bits
+     * @param bit posicion del bit insertado
+     * @param size numero de filas tras insertar
+     * @return mapa de bits nuevo
+     */
+    private static long[] insertBit(long[] words, int bit, int size) {
+        long[] result = Arrays.copyOf(words, (size + 63) >>> 6);
+        int word = bit >>> 6;
+        if (word >= words.length) {
+            return result;
+        }
+        long lowMask = (1L << bit) - 1;
+        long carry = words[word] >>> 63;
+        result[word] = (words[word] & lowMask) | ((words[word] & ~lowMask) << 1);
+        for (int i = word + 1; i < words.length; i++) {
+            result[i] = (words[i] << 1) | carry;
+            carry = words[i] >>> 63;
+        }
+        if (carry != 0) {
+            result[words.length] = carry;
+        }
+        return result;
+    }
+
+    /**
+     * Quita el bit de la posicion indicada, desplazando los siguientes.
+     *
+     * @param words mapa de bits
+     * @param bit posicion del bit quitado
+     * @param size numero de filas tras quitar
+     * @return mapa de bits nuevo
+     */
+    private static long[] removeBit(long[] words, int bit, int size) {
+        long[] result = new long[(size + 63) >>> 6];
+        int word = bit >>> 6;
+        System.arraycopy(words, 0, result, 0, Math.min(word, result.length));
+        long lowMask = (1L << bit) - 1;
+        for (int i = word; i < words.length; i++) {
+            long shifted = i == word
+                ? (words[i] & lowMask) | ((words[i] >>> 1) & ~lowMask)
+                : words[i] >>> 1;
+            if (i + 1 < words.length) {
+                shifted |= words[i + 1] << 63;
+            }
+            if (i < result.length) {
+                result[i] = shifted;
+            }
+        }
+        return result;
+    }
+
+    private static int[] insertAt(int[] values, int index, int value) {
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(values, index, result, index + 1, values.length - index);
+        return result;
+    }
+
+    private static long[] insertAt(long[] values, int index, long value) {
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(values, index, result, index + 1, values.length - index);
+        return result;
+    }
+
+    private static byte[] insertAt(byte[] values, int index, byte value) {
+        byte[] result = new byte[values.length + 1];
+        System.arraycopy(values, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(values, index, result, index + 1, values.length - index);
+        return result;
+    }
+
+    private static int[] removeAt(int[] values, int index) {
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    private static long[] removeAt(long[] values, int index) {
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    private static byte[] removeAt(byte[] values, int index) {
+        byte[] result = new byte[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    private static String[] append(String[] values, String value) {
+        String[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    /**
+     * Tabla de textos distintos; cada texto repetido comparte el mismo indice.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int codeOf(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String[] toArray() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,930 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.config.DatabaseConfig;
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
+import com.cine.magenta.util.IntLinkedMap;
+import com.cine.magenta.util.TrigramIndex;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Decorador de MovieService que responde las busquedas en memoria en lugar de
+ * consultar la tabla Cartelera: las subcadenas de titulo y director con indices
+ * de trigramas, y los filtros de genero y años con una copia por columnas del
+ * catalogo (CatalogSnapshot) cuyos filtros se combinan como conjuntos de filas.
+ * Los indices se construyen con el catalogo completo la primera vez que se
+ * necesitan y se mantienen con las escrituras hechas a traves de este servicio;
+ * la copia por columnas es inmutable: cada escritura la reemplaza por una copia
+ * corregida, y solo los lotes grandes de la sincronizacion la regeneran al pedirse.
+ * Se sincronizan periodicamente para incorporar cambios de otros clientes; las
+ * consultas a la base de datos se hacen fuera del bloqueo, sin detener las busquedas.
+ * Todas las comparaciones de titulo, director y genero usan las claves sin tildes
+ * ni mayusculas de cada pelicula, calculadas una sola vez al indexarla.
+ * Los cambios del catalogo en memoria se notifican a los MovieChangeListener registrados.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class IndexedMovieService implements MovieService {
+
+    /** Cambios de una sincronizacion a partir de los cuales se regenera la copia en lugar de corregirla */
+    private static final int SNAPSHOT_PATCH_LIMIT = 64;
+
+    /** Servicio real al que se delegan las operaciones */
+    private final MovieService delegate;
+
+    /** Tiempo tras el cual el indice se sincroniza con la base de datos (ms, 0 nunca) */
+    private final long refreshMillis;
+
+    /** Protege el catalogo y los indices; las busquedas comparten la lectura */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Peliculas indexadas por ID */
+    private Map<Integer, Movie> moviesById = new HashMap<>();
+
+    /** Indice de titulos */
+    private TrigramIndex titleIndex = new TrigramIndex();
+
+    /** Indice de directores */
+    private TrigramIndex directorIndex = new TrigramIndex();
+
+    /** Copia por columnas del catalogo, o null si debe regenerarse */
+    private CatalogSnapshot snapshot;
+
+    /** Receptores de los cambios del catalogo en memoria */
+    private final List<MovieChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Indica si el indice esta construido y vigente */
+    private boolean built = false;
+
+    /** Instante de la ultima construccion o sincronizacion en milisegundos */
+    private long builtAt;
+
+    /** Marca de la ultima sincronizacion, o null si solo cabe la carga completa */
+    private Instant syncWatermark;
+
+    /** Serializa las cargas del catalogo, que se hacen sin bloquear las busquedas */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /** Escrituras recibidas durante una carga por ID (null si se elimino); null sin carga en curso */
+    private Map<Integer, Movie> writesDuringLoad;
+
+    /**
+     * Crea el indice sobre el servicio indicado con el intervalo de reconstruccion por defecto.
+     *
+     * @param delegate servicio real
+     */
+    public IndexedMovieService(MovieService delegate) {
+        this(delegate, DatabaseConfig.SEARCH_INDEX_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Crea el indice sobre el servicio indicado.
+     *
+     * @param delegate servicio real
+     * @param refreshMillis tiempo tras el cual se reconstruye el indice en milisegundos
+     */
+    public IndexedMovieService(MovieService delegate, long refreshMillis) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("MovieService no puede ser null");
+        }
+        this.delegate = delegate;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @Override
+    public Movie createMovie(Movie movie) throws Exception {
+        Movie created = delegate.createMovie(movie);
+        indexMovie(created);
+        return created;
+    }
+
+    @Override
+    public Movie getMovieById(int id) throws Exception {
+        return delegate.getMovieById(id);
+    }
+
+    @Override
+    public Movie refreshMovie(int id) throws Exception {
+        return delegate.refreshMovie(id);
+    }
+
+    @Override
+    public IntLinkedMap<Movie> getMoviesByIds(int[] ids) throws Exception {
+        return delegate.getMoviesByIds(ids);
+    }
+
+    @Override
+    public List<Movie> getAllMovies() throws Exception {
+        return delegate.getAllMovies();
+    }
+
+    @Override
+    public List<Movie> searchMoviesByTitle(String title) throws Exception {
+        if (title == null || title.trim().isEmpty()) {
+            throw new IllegalArgumentException("Titulo de busqueda no puede estar vacio");
+        }
+        return findMatching(title.trim(), null, null, null, null);
+    }
+
+    @Override
+    public List<Movie> searchMoviesByTitle(String title, boolean fullText) throws Exception {
+        // La busqueda de texto completo sigue usando el indice FULLTEXT de la base de datos
+        return fullText ? delegate.searchMoviesByTitle(title, true) : searchMoviesByTitle(title);
+    }
+
+    @Override
+    public List<Movie> getMoviesByDirector(String director) throws Exception {
+        if (director == null || director.trim().isEmpty()) {
+            throw new IllegalArgumentException("Director no puede estar vacio");
+        }
+        return findMatching(null, director.trim(), null, null, null);
+    }
+
+    @Override
+    public List<Movie> getMoviesByGenre(String genre) throws Exception {
+        if (genre == null || genre.trim().isEmpty()) {
+            throw new IllegalArgumentException("Genero no puede estar vacio");
+        }
+        return findMatching(null, null, genre.trim(), null, null);
+    }
+
+    @Override
+    public List<Movie> getMoviesByYear(int year) throws Exception {
+        return findMatching(null, null, null, year, year);
+    }
+
+    @Override
+    public List<Movie> getMoviesByYearRange(int startYear, int endYear) throws Exception {
+        if (startYear > endYear) {
+            throw new IllegalArgumentException("El año inicial debe ser menor o igual al año final");
+        }
+        return findMatching(null, null, null, startYear, endYear);
+    }
+
+    @Override
+    public List<Movie> searchMovies(MovieSearchCriteria criteria) throws Exception {
+        if (criteria == null) {
+            return delegate.searchMovies(null); // Rechaza los criterios nulos con su mensaje habitual
+        }
+        criteria.validate();
+
+        List<Movie> matches = findMatching(criteria.getTitle(), criteria.getDirector(), criteria.getGenre(),
+            criteria.getYearFrom(), criteria.getYearTo());
+
+        // Los resultados ya vienen ordenados por titulo; otros ordenes se aplican aqui
+        if (criteria.getSortField() != MovieSearchCriteria.SortField.TITLE) {
+            matches.sort(comparatorFor(criteria.getSortField()).thenComparingInt(Movie::getId));
+        }
+        if (!criteria.isAscending()) {
+            Collections.reverse(matches);
+        }
+        if (criteria.getLimit() > 0 && matches.size() > criteria.getLimit()) {
+            return new ArrayList<>(matches.subList(0, criteria.getLimit()));
+        }
+        return matches;
+    }
+
+    @Override
+    public void forEachMovie(Consumer<Movie> consumer) throws Exception {
+        delegate.forEachMovie(consumer);
+    }
+
+    @Override
+    public MoviePage getMoviesPage(MovieSearchCriteria criteria, String cursor, int pageSize, boolean includeTotal) throws Exception {
+        return delegate.getMoviesPage(criteria, cursor, pageSize, includeTotal);
+    }
+
+    @Override
+    public Movie updateMovie(Movie movie) throws Exception {
+        try {
+            Movie updated = delegate.updateMovie(movie);
+            indexMovie(updated);
+            return updated;
+        } catch (Exception e) {
+            // Ante un fallo el estado real es incierto: reconstruir en la proxima busqueda
+            invalidate();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean deleteMovie(int id) throws Exception {
+        try {
+            boolean deleted = delegate.deleteMovie(id);
+            if (deleted) {
+                unindexMovie(id);
+            }
+            return deleted;
+        } catch (Exception e) {
+            invalidate();
+            throw e;
+        }
+    }
+
+    @Override
+    public WriteResult tryUpdateMovie(Movie movie) throws Exception {
+        try {
+            WriteResult result = delegate.tryUpdateMovie(movie);
+            if (result.isSuccess()) {
+                indexMovie(movie);
+            } else if (result == WriteResult.NOT_FOUND) {
+                // Otro cliente la elimino: retirarla tambien de la copia en memoria
+                unindexMovie(movie.getId());
+            }
+            return result;
+        } catch (Exception e) {
+            invalidate();
+            throw e;
+        }
+    }
+
+    @Override
+    public WriteResult tryDeleteMovie(int id) throws Exception {
+        try {
+            WriteResult result = delegate.tryDeleteMovie(id);
+            unindexMovie(id);
+            return result;
+        } catch (Exception e) {
+            invalidate();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean movieExists(int id) throws Exception {
+        return delegate.movieExists(id);
+    }
+
+    @Override
+    public List<Movie> createMovies(List<Movie> movies) throws Exception {
+        List<Movie> created = delegate.createMovies(movies);
+        for (Movie movie : created) {
+            indexMovie(movie);
+        }
+        return created;
+    }
+
+    @Override
+    public int updateMovies(List<Movie> movies) throws Exception {
+        try {
+            int updated = delegate.updateMovies(movies);
+            for (Movie movie : movies) {
+                indexMovie(movie);
+            }
+            return updated;
+        } catch (Exception e) {
+            invalidate();
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteMovies(int[] ids) throws Exception {
+        try {
+            int deleted = delegate.deleteMovies(ids);
+            for (int id : ids) {
+                unindexMovie(id);
+            }
+            return deleted;
+        } catch (Exception e) {
+            invalidate();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getTotalMovies() throws Exception {
+        return delegate.getTotalMovies();
+    }
+
+    @Override
+    public MovieChanges getChangesSince(Instant since) throws Exception {
+        MovieChanges changes = delegate.getChangesSince(since);
+        lock.writeLock().lock();
+        try {
+            for (Movie movie : changes.getChanged()) {
+                recordWrite(movie.getId(), movie);
+            }
+            for (int id : changes.getDeletedIds()) {
+                recordWrite(id, null);
+            }
+            if (built) {
+                applyChanges(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return changes;
+    }
+
+    @Override
+    public Instant getServerTime() throws Exception {
+        return delegate.getServerTime();
+    }
+
+    @Override
+    public void validateMovie(Movie movie) throws Exception {
+        delegate.validateMovie(movie);
+    }
+
+    /**
+     * Cuenta las peliculas de cada genero que cumplen los demas filtros de los criterios.
+     * El filtro de genero se ignora para mostrar cuantas peliculas habria al elegir cada uno.
+     *
+     * @param criteria criterios de busqueda (null cuenta todo el catalogo)
+     * @return conteo por genero, tal como aparece en los datos, en orden alfabetico
+     * @throws Exception si falla la construccion del indice
+     */
+    public Map<String, Integer> getGenreCounts(final MovieSearchCriteria criteria) throws Exception {
+        if (criteria != null) {
+            criteria.validate();
+        }
+        return querySnapshot(snap -> {
+            BitSet rows = criteria == null ? snap.allRows()
+                : selectRows(snap, criteria.getTitle(), criteria.getDirector(), null,
+                    criteria.getYearFrom(), criteria.getYearTo());
+            int[] counts = snap.countByGenre(rows);
+            Map<String, Integer> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int code = 0; code < counts.length; code++) {
+                result.put(snap.getGenreName(code), counts[code]);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Registra un receptor de los cambios del catalogo en memoria.
+     * Si el indice ya esta construido, el receptor recibe el catalogo actual.
+     *
+     * @param listener receptor a registrar
+     */
+    public void addChangeListener(MovieChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("MovieChangeListener no puede ser null");
+        }
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+            if (built) {
+                listener.catalogLoaded(new ArrayList<>(moviesById.values()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Construye el indice si aun no existe o si supero el intervalo de reconstruccion.
+     *
+     * @throws Exception si falla la carga del catalogo
+     */
+    public void ensureIndexed() throws Exception {
+        ensureBuilt();
+    }
+
+    /**
+     * Descarta el indice para que la proxima busqueda lo reconstruya.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el numero de peliculas indexadas.
+     *
+     * @return peliculas en el indice (0 si aun no se construye)
+     */
+    public int getIndexedCount() {
+        lock.readLock().lock();
+        try {
+            return moviesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca en memoria las peliculas que cumplen los filtros dados.
+     * Las subcadenas se resuelven con los indices de trigramas y el resto de los
+     * filtros con la copia por columnas; cada filtro produce un conjunto de filas
+     * y los conjuntos se intersectan.
+     *
+     * @param title subcadena del titulo o null para no filtrar
+     * @param director subcadena del director o null para no filtrar
+     * @param genre genero exacto o null para no filtrar
+     * @param yearFrom año inicial inclusive o null
+     * @param yearTo año final inclusive o null
+     * @return peliculas nuevas ordenadas por titulo e ID
+     * @throws Exception si falla la construccion del indice
+     */
+    private List<Movie> findMatching(final String title, final String director, final String genre,
+                                     final Integer yearFrom, final Integer yearTo) throws Exception {
+        return querySnapshot(snap -> snap.getMoviesByTitle(selectRows(snap, title, director, genre, yearFrom, yearTo)));
+    }
+
+    /**
+     * Ejecuta una consulta sobre la copia por columnas vigente con el indice bloqueado
+     * para lectura, construyendo el indice o la copia si hace falta.
+     *
+     * @param query consulta a ejecutar
+     * @return resultado de la consulta
+     * @throws Exception si falla la construccion del indice
+     */
+    private <T> T querySnapshot(Function<CatalogSnapshot, T> query) throws Exception {
+        while (true) {
+            ensureBuilt();
+
+            lock.readLock().lock();
+            try {
+                if (built && snapshot != null) {
+                    return query.apply(snapshot);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            rebuildSnapshot();
+        }
+    }
+
+    /**
+     * Calcula las filas que cumplen los filtros; requiere el bloqueo de lectura.
+     * Cada filtro produce un conjunto de filas y los conjuntos se intersectan con AND.
+     *
+     * @param snap copia por columnas vigente
+     * @param title subcadena del titulo o null para no filtrar
+     * @param director subcadena del director o null para no filtrar
+     * @param genre genero exacto o null para no filtrar
+     * @param yearFrom año inicial inclusive o null
+     * @param yearTo año final inclusive o null
+     * @return filas que cumplen todos los filtros
+     */
+    private BitSet selectRows(CatalogSnapshot snap, String title, String director, String genre,
+                              Integer yearFrom, Integer yearTo) {
+        BitSet rows;
+        if (title != null && director != null) {
+            rows = snap.rowsForIds(intersect(titleIndex.search(title), directorIndex.search(director)));
+        } else if (title != null) {
+            rows = snap.rowsForIds(titleIndex.search(title));
+        } else if (director != null) {
+            rows = snap.rowsForIds(directorIndex.search(director));
+        } else {
+            rows = snap.allRows();
+        }
+        if (genre != null) {
+            rows.and(snap.filterGenre(genre));
+        }
+        if (yearFrom != null || yearTo != null) {
+            rows.and(snap.filterYearRange(yearFrom != null ? yearFrom : Integer.MIN_VALUE,
+                yearTo != null ? yearTo : Integer.MAX_VALUE));
+        }
+        return rows;
+    }
+
+    /**
+     * Regenera la copia por columnas si algun cambio la descarto.
+     */
+    private void rebuildSnapshot() {
+        lock.writeLock().lock();
+        try {
+            if (built && snapshot == null) {
+                snapshot = new CatalogSnapshot(moviesById.values());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Construye el indice si no existe o lo sincroniza si supero el intervalo.
+     * Una vez construido solo se piden los cambios desde la ultima marca; el catalogo
+     * completo se vuelve a leer solo si esa consulta falla. Las consultas se hacen sin
+     * el bloqueo de escritura, por lo que las busquedas siguen usando el indice vigente;
+     * las escrituras recibidas mientras tanto se registran y se reaplican al instalar
+     * el resultado, para que ninguna quede fuera.
+     *
+     * @throws Exception si falla la carga del catalogo
+     */
+    private void ensureBuilt() throws Exception {
+        boolean usable;
+        lock.readLock().lock();
+        try {
+            if (built && !isExpired()) {
+                return;
+            }
+            usable = built;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Con un indice construido no se espera a otra carga en curso: se usa el vigente
+        if (usable) {
+            if (!loadLock.tryLock()) {
+                return;
+            }
+        } else {
+            loadLock.lock();
+        }
+        try {
+            if (isCurrent()) {
+                return;
+            }
+            Instant since = beginLoad();
+            boolean installed = false;
+            try {
+                if (since != null) {
+                    MovieChanges changes = fetchChanges(since);
+                    if (changes != null) {
+                        installChanges(changes);
+                        installed = true;
+                        return;
+                    }
+                }
+
+                List<Movie> movies = delegate.getAllMovies();
+                Map<Integer, Movie> byId = new HashMap<>();
+                TrigramIndex titles = new TrigramIndex();
+                TrigramIndex directors = new TrigramIndex();
+                for (Movie movie : movies) {
+                    indexInto(movie, byId, titles, directors);
+                }
+                CatalogSnapshot loaded = new CatalogSnapshot(byId.values());
+                installCatalog(byId, titles, directors, loaded, latestUpdate(movies));
+                installed = true;
+            } finally {
+                if (!installed) {
+                    endLoad();
+                }
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Indica si el indice esta construido y dentro del intervalo de sincronizacion.
+     *
+     * @return true si puede usarse sin cargar
+     */
+    private boolean isCurrent() {
+        lock.readLock().lock();
+        try {
+            return built && !isExpired();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Empieza a registrar las escrituras que lleguen durante la carga.
+     *
+     * @return marca desde la que sincronizar, o null si hace falta la carga completa
+     */
+    private Instant beginLoad() {
+        lock.writeLock().lock();
+        try {
+            writesDuringLoad = new LinkedHashMap<>();
+            return built ? syncWatermark : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deja de registrar escrituras tras una carga fallida.
+     */
+    private void endLoad() {
+        lock.writeLock().lock();
+        try {
+            writesDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Pide los cambios desde una marca sin tomar bloqueos.
+     *
+     * @param since marca de la ultima sincronizacion
+     * @return cambios, o null si la consulta fallo y hace falta la carga completa
+     */
+    private MovieChanges fetchChanges(Instant since) {
+        try {
+            return delegate.getChangesSince(since);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Aplica los cambios obtenidos y luego las escrituras recibidas durante la consulta.
+     *
+     * @param changes cambios desde la ultima marca
+     */
+    private void installChanges(MovieChanges changes) {
+        lock.writeLock().lock();
+        try {
+            applyChanges(changes);
+            replayWrites(true);
+            if (changes.getWatermark() != null) {
+                syncWatermark = changes.getWatermark();
+            }
+            builtAt = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplaza el catalogo por el recien cargado y reaplica las escrituras recibidas
+     * durante la carga.
+     *
+     * @param byId peliculas cargadas por ID
+     * @param titles indice de titulos cargado
+     * @param directors indice de directores cargado
+     * @param loaded copia por columnas del catalogo cargado
+     * @param watermark marca de sincronizacion del catalogo cargado
+     */
+    private void installCatalog(Map<Integer, Movie> byId, TrigramIndex titles, TrigramIndex directors,
+                                CatalogSnapshot loaded, Instant watermark) {
+        lock.writeLock().lock();
+        try {
+            moviesById = byId;
+            titleIndex = titles;
+            directorIndex = directors;
+            snapshot = loaded;
+            built = true;
+            builtAt = System.currentTimeMillis();
+            syncWatermark = watermark;
+            replayWrites(false);
+            List<Movie> catalog = new ArrayList<>(moviesById.values());
+            for (MovieChangeListener listener : listeners) {
+                listener.catalogLoaded(catalog);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reaplica las escrituras registradas durante la carga y deja de registrarlas;
+     * requiere el bloqueo de escritura.
+     *
+     * @param notify true para avisar a los receptores de cada escritura
+     */
+    private void replayWrites(boolean notify) {
+        Map<Integer, Movie> writes = writesDuringLoad;
+        writesDuringLoad = null;
+        for (Map.Entry<Integer, Movie> write : writes.entrySet()) {
+            if (write.getValue() != null) {
+                putMovie(write.getValue());
+                if (notify) {
+                    for (MovieChangeListener listener : listeners) {
+                        listener.movieSaved(moviesById.get(write.getKey()));
+                    }
+                }
+            } else {
+                removeMovie(write.getKey(), notify);
+            }
+        }
+    }
+
+    /**
+     * Registra una escritura si hay una carga en curso; requiere el bloqueo de escritura.
+     * No reemplaza una escritura registrada con una version posterior.
+     *
+     * @param id identificador de la pelicula
+     * @param movie pelicula escrita, o null si se elimino
+     */
+    private void recordWrite(int id, Movie movie) {
+        if (writesDuringLoad == null) {
+            return;
+        }
+        Movie recorded = writesDuringLoad.get(id);
+        if (movie != null && recorded != null && recorded.getVersion() > movie.getVersion()) {
+            return;
+        }
+        writesDuringLoad.put(id, movie != null ? movie.copy() : null);
+    }
+
+    /**
+     * Guarda las peliculas modificadas y quita las eliminadas; requiere el bloqueo de escritura.
+     *
+     * @param changes cambios a aplicar
+     */
+    private void applyChanges(MovieChanges changes) {
+        // Cada correccion copia las columnas; con muchos cambios sale mas barato regenerar
+        if (changes.getChanged().size() + changes.getDeletedIds().length > SNAPSHOT_PATCH_LIMIT) {
+            snapshot = null;
+        }
+        for (Movie movie : changes.getChanged()) {
+            putMovie(movie);
+            for (MovieChangeListener listener : listeners) {
+                listener.movieSaved(moviesById.get(movie.getId()));
+            }
+        }
+        for (int id : changes.getDeletedIds()) {
+            removeMovie(id, true);
+        }
+    }
+
+    /**
+     * Obtiene la fecha de modificacion mas reciente del catalogo cargado.
+     *
+     * @param movies catalogo leido de la base de datos
+     * @return marca de sincronizacion, o null si ninguna pelicula trae fecha
+     */
+    private static Instant latestUpdate(List<Movie> movies) {
+        LocalDateTime latest = null;
+        for (Movie movie : movies) {
+            LocalDateTime updatedAt = movie.getUpdatedAt();
+            if (updatedAt != null && (latest == null || updatedAt.isAfter(latest))) {
+                latest = updatedAt;
+            }
+        }
+        return latest != null ? latest.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    /**
+     * Agrega o reemplaza una pelicula en el indice si ya esta construido.
+     *
+     * @param movie pelicula escrita
+     */
+    private void indexMovie(Movie movie) {
+        if (movie == null || movie.getId() <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            recordWrite(movie.getId(), movie);
+            if (built) {
+                putMovie(movie);
+                for (MovieChangeListener listener : listeners) {
+                    listener.movieSaved(moviesById.get(movie.getId()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita una pelicula del indice si ya esta construido.
+     *
+     * @param id identificador de la pelicula eliminada
+     */
+    private void unindexMovie(int id) {
+        lock.writeLock().lock();
+        try {
+            recordWrite(id, null);
+            if (built) {
+                removeMovie(id, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Guarda una copia de la pelicula y sus textos; requiere el bloqueo de escritura.
+     *
+     * @param movie pelicula a guardar
+     */
+    private void putMovie(Movie movie) {
+        indexInto(movie, moviesById, titleIndex, directorIndex);
+        if (snapshot != null) {
+            try {
+                snapshot = snapshot.withMovie(moviesById.get(movie.getId()));
+            } catch (IllegalStateException e) {
+                // Demasiados generos para corregir la copia; la regeneracion lo informa
+                snapshot = null;
+            }
+        }
+    }
+
+    /**
+     * Quita una pelicula y sus textos; requiere el bloqueo de escritura.
+     *
+     * @param id identificador de la pelicula
+     * @param notify true para avisar a los receptores
+     */
+    private void removeMovie(int id, boolean notify) {
+        if (moviesById.remove(id) == null) {
+            return;
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.withoutMovie(id);
+        }
+        titleIndex.remove(id);
+        directorIndex.remove(id);
+        if (notify) {
+            for (MovieChangeListener listener : listeners) {
+                listener.movieDeleted(id);
+            }
+        }
+    }
+
+    /**
+     * Guarda una copia de la pelicula en las estructuras indicadas.
+     *
+     * @param movie pelicula a guardar
+     * @param byId peliculas por ID
+     * @param titles indice de titulos
+     * @param directors indice de directores
+     */
+    private static void indexInto(Movie movie, Map<Integer, Movie> byId, TrigramIndex titles, TrigramIndex directors) {
+        // Las claves se calculan aqui, una vez, y la copia indexada ya no cambia
+        Movie indexed = movie.copy();
+        indexed.getGenreKey();
+        byId.put(indexed.getId(), indexed);
+        titles.put(indexed.getId(), indexed.getTitleKey());
+        directors.put(indexed.getId(), indexed.getDirectorKey());
+    }
+
+    /**
+     * Indica si el indice supero el intervalo de reconstruccion.
+     *
+     * @return true si debe reconstruirse
+     */
+    private boolean isExpired() {
+        return refreshMillis > 0 && System.currentTimeMillis() - builtAt > refreshMillis;
+    }
+
+    /**
+     * Obtiene el comparador equivalente al orden de la base de datos para un campo.
+     *
+     * @param field campo de ordenamiento
+     * @return comparador ascendente
+     */
+    private static Comparator<Movie> comparatorFor(MovieSearchCriteria.SortField field) {
+        switch (field) {
+            case DIRECTOR:
+                return Comparator.comparing(Movie::getDirectorKey);
+            case YEAR:
+                return Comparator.comparingInt(Movie::getYear);
+            case DURATION:
+                return Comparator.comparingInt(Movie::getDuration);
+            case GENRE:
+                return Comparator.comparing(Movie::getGenreKey);
+            case TITLE:
+            default:
+                return Comparator.comparing(Movie::getTitleKey);
+        }
+    }
+
+    /**
+     * Intersecta dos listas ordenadas de identificadores.
+     *
+     * @param a primera lista ascendente
+     * @param b segunda lista ascendente
+     * @return identificadores presentes en ambas, en orden ascendente
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
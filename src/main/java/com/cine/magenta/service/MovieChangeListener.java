@@ -0,0 +1,41 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import java.util.List;
+
+/**
+ * Receptor de los cambios del catalogo mantenido en memoria por IndexedMovieService.
+ * Permite que otras estructuras en memoria se mantengan sincronizadas sin consultar
+ * la base de datos. Los metodos se invocan con el indice bloqueado, por lo que
+ * deben ser rapidos, no llamar de vuelta al servicio y no modificar las peliculas recibidas.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public interface MovieChangeListener {
+
+    /**
+     * Notifica que el catalogo completo se cargo o recargo.
+     *
+     * @param movies todas las peliculas del catalogo
+     */
+    void catalogLoaded(List<Movie> movies);
+
+    /**
+     * Notifica que una pelicula se creo o actualizo.
+     *
+     * @param movie estado actual de la pelicula
+     */
+    void movieSaved(Movie movie);
+
+    /**
+     * Notifica que una pelicula se elimino.
+     *
+     * @param id identificador de la pelicula eliminada
+     */
+    void movieDeleted(int id);
+}
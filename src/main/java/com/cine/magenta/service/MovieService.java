@@ -5,7 +5,13 @@
 package com.cine.magenta.service;
 
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
+import com.cine.magenta.util.IntLinkedMap;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface que define los servicios de negocio para Movie.
@@ -35,6 +41,25 @@ public interface MovieService {
     */
     Movie getMovieById(int id) throws Exception;
     
+    /**
+    * Lee la version actual de una pelicula en la base de datos, sin pasar por caches.
+    * Sirve para comprobar si los datos ya mostrados siguen vigentes.
+    * 
+    * @param id identificador de la pelicula
+    * @return Movie actual o null si no existe o fue eliminada
+    * @throws Exception si ocurre error en la consulta
+    */
+    Movie refreshMovie(int id) throws Exception;
+    
+    /**
+    * Busca varias peliculas por ID en pocas consultas, en lugar de una por pelicula.
+    * 
+    * @param ids identificadores de las peliculas
+    * @return peliculas encontradas por ID, en el orden pedido; los IDs inexistentes no aparecen
+    * @throws Exception si ocurre error en la busqueda
+    */
+    IntLinkedMap<Movie> getMoviesByIds(int[] ids) throws Exception;
+    
     /**
     * Obtiene todas las peliculas ordenadas por titulo.
     * 
@@ -52,6 +77,16 @@ public interface MovieService {
     */
     List<Movie> searchMoviesByTitle(String title) throws Exception;
     
+    /**
+    * Busca peliculas por titulo eligiendo entre busqueda parcial y de texto completo.
+    * 
+    * @param title titulo o palabras a buscar
+    * @param fullText true para usar el indice FULLTEXT
+    * @return Lista de peliculas coincidentes
+    * @throws Exception si ocurre error en la busqueda
+    */
+    List<Movie> searchMoviesByTitle(String title, boolean fullText) throws Exception;
+    
     /**
     * Busca peliculas por director.
     * 
@@ -89,12 +124,42 @@ public interface MovieService {
     */
     List<Movie> getMoviesByYearRange(int startYear, int endYear) throws Exception;
     
+    /**
+    * Busca peliculas combinando varios criterios en una sola consulta.
+    * 
+    * @param criteria criterios de busqueda, orden y limite
+    * @return Lista de peliculas que cumplen los criterios
+    * @throws Exception si ocurre error en la busqueda
+    */
+    List<Movie> searchMovies(MovieSearchCriteria criteria) throws Exception;
+    
+    /**
+    * Procesa todas las peliculas una a una sin cargar el catalogo completo en memoria.
+    * Pensado para exportaciones y procesos masivos.
+    * 
+    * @param consumer accion a ejecutar por cada pelicula
+    * @throws Exception si ocurre error en el recorrido
+    */
+    void forEachMovie(Consumer<Movie> consumer) throws Exception;
+    
+    /**
+    * Obtiene una pagina de peliculas ordenada por titulo.
+    * 
+    * @param criteria filtros de busqueda o null para todas las peliculas
+    * @param cursor cursor de la pagina anterior o null para la primera
+    * @param pageSize numero de peliculas por pagina
+    * @param includeTotal true para incluir el total estimado
+    * @return pagina de peliculas
+    * @throws Exception si ocurre error en la consulta
+    */
+    MoviePage getMoviesPage(MovieSearchCriteria criteria, String cursor, int pageSize, boolean includeTotal) throws Exception;
+    
     /**
     * Actualiza una pelicula existente con validaciones.
     * 
     * @param movie pelicula con datos actualizados
     * @return Movie actualizada
-    * @throws Exception si la actualizacion falla
+    * @throws Exception si la actualizacion falla, no existe o hubo un conflicto de version
     */
     Movie updateMovie(Movie movie) throws Exception;
     
@@ -107,6 +172,27 @@ public interface MovieService {
     */
     boolean deleteMovie(int id) throws Exception;
     
+    /**
+    * Actualiza una pelicula existente con una sola sentencia, sin verificar antes su existencia.
+    * Si la pelicula tiene version conocida, la actualizacion solo se aplica cuando
+    * nadie la modifico desde que se leyo.
+    * 
+    * @param movie pelicula con datos actualizados
+    * @return SUCCESS si se actualizo, NOT_FOUND si no existe pelicula con su ID
+    *         o CONFLICT si su version cambio
+    * @throws Exception si los datos son invalidos o la actualizacion falla
+    */
+    WriteResult tryUpdateMovie(Movie movie) throws Exception;
+    
+    /**
+    * Elimina una pelicula con una sola sentencia, sin verificar antes su existencia.
+    * 
+    * @param id identificador de la pelicula
+    * @return SUCCESS si se elimino o NOT_FOUND si no existia
+    * @throws Exception si la eliminacion falla
+    */
+    WriteResult tryDeleteMovie(int id) throws Exception;
+    
     /**
     * Verifica si existe una pelicula con el ID dado.
     * 
@@ -116,6 +202,33 @@ public interface MovieService {
     */
     boolean movieExists(int id) throws Exception;
     
+    /**
+    * Crea varias peliculas en una sola transaccion, validando cada una.
+    * 
+    * @param movies peliculas a crear
+    * @return las peliculas con sus IDs asignados
+    * @throws Exception si alguna pelicula no es valida o la operacion falla
+    */
+    List<Movie> createMovies(List<Movie> movies) throws Exception;
+    
+    /**
+    * Actualiza varias peliculas en una sola transaccion, validando cada una.
+    * 
+    * @param movies peliculas con datos actualizados
+    * @return numero de peliculas actualizadas
+    * @throws Exception si alguna pelicula no es valida o la operacion falla
+    */
+    int updateMovies(List<Movie> movies) throws Exception;
+    
+    /**
+    * Elimina varias peliculas en una sola transaccion.
+    * 
+    * @param ids identificadores de las peliculas
+    * @return numero de peliculas eliminadas
+    * @throws Exception si la operacion falla
+    */
+    int deleteMovies(int[] ids) throws Exception;
+    
     /**
     * Obtiene estadisticas generales del sistema.
     * 
@@ -124,6 +237,26 @@ public interface MovieService {
     */
     int getTotalMovies() throws Exception;
     
+    /**
+    * Obtiene las peliculas creadas, modificadas o eliminadas desde una marca de sincronizacion.
+    * Permite refrescar caches y vistas sin volver a leer el catalogo completo.
+    * 
+    * @param since marca devuelta por la consulta anterior, o Instant.EPOCH para todo el historial
+    * @return cambios y marca para la siguiente consulta
+    * @throws Exception si ocurre error en la consulta
+    */
+    MovieChanges getChangesSince(Instant since) throws Exception;
+    
+    /**
+    * Obtiene la hora actual del servidor de base de datos.
+    * Es la marca inicial correcta para getChangesSince: las fechas de modificacion
+    * las asigna ese mismo reloj, no el del cliente.
+    * 
+    * @return hora del servidor
+    * @throws Exception si ocurre error en la consulta
+    */
+    Instant getServerTime() throws Exception;
+    
     /**
     * Valida los datos de una pelicula antes de operaciones.
     * 
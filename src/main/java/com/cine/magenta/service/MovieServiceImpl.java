@@ -5,15 +5,29 @@
 package com.cine.magenta.service;
 
 import com.cine.magenta.dao.MovieDAO;
+import com.cine.magenta.config.DatabaseConfig;
 import com.cine.magenta.dao.MovieDAOImpl;
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
+import com.cine.magenta.util.IntLinkedMap;
+import com.cine.magenta.util.RequestCoalescer;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * Implementacion de los servicios de negocio para Movie.
  * Coordina operaciones complejas y aplica reglas de negocio.
  * Actua como capa intermedia entre controladores y acceso a datos.
+ * Las lecturas identicas que coinciden en el tiempo (misma operacion y mismos
+ * argumentos) comparten una sola consulta al DAO; cada llamada recibe su propia
+ * copia del resultado. Las escrituras liberan las consultas en curso para que
+ * las lecturas posteriores vean sus cambios.
  *
  * @author Sistema Cine Magenta
  * @version 1.0
@@ -23,6 +37,9 @@ public class MovieServiceImpl implements MovieService {
     /** DAO para operaciones de acceso a datos */
     private final MovieDAO movieDAO;
     
+    /** Agrupa las lecturas identicas simultaneas */
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    
     /**
     * Constructor que inicializa el DAO.
     */
@@ -54,6 +71,7 @@ public class MovieServiceImpl implements MovieService {
     
     // Crear la pelicula en la base de datos
     int generatedId = movieDAO.create(movie);
+    coalescer.forgetAll();
     
     if (generatedId > 0) {
     movie.setId(generatedId);
@@ -76,7 +94,7 @@ public class MovieServiceImpl implements MovieService {
     }
     
     try {
-    Movie movie = movieDAO.findById(id);
+    Movie movie = coalescer.execute(key("findById", id), () -> movieDAO.findById(id), Movie::copy);
     if (movie == null) {
     throw new Exception("No se encontro pelicula con ID: " + id);
     }
@@ -88,10 +106,37 @@ public class MovieServiceImpl implements MovieService {
     }
     }
     
+    @Override
+    public Movie refreshMovie(int id) throws Exception {
+    if (id <= 0) {
+    throw new IllegalArgumentException("ID debe ser positivo, recibido: " + id);
+    }
+    
+    // Sin agrupar: una lectura en curso pudo empezar antes del cambio que se quiere ver
+    try {
+    return movieDAO.findById(id);
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al leer pelicula ID " + id + ": " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public IntLinkedMap<Movie> getMoviesByIds(int[] ids) throws Exception {
+    if (ids == null) {
+    throw new IllegalArgumentException("La lista de IDs no puede ser null");
+    }
+    
+    try {
+    return movieDAO.findByIds(ids);
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al buscar peliculas por ID: " + e.getMessage(), e);
+    }
+    }
+    
     @Override
     public List<Movie> getAllMovies() throws Exception {
     try {
-    List<Movie> movies = movieDAO.findAll();
+    List<Movie> movies = coalesceList(key("findAll"), () -> movieDAO.findAll());
     
     if (movies == null) {
     throw new Exception("Error al obtener lista de peliculas: resultado null");
@@ -111,7 +156,8 @@ public class MovieServiceImpl implements MovieService {
     }
     
     try {
-    List<Movie> movies = movieDAO.findByTitle(title.trim());
+    final String trimmed = title.trim();
+    List<Movie> movies = coalesceList(key("findByTitle", trimmed), () -> movieDAO.findByTitle(trimmed));
     
     if (movies == null) {
     throw new Exception("Error al buscar peliculas por titulo: resultado null");
@@ -124,6 +170,30 @@ public class MovieServiceImpl implements MovieService {
     }
     }
     
+    @Override
+    public List<Movie> searchMoviesByTitle(String title, boolean fullText) throws Exception {
+    if (!fullText) {
+    return searchMoviesByTitle(title);
+    }
+    if (title == null || title.trim().isEmpty()) {
+    throw new IllegalArgumentException("Titulo de busqueda no puede estar vacio");
+    }
+    
+    try {
+    final String trimmed = title.trim();
+    List<Movie> movies = coalesceList(key("findByTitleFullText", trimmed), () -> movieDAO.findByTitle(trimmed, true));
+    
+    if (movies == null) {
+    throw new Exception("Error al buscar peliculas por titulo: resultado null");
+    }
+    
+    return movies;
+    
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al buscar peliculas por texto completo '" + title + "': " + e.getMessage(), e);
+    }
+    }
+    
     @Override
     public List<Movie> getMoviesByDirector(String director) throws Exception {
     if (director == null || director.trim().isEmpty()) {
@@ -131,7 +201,8 @@ public class MovieServiceImpl implements MovieService {
     }
     
     try {
-    List<Movie> movies = movieDAO.findByDirector(director.trim());
+    final String trimmed = director.trim();
+    List<Movie> movies = coalesceList(key("findByDirector", trimmed), () -> movieDAO.findByDirector(trimmed));
     
     if (movies == null) {
     throw new Exception("Error al buscar peliculas por director: resultado null");
@@ -151,7 +222,8 @@ public class MovieServiceImpl implements MovieService {
     }
     
     try {
-    List<Movie> movies = movieDAO.findByGenre(genre.trim());
+    final String trimmed = genre.trim();
+    List<Movie> movies = coalesceList(key("findByGenre", trimmed), () -> movieDAO.findByGenre(trimmed));
     
     if (movies == null) {
     throw new Exception("Error al buscar peliculas por genero: resultado null");
@@ -167,7 +239,7 @@ public class MovieServiceImpl implements MovieService {
     @Override
     public List<Movie> getMoviesByYear(int year) throws Exception {
     try {
-    List<Movie> movies = movieDAO.findByYear(year);
+    List<Movie> movies = coalesceList(key("findByYear", year), () -> movieDAO.findByYear(year));
     
     if (movies == null) {
     throw new Exception("Error al buscar peliculas por año: resultado null");
@@ -187,7 +259,8 @@ public class MovieServiceImpl implements MovieService {
     }
     
     try {
-    List<Movie> movies = movieDAO.findByYearRange(startYear, endYear);
+    List<Movie> movies = coalesceList(key("findByYearRange", startYear, endYear),
+    () -> movieDAO.findByYearRange(startYear, endYear));
     
     if (movies == null) {
     throw new Exception("Error al buscar peliculas por rango de años: resultado null");
@@ -201,8 +274,86 @@ public class MovieServiceImpl implements MovieService {
     }
     }
     
+    @Override
+    public List<Movie> searchMovies(MovieSearchCriteria criteria) throws Exception {
+    if (criteria == null) {
+    throw new IllegalArgumentException("Los criterios de busqueda no pueden ser null");
+    }
+    criteria.validate();
+    
+    try {
+    List<Movie> movies = coalesceList(key("search", criteria.getTitle(), criteria.getDirector(), criteria.getGenre(),
+    criteria.getYearFrom(), criteria.getYearTo(), criteria.getSortField(), criteria.isAscending(), criteria.getLimit()),
+    () -> movieDAO.search(criteria));
+    
+    if (movies == null) {
+    throw new Exception("Error al buscar peliculas: resultado null");
+    }
+    
+    return movies;
+    
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al buscar peliculas: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public void forEachMovie(Consumer<Movie> consumer) throws Exception {
+    if (consumer == null) {
+    throw new IllegalArgumentException("El consumidor no puede ser null");
+    }
+    
+    try {
+    movieDAO.streamAll(consumer);
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al recorrer peliculas: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public MoviePage getMoviesPage(MovieSearchCriteria criteria, String cursor, int pageSize, boolean includeTotal) throws Exception {
+    if (pageSize <= 0 || pageSize > DatabaseConfig.MAX_PAGE_SIZE) {
+    throw new IllegalArgumentException("El tamaño de pagina debe estar entre 1 y " + DatabaseConfig.MAX_PAGE_SIZE);
+    }
+    
+    try {
+    MoviePage page = movieDAO.findPage(criteria, cursor, pageSize, includeTotal);
+    
+    if (page == null) {
+    throw new Exception("Error al obtener pagina de peliculas: resultado null");
+    }
+    
+    return page;
+    
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al obtener pagina de peliculas: " + e.getMessage(), e);
+    }
+    }
+    
     @Override
     public Movie updateMovie(Movie movie) throws Exception {
+    WriteResult result = tryUpdateMovie(movie);
+    if (result == WriteResult.NOT_FOUND) {
+    throw new Exception("No existe pelicula con ID: " + movie.getId());
+    }
+    if (result == WriteResult.CONFLICT) {
+    throw new Exception("La pelicula ID " + movie.getId() + " fue modificada por otro usuario; recargue sus datos");
+    }
+    
+    return movie;
+    }
+    
+    @Override
+    public boolean deleteMovie(int id) throws Exception {
+    if (tryDeleteMovie(id) == WriteResult.NOT_FOUND) {
+    throw new Exception("No existe pelicula con ID: " + id);
+    }
+    
+    return true;
+    }
+    
+    @Override
+    public WriteResult tryUpdateMovie(Movie movie) throws Exception {
     if (movie == null) {
     throw new IllegalArgumentException("Movie no puede ser null");
     }
@@ -211,23 +362,19 @@ public class MovieServiceImpl implements MovieService {
     throw new IllegalArgumentException("Movie debe tener un ID valido, recibido: " + movie.getId());
     }
     
-    try {
-    // Verificar que la pelicula existe
-    if (!movieDAO.exists(movie.getId())) {
-    throw new Exception("No existe pelicula con ID: " + movie.getId());
-    }
-    
     // Validar nuevos datos
     validateMovie(movie);
     
-    // Actualizar en la base de datos
+    try {
+    // Las filas afectadas indican si la pelicula existe; no hace falta consultarlo antes
     boolean updated = movieDAO.update(movie);
+    coalescer.forgetAll();
     
-    if (!updated) {
-    throw new Exception("No se pudo actualizar la pelicula ID " + movie.getId() + ": operacion no afecto filas");
+    if (updated) {
+    return WriteResult.SUCCESS;
     }
-    
-    return movie;
+    // Sin filas afectadas y con version conocida: consultar solo ahora si existe
+    return movie.hasVersion() && movieDAO.exists(movie.getId()) ? WriteResult.CONFLICT : WriteResult.NOT_FOUND;
     
     } catch (SQLException e) {
     throw new Exception("Error de base de datos al actualizar pelicula ID " + movie.getId() + ": " + e.getMessage(), e);
@@ -235,27 +382,81 @@ public class MovieServiceImpl implements MovieService {
     }
     
     @Override
-    public boolean deleteMovie(int id) throws Exception {
+    public WriteResult tryDeleteMovie(int id) throws Exception {
     if (id <= 0) {
     throw new IllegalArgumentException("ID debe ser positivo, recibido: " + id);
     }
     
     try {
-    // Verificar que la pelicula existe
-    if (!movieDAO.exists(id)) {
-    throw new Exception("No existe pelicula con ID: " + id);
+    boolean deleted = movieDAO.delete(id);
+    coalescer.forgetAll();
+    
+    return deleted ? WriteResult.SUCCESS : WriteResult.NOT_FOUND;
+    
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al eliminar pelicula ID " + id + ": " + e.getMessage(), e);
+    }
     }
     
-    boolean deleted = movieDAO.delete(id);
+    @Override
+    public List<Movie> createMovies(List<Movie> movies) throws Exception {
+    if (movies == null) {
+    throw new IllegalArgumentException("La lista de peliculas no puede ser null");
+    }
     
-    if (!deleted) {
-    throw new Exception("No se pudo eliminar la pelicula ID " + id + ": operacion no afecto filas");
+    for (Movie movie : movies) {
+    validateMovie(movie);
     }
     
-    return deleted;
+    try {
+    movieDAO.createAll(movies);
+    coalescer.forgetAll();
+    return movies;
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al crear " + movies.size() + " peliculas: " + e.getMessage(), e);
+    }
+    }
     
+    @Override
+    public int updateMovies(List<Movie> movies) throws Exception {
+    if (movies == null) {
+    throw new IllegalArgumentException("La lista de peliculas no puede ser null");
+    }
+    
+    for (Movie movie : movies) {
+    validateMovie(movie);
+    if (movie.getId() <= 0) {
+    throw new IllegalArgumentException("Movie debe tener un ID valido, recibido: " + movie.getId());
+    }
+    }
+    
+    try {
+    int updated = movieDAO.updateAll(movies);
+    coalescer.forgetAll();
+    return updated;
     } catch (SQLException e) {
-    throw new Exception("Error de base de datos al eliminar pelicula ID " + id + ": " + e.getMessage(), e);
+    throw new Exception("Error de base de datos al actualizar " + movies.size() + " peliculas: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public int deleteMovies(int[] ids) throws Exception {
+    if (ids == null) {
+    throw new IllegalArgumentException("La lista de IDs no puede ser null");
+    }
+    
+    for (int id : ids) {
+    if (id <= 0) {
+    throw new IllegalArgumentException("ID debe ser positivo, recibido: " + id);
+    }
+    }
+    
+    try {
+    int deleted = movieDAO.deleteAll(ids);
+    coalescer.forgetAll();
+    return deleted;
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al eliminar " + ids.length + " peliculas: " + e.getMessage(), e);
     }
     }
     
@@ -266,7 +467,7 @@ public class MovieServiceImpl implements MovieService {
     }
     
     try {
-    return movieDAO.exists(id);
+    return coalescer.execute(key("exists", id), () -> movieDAO.exists(id), exists -> exists);
     } catch (SQLException e) {
     throw new Exception("Error de base de datos al verificar existencia de pelicula ID " + id + ": " + e.getMessage(), e);
     }
@@ -275,7 +476,7 @@ public class MovieServiceImpl implements MovieService {
     @Override
     public int getTotalMovies() throws Exception {
     try {
-    int count = movieDAO.count();
+    int count = coalescer.execute(key("count"), () -> movieDAO.count(), total -> total);
     
     if (count < 0) {
     throw new Exception("Error al obtener contador: valor negativo recibido");
@@ -288,6 +489,28 @@ public class MovieServiceImpl implements MovieService {
     }
     }
     
+    @Override
+    public MovieChanges getChangesSince(Instant since) throws Exception {
+    if (since == null) {
+    throw new IllegalArgumentException("La marca de sincronizacion no puede ser null");
+    }
+    
+    try {
+    return movieDAO.findChangedSince(since);
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al obtener cambios: " + e.getMessage(), e);
+    }
+    }
+    
+    @Override
+    public Instant getServerTime() throws Exception {
+    try {
+    return movieDAO.currentTimestamp();
+    } catch (SQLException e) {
+    throw new Exception("Error de base de datos al obtener la hora del servidor: " + e.getMessage(), e);
+    }
+    }
+    
     @Override
     public void validateMovie(Movie movie) throws Exception {
     if (movie == null) {
@@ -300,4 +523,64 @@ public class MovieServiceImpl implements MovieService {
     throw new IllegalArgumentException("Datos de pelicula invalidos:\n" + validation.getErrorMessages());
     }
     }
-}
\ No newline at end of file
+    
+    /**
+    * Obtiene el numero de lecturas resueltas con una consulta identica que ya estaba en curso.
+    * 
+    * @return lecturas agrupadas
+    */
+    public long getCoalescedCount() {
+    return coalescer.getCoalescedCount();
+    }
+    
+    /**
+    * Obtiene un resumen de las lecturas agrupadas.
+    * 
+    * @return texto con consultas ejecutadas, agrupadas y tasa
+    */
+    public String getCoalescingStats() {
+    return coalescer.getStats();
+    }
+    
+    /**
+    * Ejecuta una lectura de peliculas agrupandola con las identicas en curso.
+    * 
+    * @param key clave de la operacion y sus argumentos
+    * @param read consulta al DAO
+    * @return peliculas leidas (una copia si se compartio otra consulta)
+    * @throws Exception si falla la consulta
+    */
+    private List<Movie> coalesceList(String key, Callable<List<Movie>> read) throws Exception {
+    return coalescer.execute(key, read, MovieServiceImpl::copyOf);
+    }
+    
+    /**
+    * Construye la clave de una lectura con su operacion y argumentos.
+    * 
+    * @param operation nombre de la operacion
+    * @param args argumentos de la lectura
+    * @return clave
+    */
+    private static String key(String operation, Object... args) {
+    StringBuilder key = new StringBuilder(operation);
+    for (Object arg : args) {
+    // Separador que no aparece en los textos de busqueda
+    key.append('\u0000').append(arg);
+    }
+    return key.toString();
+    }
+    
+    /**
+    * Crea una lista modificable con copias de las peliculas.
+    * 
+    * @param movies peliculas originales
+    * @return lista nueva con copias
+    */
+    private static List<Movie> copyOf(List<Movie> movies) {
+    List<Movie> copies = new ArrayList<>(movies.size());
+    for (Movie movie : movies) {
+    copies.add(movie.copy());
+    }
+    return copies;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.util.TextNormalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Servicio de autocompletado de titulos y directores.
+ * Cada campo se guarda como un mapa ordenado de claves normalizadas, una por
+ * cada palabra inicial del texto, de modo que "padr" sugiere "El Padrino".
+ * Una consulta ubica la primera clave con el prefijo en el arbol y recorre solo
+ * las siguientes k coincidencias.
+ * Se mantiene sincronizado como MovieChangeListener de IndexedMovieService; cada
+ * cambio inserta o retira solo las claves de la pelicula, sin reordenar el resto.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class SuggestionService implements MovieChangeListener {
+
+    /** Sugerencias de titulos */
+    private final SuggestionIndex titles = new SuggestionIndex();
+
+    /** Sugerencias de directores */
+    private final SuggestionIndex directors = new SuggestionIndex();
+
+    /** Titulo y director actuales por ID, para retirar los textos anteriores al cambiar */
+    private final Map<Integer, String[]> textsById = new HashMap<>();
+
+    @Override
+    public synchronized void catalogLoaded(List<Movie> movies) {
+        titles.clear();
+        directors.clear();
+        textsById.clear();
+        for (Movie movie : movies) {
+            addMovie(movie);
+        }
+    }
+
+    @Override
+    public synchronized void movieSaved(Movie movie) {
+        removeMovie(movie.getId());
+        addMovie(movie);
+    }
+
+    @Override
+    public synchronized void movieDeleted(int id) {
+        removeMovie(id);
+    }
+
+    /**
+     * Sugiere titulos que empiezan, o tienen una palabra que empieza, con el prefijo.
+     *
+     * @param prefix texto escrito por el usuario
+     * @param limit numero maximo de sugerencias
+     * @return titulos sugeridos en orden alfabetico de la parte coincidente
+     */
+    public synchronized List<String> suggestTitles(String prefix, int limit) {
+        return titles.complete(prefix, limit);
+    }
+
+    /**
+     * Sugiere directores que empiezan, o tienen una palabra que empieza, con el prefijo.
+     *
+     * @param prefix texto escrito por el usuario
+     * @param limit numero maximo de sugerencias
+     * @return directores sugeridos en orden alfabetico de la parte coincidente
+     */
+    public synchronized List<String> suggestDirectors(String prefix, int limit) {
+        return directors.complete(prefix, limit);
+    }
+
+    /**
+     * Agrega los textos de una pelicula a las sugerencias.
+     *
+     * @param movie pelicula a agregar
+     */
+    private void addMovie(Movie movie) {
+        textsById.put(movie.getId(), new String[] {movie.getTitle(), movie.getDirector()});
+        titles.add(movie.getTitle());
+        directors.add(movie.getDirector());
+    }
+
+    /**
+     * Retira los textos de una pelicula de las sugerencias.
+     *
+     * @param id identificador de la pelicula
+     */
+    private void removeMovie(int id) {
+        String[] previous = textsById.remove(id);
+        if (previous != null) {
+            titles.remove(previous[0]);
+            directors.remove(previous[1]);
+        }
+    }
+
+    /**
+     * Sugerencias de un campo: claves normalizadas ordenadas con su texto original.
+     * Un texto compartido por varias peliculas se cuenta para retirarlo solo con la ultima.
+     */
+    private static final class SuggestionIndex {
+
+        /** Separa la clave del texto original en las entradas */
+        private static final char SEPARATOR = '\u0000';
+
+        /** Peliculas que aportan cada entrada "clave SEPARATOR texto", en orden de entrada */
+        private final NavigableMap<String, Integer> counts = new TreeMap<>();
+
+        void clear() {
+            counts.clear();
+        }
+
+        void add(String text) {
+            for (String entry : entriesOf(text)) {
+                counts.merge(entry, 1, Integer::sum);
+            }
+        }
+
+        void remove(String text) {
+            for (String entry : entriesOf(text)) {
+                counts.computeIfPresent(entry, (k, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        List<String> complete(String prefix, int limit) {
+            String normalized = TextNormalizer.normalize(prefix).trim();
+            if (normalized.isEmpty() || limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            // Desde la primera entrada mayor o igual al prefijo; las coincidencias son contiguas
+            Set<String> result = new LinkedHashSet<>();
+            for (String entry : counts.tailMap(normalized, true).keySet()) {
+                if (result.size() >= limit || !entry.startsWith(normalized)) {
+                    break;
+                }
+                int separator = entry.indexOf(SEPARATOR);
+                if (separator >= normalized.length()) {
+                    result.add(entry.substring(separator + 1));
+                }
+            }
+            return new ArrayList<>(result);
+        }
+
+        /**
+         * Genera una entrada por cada palabra del texto: la clave es el texto
+         * normalizado desde esa palabra y se acompaña del texto original.
+         *
+         * @param text texto original
+         * @return entradas del texto
+         */
+        private static Set<String> entriesOf(String text) {
+            Set<String> entries = new LinkedHashSet<>();
+            if (text == null || text.trim().isEmpty()) {
+                return entries;
+            }
+            String original = text.trim();
+            String normalized = TextNormalizer.normalize(original);
+            for (int i = 0; i < normalized.length(); i++) {
+                boolean wordStart = i == 0 || normalized.charAt(i - 1) == ' ';
+                if (wordStart && normalized.charAt(i) != ' ') {
+                    entries.add(normalized.substring(i) + SEPARATOR + original);
+                }
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+/**
+ * Resultado de una escritura sobre una pelicula existente.
+ * Se obtiene de las filas afectadas por la sentencia UPDATE o DELETE, sin una
+ * consulta previa de existencia; solo cuando no se afecto ninguna fila de una
+ * pelicula con version conocida se consulta si existe para distinguir un conflicto.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public enum WriteResult {
+
+    /** La sentencia afecto a la pelicula */
+    SUCCESS,
+
+    /** Ninguna fila tenia el ID indicado */
+    NOT_FOUND,
+
+    /** La pelicula existe pero otro usuario la modifico desde que se leyo */
+    CONFLICT;
+
+    /**
+     * Indica si la escritura se aplico.
+     *
+     * @return true si el resultado es SUCCESS
+     */
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Envoltorio de una sentencia preparada que pertenece al StatementCache.
+ * Al cerrarse limpia sus parametros, el lote pendiente y los limites que haya
+ * cambiado el llamador, y vuelve al cache en lugar de cerrarse en el servidor.
+ * El resto de metodos se delega en la sentencia fisica.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+class CachedStatement implements InvocationHandler {
+
+    /** Sentencia fisica preparada en la conexion */
+    private final PreparedStatement statement;
+
+    /** Clave bajo la que se guarda en el cache */
+    private final String key;
+
+    /** Cache al que se devuelve la sentencia */
+    private final StatementCache cache;
+
+    /** Prestamo de conexion que creo la sentencia */
+    private final PooledConnection owner;
+
+    /** Proxy entregado al llamador */
+    private PreparedStatement proxy;
+
+    /** Metodos que cambian limites de la sentencia que deben restaurarse al devolverla */
+    private static final Set<String> LIMIT_SETTERS = Set.of(
+        "setMaxRows", "setLargeMaxRows", "setFetchSize", "setFetchDirection",
+        "setQueryTimeout", "setMaxFieldSize");
+
+    /** Indica si el llamador ya cerro la sentencia */
+    private boolean closed = false;
+
+    /** Indica si el llamador cambio algun limite de la sentencia */
+    private boolean limitsChanged = false;
+
+    /**
+     * Crea el manejador para una sentencia fisica.
+     *
+     * @param statement sentencia fisica
+     * @param key clave en el cache
+     * @param cache cache de la conexion
+     * @param owner prestamo que usa la sentencia
+     */
+    private CachedStatement(PreparedStatement statement, String key, StatementCache cache, PooledConnection owner) {
+        this.statement = statement;
+        this.key = key;
+        this.cache = cache;
+        this.owner = owner;
+    }
+
+    /**
+     * Envuelve una sentencia fisica en un proxy que vuelve al cache al cerrarse.
+     *
+     * @param statement sentencia fisica
+     * @param key clave en el cache
+     * @param cache cache de la conexion
+     * @param owner prestamo que usa la sentencia
+     * @return manejador con el proxy listo para entregar
+     */
+    static CachedStatement wrap(PreparedStatement statement, String key, StatementCache cache, PooledConnection owner) {
+        CachedStatement handler = new CachedStatement(statement, key, cache, owner);
+        handler.proxy = (PreparedStatement) Proxy.newProxyInstance(
+            CachedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            handler
+        );
+        return handler;
+    }
+
+    /**
+     * Obtiene el proxy que se entrega al llamador.
+     *
+     * @return sentencia preparada envuelta
+     */
+    PreparedStatement getProxy() {
+        return proxy;
+    }
+
+    /**
+     * Devuelve la sentencia al cache si el llamador aun no la cerro.
+     * Un lote agregado y no ejecutado se descarta y los limites cambiados vuelven
+     * a sus valores por defecto. Si no se puede limpiar, la sentencia se cierra
+     * en lugar de reutilizarse.
+     */
+    void returnToCache() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        owner.statementClosed(this);
+
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            if (limitsChanged) {
+                statement.setMaxRows(0);
+                statement.setFetchSize(0);
+                statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+                statement.setQueryTimeout(0);
+                statement.setMaxFieldSize(0);
+            }
+            cache.release(key, statement);
+        } catch (SQLException e) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // La sentencia ya no es utilizable
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxyObject, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                returnToCache();
+                return null;
+            case "isClosed":
+                return closed || statement.isClosed();
+            case "getConnection":
+                return owner;
+            case "equals":
+                return proxyObject == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxyObject);
+            case "toString":
+                return "CachedStatement[" + key + "]";
+            default:
+                break;
+        }
+
+        if (closed) {
+            throw new SQLException("La sentencia ya fue cerrada");
+        }
+        if (LIMIT_SETTERS.contains(method.getName())) {
+            limitsChanged = true;
+        }
+
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
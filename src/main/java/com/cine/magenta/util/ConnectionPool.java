@@ -0,0 +1,567 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Motor del pool de conexiones sin bloqueos.
+ * Las entradas se prestan cambiando su estado con CAS, el limite de conexiones
+ * se reserva con CAS sobre el contador total y los hilos que esperan reciben
+ * las conexiones devueltas en orden de llegada a traves de una cola de entrega.
+ * Cada hilo recuerda las ultimas conexiones que devolvio para reutilizarlas
+ * sin recorrer la lista compartida.
+ * Las conexiones solo se validan con el servidor si estuvieron sin uso mas
+ * tiempo que el intervalo de validacion.
+ * Ofrece operaciones de mantenimiento (precarga, expulsion de conexiones
+ * inactivas y rotacion por vida maxima) pensadas para ejecutarse en segundo
+ * plano; solo retiran conexiones libres, nunca esperan a las prestadas.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class ConnectionPool {
+
+    /**
+     * Fabrica de conexiones fisicas utilizada por el pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+
+        /**
+         * Crea una nueva conexion fisica.
+         *
+         * @return conexion abierta
+         * @throws SQLException si no se puede conectar
+         */
+        Connection create() throws SQLException;
+    }
+
+    /** Numero maximo de entradas recordadas por hilo */
+    private static final int THREAD_LOCAL_LIMIT = 16;
+
+    /** Espera maxima por vuelta mientras se aguarda una conexion (ms) */
+    private static final long WAIT_SLICE_MS = 250;
+
+    /** Segundos de espera para validar una conexion con el servidor */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /** Fabrica de conexiones fisicas */
+    private final ConnectionFactory factory;
+
+    /** Numero maximo de conexiones fisicas */
+    private final int maxConnections;
+
+    /** Tiempo maximo de espera para obtener una conexion (ms) */
+    private final long connectionTimeoutMs;
+
+    /** Tiempo sin uso a partir del cual se valida la conexion (ms) */
+    private final long validationIntervalMs;
+
+    /** Capacidad del cache de sentencias de cada conexion */
+    private final int statementCacheSize;
+
+    /** Todas las entradas vivas del pool */
+    private final CopyOnWriteArrayList<PoolEntry> entries = new CopyOnWriteArrayList<>();
+
+    /** Entradas devueltas recientemente por cada hilo */
+    private final ThreadLocal<List<PoolEntry>> threadLocalEntries = ThreadLocal.withInitial(ArrayList::new);
+
+    /** Cola justa (FIFO) para entregar conexiones a los hilos en espera */
+    private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+
+    /** Hilos esperando una conexion */
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /** Conexiones fisicas existentes o en creacion (plazas reservadas) */
+    private final AtomicInteger totalConnections = new AtomicInteger();
+
+    /** Conexiones prestadas */
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    /** Aciertos acumulados de los caches de sentencias */
+    private final AtomicLong statementCacheHits = new AtomicLong();
+
+    /** Fallos acumulados de los caches de sentencias */
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    /**
+     * Crea un pool vacio. Las conexiones se crean bajo demanda.
+     *
+     * @param factory fabrica de conexiones fisicas
+     * @param maxConnections numero maximo de conexiones
+     * @param connectionTimeoutMs espera maxima para obtener una conexion (ms)
+     * @param validationIntervalMs tiempo sin uso tras el cual se valida (ms)
+     * @param statementCacheSize capacidad del cache de sentencias por conexion
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxConnections, long connectionTimeoutMs,
+            long validationIntervalMs, int statementCacheSize) {
+        if (factory == null) {
+            throw new IllegalArgumentException("ConnectionFactory no puede ser null");
+        }
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("El maximo de conexiones debe ser positivo, recibido: " + maxConnections);
+        }
+        this.factory = factory;
+        this.maxConnections = maxConnections;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Presta una entrada del pool.
+     * Orden de busqueda: entradas recientes del hilo, lista compartida,
+     * creacion de una nueva si queda plaza y, por ultimo, espera en la cola
+     * de entrega hasta el tiempo maximo.
+     *
+     * @return entrada en estado prestado
+     * @throws SQLException si se agota el tiempo o no se puede crear la conexion
+     */
+    PoolEntry borrow() throws SQLException {
+        long deadline = System.currentTimeMillis() + connectionTimeoutMs;
+
+        // Camino rapido: conexiones devueltas por este mismo hilo
+        List<PoolEntry> local = threadLocalEntries.get();
+        for (int i = local.size() - 1; i >= 0; i--) {
+            PoolEntry entry = local.remove(i);
+            if (entry.compareAndSetState(PoolEntry.STATE_IDLE, PoolEntry.STATE_IN_USE)) {
+                PoolEntry valid = prepareForLease(entry);
+                if (valid != null) {
+                    return valid;
+                }
+            }
+        }
+
+        PoolEntry found = borrowShared();
+        if (found != null) {
+            return found;
+        }
+
+        // A partir de aqui este hilo cuenta como espera, asi quien devuelva
+        // una conexion intentara entregarsela directamente
+        waiters.incrementAndGet();
+        try {
+            boolean announced = false;
+            while (true) {
+                found = borrowShared();
+                if (found != null) {
+                    return found;
+                }
+
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SQLException("Timeout al esperar conexion disponible. " + getPoolStatus());
+                }
+
+                if (!announced) {
+                    System.out.println("Pool de conexiones lleno. Esperando conexion disponible...");
+                    announced = true;
+                }
+
+                // Esperar una entrega directa de otro hilo
+                PoolEntry handed = handoffQueue.poll(Math.min(remaining, WAIT_SLICE_MS), TimeUnit.MILLISECONDS);
+                if (handed != null && handed.compareAndSetState(PoolEntry.STATE_IDLE, PoolEntry.STATE_IN_USE)) {
+                    PoolEntry valid = prepareForLease(handed);
+                    if (valid != null) {
+                        return valid;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupcion al esperar conexion", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Busca una entrada libre en la lista compartida o crea una nueva si queda plaza.
+     *
+     * @return entrada prestada o null si no hay ninguna disponible
+     * @throws SQLException si falla la creacion de la conexion
+     */
+    private PoolEntry borrowShared() throws SQLException {
+        for (PoolEntry entry : entries) {
+            if (entry.compareAndSetState(PoolEntry.STATE_IDLE, PoolEntry.STATE_IN_USE)) {
+                PoolEntry valid = prepareForLease(entry);
+                if (valid != null) {
+                    return valid;
+                }
+            }
+        }
+
+        // Crear una nueva conexion si se logra reservar una plaza
+        if (reserveSlot()) {
+            return createEntry();
+        }
+        return null;
+    }
+
+    /**
+     * Devuelve una entrada al pool.
+     * Solo se comprueba localmente si la conexion sigue abierta; la validacion
+     * con el servidor queda para el siguiente prestamo si hace falta.
+     * Si hay hilos esperando, la entrada se les entrega directamente.
+     *
+     * @param entry entrada prestada que se devuelve
+     */
+    void release(PoolEntry entry) {
+        activeConnections.decrementAndGet();
+        entry.touch();
+
+        if (entry.getState() == PoolEntry.STATE_REMOVED) {
+            // El pool fue cerrado o la entrada retirada mientras estaba prestada
+            entry.closeQuietly();
+            return;
+        }
+
+        boolean closed;
+        try {
+            closed = entry.getConnection().isClosed();
+        } catch (SQLException e) {
+            closed = true;
+        }
+        if (closed) {
+            remove(entry, "Conexion cerrada descartada");
+            return;
+        }
+
+        if (entry.isRetirementPending()) {
+            remove(entry, "Conexion retirada por vida maxima");
+            return;
+        }
+
+        // Una transaccion abierta o un cambio de sesion no debe pasar al siguiente prestamo
+        try {
+            entry.resetSession();
+        } catch (SQLException e) {
+            remove(entry, "Conexion descartada al restablecer su estado");
+            return;
+        }
+
+        entry.compareAndSetState(PoolEntry.STATE_IN_USE, PoolEntry.STATE_IDLE);
+
+        // Entregar a un hilo en espera mientras la entrada siga libre
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.getState() != PoolEntry.STATE_IDLE || handoffQueue.offer(entry)) {
+                return;
+            }
+            if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+
+        List<PoolEntry> local = threadLocalEntries.get();
+        if (local.size() < THREAD_LOCAL_LIMIT) {
+            local.add(entry);
+        }
+    }
+
+    /**
+     * Prepara una entrada recien reservada para su prestamo.
+     * Valida la conexion con el servidor solo si estuvo inactiva mas del intervalo.
+     *
+     * @param entry entrada en estado prestado
+     * @return la entrada lista o null si fue descartada por invalida
+     */
+    private PoolEntry prepareForLease(PoolEntry entry) {
+        if (entry.isRetirementPending()) {
+            entry.getAndSetState(PoolEntry.STATE_REMOVED);
+            discard(entry, "Conexion retirada por vida maxima");
+            return null;
+        }
+
+        long idleMs = System.currentTimeMillis() - entry.getLastAccessed();
+        boolean valid;
+        try {
+            if (idleMs > validationIntervalMs) {
+                valid = entry.getConnection().isValid(VALIDATION_TIMEOUT_SECONDS);
+            } else {
+                valid = !entry.getConnection().isClosed();
+            }
+        } catch (SQLException e) {
+            valid = false;
+        }
+
+        if (!valid) {
+            entry.getAndSetState(PoolEntry.STATE_REMOVED);
+            discard(entry, "Conexion invalida descartada");
+            return null;
+        }
+
+        entry.touch();
+        activeConnections.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Reserva una plaza para una nueva conexion sin superar el maximo.
+     *
+     * @return true si se reservo la plaza
+     */
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= maxConnections) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Crea una entrada prestada ocupando una plaza ya reservada.
+     *
+     * @return entrada nueva en estado prestado
+     * @throws SQLException si no se puede crear la conexion (la plaza se libera)
+     */
+    private PoolEntry createEntry() throws SQLException {
+        PoolEntry entry;
+        try {
+            StatementCache cache = new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses);
+            entry = new PoolEntry(factory.create(), cache);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+
+        entries.add(entry);
+        activeConnections.incrementAndGet();
+        System.out.println("Nueva conexion creada. Total: " + totalConnections.get() + " / " + maxConnections);
+        return entry;
+    }
+
+    /**
+     * Retira una entrada prestada del pool y cierra su conexion.
+     *
+     * @param entry entrada a retirar
+     * @param reason motivo para el registro
+     */
+    private void remove(PoolEntry entry, String reason) {
+        if (entry.getAndSetState(PoolEntry.STATE_REMOVED) != PoolEntry.STATE_REMOVED) {
+            discard(entry, reason);
+        }
+    }
+
+    /**
+     * Cierra la conexion de una entrada ya marcada como retirada y libera su plaza.
+     *
+     * @param entry entrada retirada
+     * @param reason motivo para el registro
+     */
+    private void discard(PoolEntry entry, String reason) {
+        if (entries.remove(entry)) {
+            totalConnections.decrementAndGet();
+        }
+        entry.closeQuietly();
+        System.out.println(reason + ". Total: " + totalConnections.get());
+    }
+
+    /**
+     * Abre conexiones libres hasta alcanzar el minimo indicado.
+     * Respeta el maximo del pool y se detiene ante el primer error de conexion.
+     *
+     * @param minIdle numero minimo de conexiones libres
+     * @return numero de conexiones creadas
+     * @throws SQLException si no se puede crear una conexion
+     */
+    int fillToMinimumIdle(int minIdle) throws SQLException {
+        int added = 0;
+        while (getIdleCount() < minIdle && reserveSlot()) {
+            PoolEntry entry = createEntry();
+            activeConnections.decrementAndGet();
+            entry.compareAndSetState(PoolEntry.STATE_IN_USE, PoolEntry.STATE_IDLE);
+            if (waiters.get() > 0) {
+                handoffQueue.offer(entry);
+            }
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Cierra las conexiones libres que llevan sin uso mas del tiempo indicado,
+     * conservando al menos el minimo de conexiones libres.
+     *
+     * @param idleTimeoutMs tiempo sin uso permitido (ms)
+     * @param minIdle conexiones libres que se conservan
+     * @return numero de conexiones cerradas
+     */
+    int evictIdle(long idleTimeoutMs, int minIdle) {
+        if (idleTimeoutMs <= 0) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        int idle = getIdleCount();
+        int evicted = 0;
+        for (PoolEntry entry : entries) {
+            if (idle <= minIdle) {
+                break;
+            }
+            if (now - entry.getLastAccessed() > idleTimeoutMs
+                    && entry.compareAndSetState(PoolEntry.STATE_IDLE, PoolEntry.STATE_REMOVED)) {
+                discard(entry, "Conexion inactiva cerrada");
+                idle--;
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Retira las conexiones que superaron su vida maxima.
+     * Las libres se cierran de inmediato; las prestadas se marcan y se cierran
+     * cuando su usuario las devuelve, sin bloquear a nadie.
+     *
+     * @param maxLifetimeMs vida maxima de una conexion (ms)
+     * @return numero de conexiones cerradas o marcadas
+     */
+    int retireExpired(long maxLifetimeMs) {
+        if (maxLifetimeMs <= 0) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        int retired = 0;
+        for (PoolEntry entry : entries) {
+            if (now - entry.getCreatedAt() <= maxLifetimeMs || entry.isRetirementPending()) {
+                continue;
+            }
+            entry.markForRetirement();
+            if (entry.compareAndSetState(PoolEntry.STATE_IDLE, PoolEntry.STATE_REMOVED)) {
+                discard(entry, "Conexion retirada por vida maxima");
+            }
+            retired++;
+        }
+        return retired;
+    }
+
+    /**
+     * Cierra todas las conexiones del pool.
+     * Las conexiones prestadas se marcan como retiradas y se cierran al devolverse.
+     */
+    void closeAll() {
+        for (PoolEntry entry : entries) {
+            int previous = entry.getAndSetState(PoolEntry.STATE_REMOVED);
+            if (entries.remove(entry)) {
+                totalConnections.decrementAndGet();
+            }
+            if (previous == PoolEntry.STATE_IDLE) {
+                entry.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Obtiene el numero de conexiones prestadas.
+     *
+     * @return conexiones activas
+     */
+    public int getActiveCount() {
+        return activeConnections.get();
+    }
+
+    /**
+     * Obtiene el numero de conexiones fisicas existentes o en creacion.
+     *
+     * @return conexiones totales
+     */
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Obtiene el numero de conexiones fisicas ya establecidas.
+     * A diferencia de getTotalCount no incluye los espacios reservados para
+     * conexiones que aun se estan abriendo.
+     *
+     * @return conexiones abiertas
+     */
+    public int getOpenCount() {
+        return entries.size();
+    }
+
+    /**
+     * Obtiene el numero de conexiones libres en el pool.
+     *
+     * @return conexiones disponibles
+     */
+    public int getIdleCount() {
+        int idle = 0;
+        for (PoolEntry entry : entries) {
+            if (entry.getState() == PoolEntry.STATE_IDLE) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * Obtiene el numero de hilos esperando una conexion.
+     *
+     * @return hilos en espera
+     */
+    public int getWaitingCount() {
+        return waiters.get();
+    }
+
+    /**
+     * Obtiene el numero maximo de conexiones.
+     *
+     * @return capacidad maxima
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Obtiene los aciertos acumulados de los caches de sentencias.
+     *
+     * @return aciertos
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    /**
+     * Obtiene los fallos acumulados de los caches de sentencias.
+     *
+     * @return fallos
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * Obtiene un resumen del estado actual del pool de conexiones.
+     *
+     * @return String con informacion del estado del pool
+     */
+    public String getPoolStatus() {
+        return String.format(
+            "Conexiones activas: %d, Disponibles: %d, Total: %d, Capacidad maxima: %d",
+            getActiveCount(),
+            getIdleCount(),
+            getTotalCount(),
+            maxConnections
+        );
+    }
+}
@@ -9,15 +9,19 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import javax.swing.JOptionPane;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utilidad para manejo de conexiones a la base de datos MySQL.
  * Implementa patron Singleton para garantizar conexion unica.
  * Proporciona metodos seguros para establecer y cerrar conexiones.
+ * Las conexiones entregadas son PooledConnection: al cerrarlas vuelven al pool,
+ * por lo que pueden usarse con try-with-resources.
+ * La gestion de las conexiones fisicas se delega en ConnectionPool.
  *
  * @author Sistema Cine Magenta
  * @version 1.0
@@ -27,14 +31,11 @@ public class DatabaseConnection {
     /** Instancia unica de la clase (patron Singleton) */
     private static DatabaseConnection instance;
     
-    /** Pool de conexiones a la base de datos */
-    private BlockingQueue<Connection> connectionPool;
+    /** Motor del pool de conexiones fisicas */
+    private final ConnectionPool connectionPool;
     
-    /** Conexiones activas en uso */
-    private AtomicInteger activeConnections;
-    
-    /** Conexiones totales creadas */
-    private AtomicInteger totalConnections;
+    /** Prestamos actualmente en uso, revisados por la deteccion de fugas */
+    private final Set<PooledConnection> activeLeases = ConcurrentHashMap.newKeySet();
     
     /** Indica si el driver JDBC fue cargado exitosamente */
     private static boolean driverLoaded = false;
@@ -42,6 +43,24 @@ public class DatabaseConnection {
     /** Tiempo maximo de espera para obtener una conexion (ms) */
     private static final long CONNECTION_TIMEOUT_MS = DatabaseConfig.CONNECTION_TIMEOUT;
     
+    /** Intervalo entre revisiones de fugas de conexiones (ms) */
+    private static final long LEAK_CHECK_INTERVAL_MS = 5000;
+    
+    /** Tiempo de prestamo a partir del cual se reporta una fuga (ms, 0 desactiva) */
+    private volatile long leakDetectionThreshold = DatabaseConfig.LEAK_DETECTION_THRESHOLD;
+    
+    /** Numero minimo de conexiones libres mantenidas por el mantenimiento */
+    private volatile int minimumIdle = DatabaseConfig.MIN_IDLE_CONNECTIONS;
+    
+    /** Tiempo sin uso tras el cual se cierra una conexion libre sobrante (ms) */
+    private volatile long idleTimeout = DatabaseConfig.IDLE_TIMEOUT;
+    
+    /** Vida maxima de una conexion fisica (ms) */
+    private volatile long maxLifetime = DatabaseConfig.MAX_LIFETIME;
+    
+    /** Hilo de mantenimiento del pool (fugas, precarga, expulsion y rotacion) */
+    private final ScheduledExecutorService housekeeper;
+    
     /**
     * Constructor privado para implementar patron Singleton.
     * Carga automaticamente el driver JDBC al crear la instancia.
@@ -51,9 +70,26 @@ public class DatabaseConnection {
     loadJdbcDriver();
     
     // Inicializar el pool de conexiones
-    connectionPool = new ArrayBlockingQueue<>(DatabaseConfig.MAX_CONNECTIONS);
-    activeConnections = new AtomicInteger(0);
-    totalConnections = new AtomicInteger(0);
+    connectionPool = new ConnectionPool(
+    this::createNewConnection,
+    DatabaseConfig.MAX_CONNECTIONS,
+    CONNECTION_TIMEOUT_MS,
+    DatabaseConfig.VALIDATION_INTERVAL,
+    DatabaseConfig.STATEMENT_CACHE_SIZE
+    );
+    
+    // Hilo demonio para no impedir el cierre de la aplicacion
+    housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "cine-pool-housekeeper");
+    thread.setDaemon(true);
+    return thread;
+    });
+    housekeeper.scheduleAtFixedRate(this::detectLeaks, 
+    LEAK_CHECK_INTERVAL_MS, LEAK_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    
+    // Precarga inmediata y mantenimiento periodico en segundo plano
+    housekeeper.scheduleWithFixedDelay(this::runMaintenance, 
+    0, DatabaseConfig.MAINTENANCE_INTERVAL, TimeUnit.MILLISECONDS);
     
     System.out.println("Pool de conexiones inicializado. Capacidad maxima: " + 
     DatabaseConfig.MAX_CONNECTIONS);
@@ -98,53 +134,17 @@ public class DatabaseConnection {
     * Obtiene una conexion del pool de conexiones.
     * Si el pool esta vacio y no se ha alcanzado el limite, crea una nueva conexion.
     * Si el pool esta vacio y se alcanzo el limite, espera hasta que haya una disponible.
+    * La conexion devuelta vuelve al pool al llamar a close().
     * 
     * @return Connection objeto de conexion activa
     * @throws SQLException si ocurre error en la conexion
     */
     public Connection getConnection() throws SQLException {
-    Connection conn = null;
-    
-    try {
-    // Intentar obtener una conexion del pool
-    conn = connectionPool.poll();
-    
-    if (conn == null || conn.isClosed()) {
-    // No hay conexiones disponibles en el pool
-    
-    if (totalConnections.get() < DatabaseConfig.MAX_CONNECTIONS) {
-    // Podemos crear una nueva conexion
-    conn = createNewConnection();
-    totalConnections.incrementAndGet();
-    System.out.println("Nueva conexion creada. Total: " + totalConnections.get() + 
-    " / " + DatabaseConfig.MAX_CONNECTIONS);
-    } else {
-    // Esperar a que se libere una conexion
-    System.out.println("Pool de conexiones lleno. Esperando conexion disponible...");
     try {
-    conn = connectionPool.poll(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-    
-    if (conn == null) {
-    throw new SQLException("Timeout al esperar conexion disponible");
-    }
-    
-    // Verificar si la conexion obtenida es valida
-    if (conn.isClosed() || !conn.isValid(2)) {
-    conn.close();
-    conn = createNewConnection();
-    System.out.println("Conexion invalida reemplazada");
-    }
-    } catch (InterruptedException e) {
-    Thread.currentThread().interrupt();
-    throw new SQLException("Interrupcion al esperar conexion", e);
-    }
-    }
-    }
-    
-    // Incrementar contador de conexiones activas
-    activeConnections.incrementAndGet();
-    
-    return conn;
+    PoolEntry entry = connectionPool.borrow();
+    PooledConnection lease = new PooledConnection(entry, this, leakDetectionThreshold > 0);
+    activeLeases.add(lease);
+    return lease;
     
     } catch (SQLException e) {
     handleConnectionError(e);
@@ -210,7 +210,7 @@ public class DatabaseConnection {
     
     /**
     * Devuelve una conexion al pool para su reutilizacion.
-    * Si la conexion no es valida, la cierra y reduce el contador total.
+    * Equivale a cerrar la conexion obtenida con getConnection().
     * 
     * @param conn conexion a devolver al pool
     */
@@ -219,65 +219,139 @@ public class DatabaseConnection {
     return;
     }
     
-    try {
-    // Verificar si la conexion es valida
-    if (conn.isClosed() || !conn.isValid(2)) {
-    // Cerrar la conexion invalida
+    if (conn instanceof PooledConnection) {
+    ((PooledConnection) conn).close();
+    return;
+    }
+
+    // Conexion que no pertenece al pool: se cierra directamente
     try {
     conn.close();
     } catch (SQLException e) {
-    System.err.println("Error al cerrar conexion invalida: " + e.getMessage());
+    System.err.println("Error al cerrar conexion ajena al pool: " + e.getMessage());
+    }
+    }
+
+    /**
+    * Recibe una conexion devuelta por PooledConnection.close().
+    * La validez de la conexion fisica la decide ConnectionPool.
+    *
+    * @param lease prestamo que se devuelve
+    */
+    void returnConnection(PooledConnection lease) {
+    activeLeases.remove(lease);
+    connectionPool.release(lease.getEntry());
     }
+
+    /**
+    * Revisa los prestamos activos y reporta los que superan el umbral de fuga.
+    * Imprime la traza del punto donde se obtuvo la conexion para ubicar el codigo
+    * que no la devolvio. Cada prestamo se reporta una sola vez.
+    */
+    private void detectLeaks() {
+    long threshold = leakDetectionThreshold;
+    if (threshold <= 0) {
+    return;
+    }
+
+    long now = System.currentTimeMillis();
+    for (PooledConnection lease : activeLeases) {
+    long heldMs = now - lease.getLeasedAt();
+    if (heldMs > threshold && lease.markLeakReported()) {
+    System.err.println("ADVERTENCIA: posible fuga de conexion, prestada hace " + heldMs +
+    " ms (umbral " + threshold + " ms). " + getPoolStatus());
+    if (lease.getLeaseTrace() != null) {
+    lease.getLeaseTrace().printStackTrace();
+    }
+    }
+    }
+    }
+
+    /**
+    * Ejecuta una vuelta de mantenimiento del pool.
+    * Retira conexiones que superaron su vida maxima, cierra las inactivas
+    * sobrantes y vuelve a abrir conexiones hasta el minimo de libres.
+    * Se ejecuta en el hilo de mantenimiento, por lo que los errores solo se registran.
+    */
+    private void runMaintenance() {
+    try {
+    int retired = connectionPool.retireExpired(maxLifetime);
+    int evicted = connectionPool.evictIdle(idleTimeout, minimumIdle);
+    int added = connectionPool.fillToMinimumIdle(minimumIdle);
     
-    // Reducir contador de conexiones totales
-    totalConnections.decrementAndGet();
-    System.out.println("Conexion invalida cerrada. Total: " + totalConnections.get());
-    } else {
-    // Devolver la conexion al pool
-    boolean added = connectionPool.offer(conn);
-    if (!added) {
-    // Si el pool esta lleno, cerrar la conexion
-    conn.close();
-    totalConnections.decrementAndGet();
-    System.out.println("Pool lleno, conexion cerrada. Total: " + totalConnections.get());
+    if (retired > 0 || evicted > 0 || added > 0) {
+    System.out.println(String.format(
+    "Mantenimiento del pool: retiradas %d, inactivas cerradas %d, precargadas %d. %s",
+    retired, evicted, added, getPoolStatus()));
+    }
+    } catch (SQLException e) {
+    System.err.println("Mantenimiento del pool: no se pudo precargar conexiones: " + e.getMessage());
+    } catch (RuntimeException e) {
+    // Evitar que una excepcion cancele las siguientes ejecuciones
+    System.err.println("Error en mantenimiento del pool: " + e.getMessage());
     }
     }
     
-    // Reducir contador de conexiones activas
-    activeConnections.decrementAndGet();
+    /**
+    * Establece el numero minimo de conexiones libres que se mantienen abiertas.
+    * 
+    * @param minimumIdle conexiones libres minimas (0 desactiva la precarga)
+    */
+    public void setMinimumIdle(int minimumIdle) {
+    this.minimumIdle = Math.max(0, Math.min(minimumIdle, DatabaseConfig.MAX_CONNECTIONS));
+    }
     
-    } catch (SQLException e) {
-    System.err.println("Error al liberar conexion: " + e.getMessage());
-    e.printStackTrace();
+    /**
+    * Establece el tiempo sin uso tras el cual se cierra una conexion libre sobrante.
+    * 
+    * @param idleTimeoutMs tiempo en milisegundos (0 desactiva la expulsion)
+    */
+    public void setIdleTimeout(long idleTimeoutMs) {
+    this.idleTimeout = idleTimeoutMs;
     }
+    
+    /**
+    * Establece la vida maxima de una conexion fisica.
+    * 
+    * @param maxLifetimeMs tiempo en milisegundos (0 desactiva la rotacion)
+    */
+    public void setMaxLifetime(long maxLifetimeMs) {
+    this.maxLifetime = maxLifetimeMs;
     }
     
+    /**
+    * Establece el tiempo de prestamo a partir del cual se reporta una fuga.
+    * Un valor de 0 o negativo desactiva la deteccion y la captura de trazas.
+    *
+    * @param thresholdMs umbral en milisegundos
+    */
+    public void setLeakDetectionThreshold(long thresholdMs) {
+    this.leakDetectionThreshold = thresholdMs;
+    }
+
+    /**
+    * Obtiene el umbral actual de deteccion de fugas.
+    *
+    * @return umbral en milisegundos (0 o negativo si esta desactivado)
+    */
+    public long getLeakDetectionThreshold() {
+    return leakDetectionThreshold;
+    }
+
     /**
     * Cierra todas las conexiones del pool.
     * Utilizado al finalizar la aplicacion.
+    * Las conexiones prestadas en ese momento se cierran al ser devueltas.
     */
     public void closeAllConnections() {
     System.out.println("Cerrando todas las conexiones...");
     
-    // Cerrar todas las conexiones en el pool
-    Connection conn;
-    while ((conn = connectionPool.poll()) != null) {
-    try {
-    if (!conn.isClosed()) {
-    conn.close();
-    }
-    } catch (SQLException e) {
-    System.err.println("Error al cerrar conexion: " + e.getMessage());
-    }
-    }
-    
-    // Reiniciar contadores
-    totalConnections.set(0);
-    activeConnections.set(0);
+    connectionPool.closeAll();
+    activeLeases.clear();
     
     System.out.println("Todas las conexiones cerradas correctamente");
     }
-    
+
     /**
     * Cierra la conexion actual.
     * Alias para mantener compatibilidad con codigo existente.
@@ -294,7 +368,7 @@ public class DatabaseConnection {
     * @return true si hay al menos una conexion activa o disponible
     */
     public boolean isConnected() {
-    return totalConnections.get() > 0;
+    return connectionPool.getOpenCount() > 0;
     }
     
     /**
@@ -303,7 +377,7 @@ public class DatabaseConnection {
     * @return numero de conexiones activas
     */
     public int getActiveConnectionCount() {
-    return activeConnections.get();
+    return connectionPool.getActiveCount();
     }
     
     /**
@@ -312,7 +386,7 @@ public class DatabaseConnection {
     * @return numero total de conexiones
     */
     public int getTotalConnectionCount() {
-    return totalConnections.get();
+    return connectionPool.getTotalCount();
     }
     
     /**
@@ -321,7 +395,41 @@ public class DatabaseConnection {
     * @return numero de conexiones disponibles
     */
     public int getAvailableConnectionCount() {
-    return connectionPool.size();
+    return connectionPool.getIdleCount();
+    }
+    
+    /**
+    * Obtiene el numero de sentencias preparadas reutilizadas desde el cache.
+    * 
+    * @return aciertos acumulados del cache de sentencias
+    */
+    public long getStatementCacheHits() {
+    return connectionPool.getStatementCacheHits();
+    }
+    
+    /**
+    * Obtiene el numero de sentencias que tuvieron que prepararse en el servidor.
+    * 
+    * @return fallos acumulados del cache de sentencias
+    */
+    public long getStatementCacheMisses() {
+    return connectionPool.getStatementCacheMisses();
+    }
+    
+    /**
+    * Obtiene un resumen del uso del cache de sentencias preparadas.
+    * 
+    * @return String con aciertos, fallos y tasa de aciertos
+    */
+    public String getStatementCacheStats() {
+    long hits = getStatementCacheHits();
+    long misses = getStatementCacheMisses();
+    long total = hits + misses;
+    double hitRate = total == 0 ? 0.0 : (hits * 100.0) / total;
+    return String.format(
+    "Cache de sentencias: Aciertos: %d, Fallos: %d, Tasa de aciertos: %.1f%%, Capacidad por conexion: %d",
+    hits, misses, hitRate, DatabaseConfig.STATEMENT_CACHE_SIZE
+    );
     }
     
     /**
@@ -360,13 +468,7 @@ public class DatabaseConnection {
     * @return String con informacion del estado del pool
     */
     public String getPoolStatus() {
-    return String.format(
-    "Conexiones activas: %d, Disponibles: %d, Total: %d, Capacidad maxima: %d",
-    getActiveConnectionCount(),
-    getAvailableConnectionCount(),
-    getTotalConnectionCount(),
-    DatabaseConfig.MAX_CONNECTIONS
-    );
+    return connectionPool.getPoolStatus();
     }
     
     /**
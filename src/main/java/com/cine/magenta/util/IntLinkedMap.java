@@ -0,0 +1,243 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mapa de claves int que conserva el orden de insercion, sin convertir las claves a Integer.
+ * Las entradas se guardan en arreglos paralelos en orden de insercion y una tabla hash
+ * de direccionamiento abierto guarda la posicion de cada clave. Reemplazar el valor de
+ * una clave existente no cambia su posicion. No admite eliminar entradas.
+ * No es seguro para hilos: el llamador debe sincronizar el acceso.
+ *
+ * @param <V> tipo de los valores
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class IntLinkedMap<V> {
+
+    /** Capacidad inicial por defecto */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Marca de posicion libre en la tabla hash */
+    private static final int EMPTY = -1;
+
+    /** Claves en orden de insercion */
+    private int[] keys;
+
+    /** Valores en orden de insercion */
+    private Object[] values;
+
+    /** Numero de entradas */
+    private int size;
+
+    /** Tabla hash con la posicion de cada clave en los arreglos de entradas */
+    private int[] slots;
+
+    /** Mascara para reducir el hash al tamaño de la tabla */
+    private int mask;
+
+    /**
+     * Crea un mapa vacio con la capacidad por defecto.
+     */
+    public IntLinkedMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Crea un mapa vacio dimensionado para el numero de entradas indicado.
+     *
+     * @param expectedSize entradas esperadas
+     */
+    public IntLinkedMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("El tamaño esperado no puede ser negativo");
+        }
+        int capacity = Math.max(expectedSize, 1);
+        keys = new int[capacity];
+        values = new Object[capacity];
+        resize(tableSizeFor(capacity));
+    }
+
+    /**
+     * Asocia un valor a una clave.
+     *
+     * @param key clave
+     * @param value valor
+     * @return valor anterior de la clave o null si no existia
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int slot = findSlot(key);
+        int index = slots[slot];
+        if (index != EMPTY) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        slots[slot] = size;
+        size++;
+
+        // Factor de carga maximo de 1/2 para mantener cortas las secuencias de sondeo
+        if (size * 2 > slots.length) {
+            resize(slots.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene el valor de una clave.
+     *
+     * @param key clave
+     * @return valor o null si la clave no existe
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = slots[findSlot(key)];
+        return index != EMPTY ? (V) values[index] : null;
+    }
+
+    /**
+     * Indica si la clave existe.
+     *
+     * @param key clave
+     * @return true si el mapa contiene la clave
+     */
+    public boolean containsKey(int key) {
+        return slots[findSlot(key)] != EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Obtiene la clave de una posicion en orden de insercion.
+     *
+     * @param index posicion entre 0 y size() - 1
+     * @return clave de la posicion
+     */
+    public int keyAt(int index) {
+        checkIndex(index);
+        return keys[index];
+    }
+
+    /**
+     * Obtiene el valor de una posicion en orden de insercion.
+     *
+     * @param index posicion entre 0 y size() - 1
+     * @return valor de la posicion
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        checkIndex(index);
+        return (V) values[index];
+    }
+
+    /**
+     * Obtiene las claves en orden de insercion.
+     *
+     * @return copia de las claves
+     */
+    public int[] keys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Obtiene los valores en orden de insercion.
+     *
+     * @return lista nueva con los valores
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add((V) values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(keys[i]).append('=').append(values[i]);
+        }
+        return text.append('}').toString();
+    }
+
+    /**
+     * Busca la posicion de la tabla de una clave con sondeo lineal.
+     *
+     * @param key clave
+     * @return posicion que contiene la clave o la primera libre
+     */
+    private int findSlot(int key) {
+        int slot = hash(key) & mask;
+        while (slots[slot] != EMPTY && keys[slots[slot]] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Reconstruye la tabla hash con el tamaño indicado.
+     *
+     * @param tableSize nuevo tamaño, potencia de dos
+     */
+    private void resize(int tableSize) {
+        slots = new int[tableSize];
+        Arrays.fill(slots, EMPTY);
+        mask = tableSize - 1;
+        for (int i = 0; i < size; i++) {
+            slots[findSlot(keys[i])] = i;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Posicion " + index + " fuera de rango (tamaño " + size + ")");
+        }
+    }
+
+    /**
+     * Mezcla los bits de la clave para repartir IDs consecutivos en la tabla.
+     *
+     * @param key clave
+     * @return hash de la clave
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Calcula el tamaño de tabla para una capacidad con factor de carga de 1/2.
+     *
+     * @param capacity entradas esperadas
+     * @return potencia de dos mayor o igual al doble de la capacidad
+     */
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity * 2 - 1, 1)) << 1;
+        return Math.max(size, 4);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entrada del pool que envuelve una conexion fisica a la base de datos.
+ * Vive mientras la conexion fisica este abierta y se reutiliza entre prestamos,
+ * junto con su cache de sentencias preparadas.
+ * El estado se cambia con operaciones CAS para que ConnectionPool pueda
+ * prestar la entrada sin bloqueos.
+ * Solo las clases del pool trabajan con esta clase.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+class PoolEntry {
+
+    /** Estado: disponible en el pool */
+    static final int STATE_IDLE = 0;
+
+    /** Estado: prestada a un hilo */
+    static final int STATE_IN_USE = 1;
+
+    /** Estado: retirada del pool, no debe prestarse */
+    static final int STATE_REMOVED = -1;
+
+    /** Conexion fisica a la base de datos */
+    private final Connection connection;
+
+    /** Cache de sentencias preparadas de esta conexion */
+    private final StatementCache statementCache;
+
+    /** Momento de creacion de la conexion fisica (ms) */
+    private final long createdAt;
+
+    /** Ultimo momento en que la conexion fue prestada o devuelta (ms) */
+    private volatile long lastAccessed;
+
+    /** Estado actual de la entrada */
+    private final AtomicInteger state = new AtomicInteger(STATE_IN_USE);
+
+    /** Indica que la conexion supero su vida maxima y debe cerrarse al devolverse */
+    private volatile boolean retirementPending = false;
+
+    /** Indica que el prestamo actual cambio el modo de solo lectura */
+    private boolean readOnlyChanged = false;
+
+    /** Aislamiento previo al primer cambio del prestamo actual, o -1 si no cambio */
+    private int originalIsolation = -1;
+
+    /**
+     * Crea una entrada para la conexion fisica indicada.
+     * La entrada nace prestada al hilo que la creo.
+     *
+     * @param connection conexion fisica recien creada
+     * @param statementCache cache de sentencias para la conexion
+     */
+    PoolEntry(Connection connection, StatementCache statementCache) {
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessed = createdAt;
+    }
+
+    /**
+     * Obtiene la conexion fisica asociada.
+     *
+     * @return conexion fisica
+     */
+    Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Obtiene el cache de sentencias preparadas de la conexion.
+     *
+     * @return cache de sentencias
+     */
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Obtiene el momento de creacion de la conexion.
+     *
+     * @return marca de tiempo en milisegundos
+     */
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Obtiene el ultimo momento de uso de la conexion.
+     *
+     * @return marca de tiempo en milisegundos
+     */
+    long getLastAccessed() {
+        return lastAccessed;
+    }
+
+    /**
+     * Obtiene el estado actual de la entrada.
+     *
+     * @return STATE_IDLE, STATE_IN_USE o STATE_REMOVED
+     */
+    int getState() {
+        return state.get();
+    }
+
+    /**
+     * Cambia el estado si coincide con el esperado.
+     *
+     * @param expected estado esperado
+     * @param newState nuevo estado
+     * @return true si el cambio se realizo
+     */
+    boolean compareAndSetState(int expected, int newState) {
+        return state.compareAndSet(expected, newState);
+    }
+
+    /**
+     * Establece el estado incondicionalmente.
+     *
+     * @param newState nuevo estado
+     * @return estado anterior
+     */
+    int getAndSetState(int newState) {
+        return state.getAndSet(newState);
+    }
+
+    /**
+     * Marca la conexion para cerrarse en cuanto deje de estar prestada.
+     */
+    void markForRetirement() {
+        retirementPending = true;
+    }
+
+    /**
+     * Indica si la conexion esta marcada para retirarse.
+     *
+     * @return true si debe cerrarse al devolverse
+     */
+    boolean isRetirementPending() {
+        return retirementPending;
+    }
+
+    /**
+     * Registra que el prestamo actual cambio el modo de solo lectura.
+     */
+    void recordReadOnlyChange() {
+        readOnlyChanged = true;
+    }
+
+    /**
+     * Registra el aislamiento vigente antes de que el prestamo actual lo cambie.
+     * Solo se conserva el del primer cambio, que es el que debe restaurarse.
+     *
+     * @param isolation nivel de aislamiento previo
+     */
+    void recordIsolationChange(int isolation) {
+        if (originalIsolation < 0) {
+            originalIsolation = isolation;
+        }
+    }
+
+    /**
+     * Obtiene si hay un aislamiento registrado para restaurar.
+     *
+     * @return true si el prestamo actual cambio el aislamiento
+     */
+    boolean isIsolationChanged() {
+        return originalIsolation >= 0;
+    }
+
+    /**
+     * Deja la conexion como recien abierta para el siguiente prestamo: deshace la
+     * transaccion abierta y restaura autoCommit, solo lectura y aislamiento.
+     * Solo consulta al servidor lo que el prestamo pudo haber cambiado.
+     *
+     * @throws SQLException si no se puede restablecer la conexion
+     */
+    void resetSession() throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        if (readOnlyChanged) {
+            connection.setReadOnly(false);
+            readOnlyChanged = false;
+        }
+        if (originalIsolation >= 0) {
+            connection.setTransactionIsolation(originalIsolation);
+            originalIsolation = -1;
+        }
+    }
+
+    /**
+     * Registra el momento actual como ultimo uso de la conexion.
+     */
+    void touch() {
+        lastAccessed = System.currentTimeMillis();
+    }
+
+    /**
+     * Cierra la conexion fisica ignorando errores.
+     * Utilizado al descartar conexiones invalidas o al cerrar el pool.
+     */
+    void closeQuietly() {
+        statementCache.clear();
+        try {
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar conexion fisica: " + e.getMessage());
+        }
+    }
+}
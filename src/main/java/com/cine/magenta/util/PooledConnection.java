@@ -0,0 +1,473 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * Conexion prestada por el pool de DatabaseConnection.
+ * Delega todas las operaciones en la conexion fisica y, al cerrarse,
+ * la devuelve al pool en lugar de cerrarla. Permite usar try-with-resources
+ * en el codigo de acceso a datos.
+ * Las sentencias preparadas simples se toman del StatementCache de la conexion
+ * fisica, evitando volver a prepararlas en el servidor tras el primer uso.
+ * Cada prestamo crea una instancia nueva, por lo que una referencia antigua
+ * no puede operar sobre una conexion que ya fue prestada a otro hilo.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class PooledConnection implements Connection {
+
+    /** Entrada del pool con la conexion fisica */
+    private final PoolEntry entry;
+
+    /** Pool al que se devuelve la conexion */
+    private final DatabaseConnection owner;
+
+    /** Momento en que se presto la conexion (ms) */
+    private final long leasedAt;
+
+    /** Traza del punto donde se pidio la conexion (null si la deteccion de fugas esta desactivada) */
+    private final Throwable leaseTrace;
+
+    /** Sentencias del cache abiertas durante este prestamo */
+    private final List<CachedStatement> openStatements = new ArrayList<>();
+
+    /** Indica si el prestamo ya fue devuelto al pool */
+    private volatile boolean closed = false;
+
+    /** Indica si ya se reporto este prestamo como posible fuga */
+    private volatile boolean leakReported = false;
+
+    /**
+     * Crea un prestamo sobre la entrada indicada.
+     *
+     * @param entry entrada del pool con la conexion fisica
+     * @param owner pool al que se devolvera la conexion
+     * @param captureTrace true para registrar la traza del llamador
+     */
+    PooledConnection(PoolEntry entry, DatabaseConnection owner, boolean captureTrace) {
+        this.entry = entry;
+        this.owner = owner;
+        this.leasedAt = System.currentTimeMillis();
+        this.leaseTrace = captureTrace
+            ? new Throwable("Conexion obtenida en hilo " + Thread.currentThread().getName())
+            : null;
+    }
+
+    /**
+     * Obtiene la entrada del pool asociada a este prestamo.
+     *
+     * @return entrada del pool
+     */
+    PoolEntry getEntry() {
+        return entry;
+    }
+
+    /**
+     * Obtiene el momento en que se presto la conexion.
+     *
+     * @return marca de tiempo en milisegundos
+     */
+    long getLeasedAt() {
+        return leasedAt;
+    }
+
+    /**
+     * Obtiene la traza del punto donde se pidio la conexion.
+     *
+     * @return traza capturada o null si no se registro
+     */
+    Throwable getLeaseTrace() {
+        return leaseTrace;
+    }
+
+    /**
+     * Marca el prestamo como reportado por fuga.
+     *
+     * @return true si es la primera vez que se reporta
+     */
+    boolean markLeakReported() {
+        if (leakReported) {
+            return false;
+        }
+        leakReported = true;
+        return true;
+    }
+
+    /**
+     * Obtiene la conexion fisica verificando que el prestamo siga activo.
+     *
+     * @return conexion fisica
+     * @throws SQLException si la conexion ya fue devuelta al pool
+     */
+    private Connection delegate() throws SQLException {
+        if (closed) {
+            throw new SQLException("La conexion ya fue devuelta al pool");
+        }
+        return entry.getConnection();
+    }
+
+    /**
+     * Prepara una sentencia reutilizando la del cache si esta disponible.
+     *
+     * @param sql consulta SQL
+     * @param autoGeneratedKeys indicador de claves generadas o -1 si no aplica
+     * @return sentencia envuelta que vuelve al cache al cerrarse
+     * @throws SQLException si ocurre error al preparar la sentencia
+     */
+    private PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException {
+        Connection conn = delegate();
+        String key = autoGeneratedKeys < 0 ? sql : autoGeneratedKeys + ":" + sql;
+        StatementCache cache = entry.getStatementCache();
+
+        PreparedStatement stmt = cache.take(key);
+        if (stmt == null || stmt.isClosed()) {
+            stmt = autoGeneratedKeys < 0
+                ? conn.prepareStatement(sql)
+                : conn.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        CachedStatement cached = CachedStatement.wrap(stmt, key, cache, this);
+        openStatements.add(cached);
+        return cached.getProxy();
+    }
+
+    /**
+     * Registra que una sentencia del cache fue cerrada por el llamador.
+     *
+     * @param statement sentencia cerrada
+     */
+    void statementClosed(CachedStatement statement) {
+        openStatements.remove(statement);
+    }
+
+    /**
+     * Devuelve la conexion al pool. Llamadas repetidas no tienen efecto.
+     * Las sentencias del cache que sigan abiertas vuelven antes al cache; el pool
+     * deshace la transaccion abierta y restaura el estado de la sesion.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        for (CachedStatement statement : new ArrayList<>(openStatements)) {
+            statement.returnToCache();
+        }
+        closed = true;
+        owner.returnConnection(this);
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || entry.getConnection().isClosed();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return !closed && entry.getConnection().isValid(timeout);
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return delegate().createStatement();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return prepareCached(sql, -1);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return delegate().prepareCall(sql);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        return delegate().nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        delegate().setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        return delegate().getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        delegate().commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        delegate().rollback();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        return delegate().getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        delegate().setReadOnly(readOnly);
+        entry.recordReadOnlyChange();
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return delegate().isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        delegate().setCatalog(catalog);
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return delegate().getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        Connection conn = delegate();
+        if (!entry.isIsolationChanged()) {
+            entry.recordIsolationChange(conn.getTransactionIsolation());
+        }
+        conn.setTransactionIsolation(level);
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        return delegate().getTransactionIsolation();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate().getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate().clearWarnings();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return delegate().createStatement(resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        return delegate().prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        return delegate().prepareCall(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        return delegate().getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        delegate().setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        delegate().setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return delegate().getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        return delegate().setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        return delegate().setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        delegate().rollback(savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        delegate().releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+            throws SQLException {
+        return delegate().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+            int resultSetHoldability) throws SQLException {
+        return delegate().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
+            int resultSetHoldability) throws SQLException {
+        return delegate().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return prepareCached(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return delegate().prepareStatement(sql, columnIndexes);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return delegate().prepareStatement(sql, columnNames);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        return delegate().createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        return delegate().createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        return delegate().createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        return delegate().createSQLXML();
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        try {
+            delegate().setClientInfo(name, value);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        try {
+            delegate().setClientInfo(properties);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        return delegate().getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return delegate().getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        return delegate().createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        return delegate().createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        delegate().setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return delegate().getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        delegate().abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        delegate().setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        return delegate().getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate().isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Agrupa llamadas identicas y simultaneas en una sola ejecucion.
+ * La primera llamada con una clave ejecuta la operacion; las que llegan mientras
+ * sigue en curso esperan su resultado en lugar de repetirla, y reciben una copia
+ * para no compartir objetos modificables. Las copias se hacen desde una copia
+ * privada del resultado, no desde el objeto devuelto a la primera llamada, que
+ * su llamador puede modificar mientras tanto; esa copia solo se crea si alguna
+ * llamada se unio, que no es el caso habitual. Si la operacion falla, todas reciben
+ * la misma excepcion. Al terminar la clave se libera: no es un cache y una
+ * llamada posterior vuelve a ejecutar la operacion.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class RequestCoalescer {
+
+    /** Operaciones en curso por clave */
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /** Operaciones ejecutadas */
+    private final AtomicLong executed = new AtomicLong();
+
+    /** Llamadas resueltas con el resultado de otra en curso */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Ejecuta la operacion o se une a una identica que ya esta en curso.
+     *
+     * @param key clave que identifica la operacion y sus argumentos
+     * @param call operacion a ejecutar
+     * @param shareCopy crea la copia entregada a las llamadas que se unen (no recibe null)
+     * @return resultado de la operacion
+     * @throws Exception la excepcion lanzada por la operacion
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> call, UnaryOperator<T> shareCopy) throws Exception {
+        Flight flight = new Flight();
+        Flight existing;
+        while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+            if (existing.join()) {
+                coalesced.incrementAndGet();
+                T shared = (T) await(existing.result);
+                return shared != null ? shareCopy.apply(shared) : null;
+            }
+            // La operacion ya termino sin esperar a nadie; se libera su clave y se reintenta
+            inFlight.remove(key, existing);
+        }
+
+        executed.incrementAndGet();
+        try {
+            T result = call.call();
+            // Tras cerrar ya no se une nadie: sin llamadas unidas no hace falta la copia
+            flight.result.complete(flight.close() && result != null ? shareCopy.apply(result) : null);
+            return result;
+        } catch (Exception | Error e) {
+            flight.close();
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Libera todas las claves en curso para que las llamadas siguientes ejecuten
+     * de nuevo la operacion. Se usa tras una escritura, cuyo efecto podria no
+     * verse en un resultado que empezo a calcularse antes.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Obtiene el numero de operaciones ejecutadas.
+     *
+     * @return ejecuciones
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * Obtiene el numero de llamadas que reutilizaron una operacion en curso.
+     *
+     * @return llamadas agrupadas
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Obtiene la proporcion de llamadas que no necesitaron ejecutar la operacion.
+     *
+     * @return valor entre 0 y 1 (0 si aun no hubo llamadas)
+     */
+    public double getCoalescedRate() {
+        long total = executed.get() + coalesced.get();
+        return total == 0 ? 0.0 : (double) coalesced.get() / total;
+    }
+
+    /**
+     * Obtiene un resumen de las llamadas agrupadas.
+     *
+     * @return texto con ejecuciones, llamadas agrupadas y tasa
+     */
+    public String getStats() {
+        return String.format("Consultas agrupadas: ejecutadas %d, agrupadas %d, tasa %.1f%%, en curso %d",
+            executed.get(), coalesced.get(), getCoalescedRate() * 100, inFlight.size());
+    }
+
+    /**
+     * Operacion en curso con el numero de llamadas que esperan su resultado.
+     */
+    private static final class Flight {
+
+        /** Valor de joiners cuando la operacion ya no admite llamadas nuevas */
+        private static final int CLOSED = -1;
+
+        /** Resultado compartido con las llamadas unidas */
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        /** Llamadas unidas, o CLOSED */
+        private final AtomicInteger joiners = new AtomicInteger();
+
+        /**
+         * Registra una llamada que esperara el resultado.
+         *
+         * @return false si la operacion ya se cerro
+         */
+        boolean join() {
+            int current;
+            do {
+                current = joiners.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+            } while (!joiners.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * Impide que se unan mas llamadas.
+         *
+         * @return true si alguna llamada se unio antes de cerrar
+         */
+        boolean close() {
+            return joiners.getAndSet(CLOSED) > 0;
+        }
+    }
+
+    /**
+     * Espera el resultado de una operacion en curso y propaga su excepcion original.
+     *
+     * @param flight operacion en curso
+     * @return resultado
+     * @throws Exception la excepcion de la operacion
+     */
+    private static Object await(CompletableFuture<Object> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de sentencias preparadas asociada a una conexion fisica del pool.
+ * Una sentencia se saca del cache mientras esta en uso y vuelve a el al cerrarse,
+ * de modo que dos usos simultaneos del mismo SQL nunca comparten la sentencia.
+ * Al superar la capacidad se cierra la sentencia usada hace mas tiempo.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+class StatementCache {
+
+    /** Sentencias disponibles ordenadas por ultimo uso */
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /** Numero maximo de sentencias en cache */
+    private final int maxSize;
+
+    /** Contador de aciertos del pool completo */
+    private final AtomicLong poolHits;
+
+    /** Contador de fallos del pool completo */
+    private final AtomicLong poolMisses;
+
+    /** Aciertos de esta conexion */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Fallos de esta conexion */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Crea un cache con la capacidad indicada.
+     *
+     * @param maxSize numero maximo de sentencias (0 desactiva el cache)
+     * @param poolHits contador global de aciertos a incrementar
+     * @param poolMisses contador global de fallos a incrementar
+     */
+    StatementCache(int maxSize, AtomicLong poolHits, AtomicLong poolMisses) {
+        this.maxSize = maxSize;
+        this.poolHits = poolHits;
+        this.poolMisses = poolMisses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Retira del cache la sentencia asociada a la clave.
+     *
+     * @param key clave de la sentencia (SQL y opciones)
+     * @return sentencia disponible o null si hay que prepararla
+     */
+    synchronized PreparedStatement take(String key) {
+        PreparedStatement stmt = statements.remove(key);
+        if (stmt != null) {
+            hits.incrementAndGet();
+            poolHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            poolMisses.incrementAndGet();
+        }
+        return stmt;
+    }
+
+    /**
+     * Devuelve una sentencia al cache tras su uso.
+     * Si ya existe otra con la misma clave o el cache esta lleno, cierra la sobrante.
+     *
+     * @param key clave de la sentencia
+     * @param stmt sentencia fisica a conservar
+     */
+    void release(String key, PreparedStatement stmt) {
+        List<PreparedStatement> evicted = new ArrayList<>(1);
+
+        synchronized (this) {
+            if (maxSize <= 0 || statements.containsKey(key)) {
+                evicted.add(stmt);
+            } else {
+                statements.put(key, stmt);
+                Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+                while (statements.size() > maxSize && it.hasNext()) {
+                    evicted.add(it.next().getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        for (PreparedStatement old : evicted) {
+            closeQuietly(old);
+        }
+    }
+
+    /**
+     * Cierra todas las sentencias del cache.
+     * Se invoca antes de cerrar la conexion fisica.
+     */
+    void clear() {
+        List<PreparedStatement> all;
+        synchronized (this) {
+            all = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (PreparedStatement stmt : all) {
+            closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * Obtiene el numero de sentencias guardadas.
+     *
+     * @return sentencias en cache
+     */
+    synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Obtiene los aciertos de esta conexion.
+     *
+     * @return numero de aciertos
+     */
+    long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Obtiene los fallos de esta conexion.
+     *
+     * @return numero de fallos
+     */
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Cierra una sentencia ignorando errores.
+     *
+     * @param stmt sentencia a cerrar
+     */
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar sentencia en cache: " + e.getMessage());
+        }
+    }
+}
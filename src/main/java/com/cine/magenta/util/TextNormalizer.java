@@ -0,0 +1,93 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import com.cine.magenta.config.DatabaseConfig;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Genera claves de busqueda sin tildes ni mayusculas.
+ * El texto se descompone en forma NFD, se eliminan las marcas diacriticas y se
+ * pasa a minusculas, de modo que "Animación", "ANIMACION" y "animacion" comparten
+ * la clave "animacion", igual que en la intercalacion utf8mb4_unicode_ci de la base de datos.
+ * Un texto que ya es una clave se devuelve sin crear otra cadena.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public final class TextNormalizer {
+
+    /** Marcas diacriticas que quedan separadas tras la descomposicion NFD */
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /** Claves de los generos permitidos, en el mismo orden de la configuracion */
+    private static final String[] GENRE_KEYS = new String[DatabaseConfig.AVAILABLE_GENRES.length];
+
+    static {
+        for (int i = 0; i < GENRE_KEYS.length; i++) {
+            GENRE_KEYS[i] = normalize(DatabaseConfig.AVAILABLE_GENRES[i]);
+        }
+    }
+
+    /**
+     * Constructor privado para clase de utilidad.
+     */
+    private TextNormalizer() {
+    }
+
+    /**
+     * Obtiene la clave de busqueda de un texto.
+     *
+     * @param text texto original
+     * @return texto sin diacriticos y en minusculas, o vacio si es null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        if (isNormalized(text)) {
+            return text;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Busca el genero permitido que corresponde al texto, sin distinguir tildes ni mayusculas.
+     *
+     * @param genre genero a buscar
+     * @return genero tal como aparece en la configuracion, o null si no existe
+     */
+    public static String findGenre(String genre) {
+        if (genre == null) {
+            return null;
+        }
+        String key = normalize(genre.trim());
+        for (int i = 0; i < GENRE_KEYS.length; i++) {
+            if (GENRE_KEYS[i].equals(key)) {
+                return DatabaseConfig.AVAILABLE_GENRES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica si el texto ya es una clave: solo ASCII y sin mayusculas.
+     *
+     * @param text texto a revisar
+     * @return true si normalizarlo no lo cambiaria
+     */
+    private static boolean isNormalized(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indice invertido de trigramas para busquedas de subcadenas sin distinguir tildes ni mayusculas.
+ * Cada texto se asocia a un identificador entero y cada trigrama (tres caracteres
+ * consecutivos) guarda la lista ordenada de identificadores que lo contienen.
+ * Una busqueda intersecta las listas de los trigramas de la consulta empezando
+ * por la mas corta, por lo que su costo depende de los candidatos y no del total
+ * de textos; los candidatos se confirman con el texto completo.
+ * Las consultas de menos de tres caracteres no tienen trigramas y recorren todos los textos.
+ * No es seguro para hilos: el llamador debe sincronizar el acceso.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class TrigramIndex {
+
+    /** Largo de los fragmentos indexados */
+    private static final int GRAM_LENGTH = 3;
+
+    /** Resultado vacio compartido */
+    private static final int[] NO_IDS = new int[0];
+
+    /** Textos normalizados por identificador */
+    private final Map<Integer, String> texts = new HashMap<>();
+
+    /** Listas de identificadores por trigrama codificado */
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    /**
+     * Agrega o reemplaza el texto asociado a un identificador.
+     *
+     * @param id identificador del texto
+     * @param text texto o clave de busqueda a indexar (null equivale a vacio)
+     */
+    public void put(int id, String text) {
+        String normalized = normalize(text);
+        String previous = texts.put(id, normalized);
+        if (previous != null) {
+            if (previous.equals(normalized)) {
+                return;
+            }
+            removeGrams(id, previous);
+        }
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            postings.computeIfAbsent(encode(normalized, i), k -> new PostingList()).add(id);
+        }
+    }
+
+    /**
+     * Elimina el texto asociado a un identificador.
+     *
+     * @param id identificador del texto
+     * @return true si el identificador estaba indexado
+     */
+    public boolean remove(int id) {
+        String previous = texts.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        removeGrams(id, previous);
+        return true;
+    }
+
+    /**
+     * Elimina todos los textos del indice.
+     */
+    public void clear() {
+        texts.clear();
+        postings.clear();
+    }
+
+    /**
+     * Obtiene el numero de textos indexados.
+     *
+     * @return textos indexados
+     */
+    public int size() {
+        return texts.size();
+    }
+
+    /**
+     * Busca los identificadores cuyo texto contiene la consulta.
+     *
+     * @param query subcadena a buscar (una consulta vacia coincide con todo)
+     * @return identificadores en orden ascendente
+     */
+    public int[] search(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < GRAM_LENGTH) {
+            return scan(normalized);
+        }
+
+        // Listas de los trigramas de la consulta; si alguno no existe no hay resultados
+        int gramCount = normalized.length() - GRAM_LENGTH + 1;
+        PostingList[] lists = new PostingList[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            PostingList list = postings.get(encode(normalized, i));
+            if (list == null) {
+                return NO_IDS;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        // Intersectar empezando por la lista mas corta
+        int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (lists[i].contains(candidates[j])) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+
+        // Los trigramas pueden aparecer por separado: confirmar la subcadena completa
+        int matches = 0;
+        for (int j = 0; j < count; j++) {
+            if (texts.get(candidates[j]).contains(normalized)) {
+                candidates[matches++] = candidates[j];
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    /**
+     * Normaliza un texto para indexarlo o buscarlo.
+     * Las claves ya normalizadas se usan sin copiarse.
+     *
+     * @param text texto original o clave de busqueda
+     * @return clave sin tildes y en minusculas, o vacio si es null
+     */
+    private static String normalize(String text) {
+        return TextNormalizer.normalize(text);
+    }
+
+    /**
+     * Recorre todos los textos buscando una consulta demasiado corta para usar trigramas.
+     *
+     * @param normalized consulta normalizada
+     * @return identificadores en orden ascendente
+     */
+    private int[] scan(String normalized) {
+        int[] ids = new int[texts.size()];
+        int count = 0;
+        for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+            if (entry.getValue().contains(normalized)) {
+                ids[count++] = entry.getKey();
+            }
+        }
+        int[] result = Arrays.copyOf(ids, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Quita un identificador de las listas de los trigramas de su texto anterior.
+     *
+     * @param id identificador
+     * @param previous texto normalizado anterior
+     */
+    private void removeGrams(int id, String previous) {
+        for (int i = 0; i + GRAM_LENGTH <= previous.length(); i++) {
+            Long key = encode(previous, i);
+            PostingList list = postings.get(key);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Codifica los tres caracteres que empiezan en una posicion como un unico numero.
+     *
+     * @param text texto normalizado
+     * @param start posicion inicial
+     * @return trigrama codificado
+     */
+    private static long encode(String text, int start) {
+        return ((long) text.charAt(start) << 32)
+            | ((long) text.charAt(start + 1) << 16)
+            | text.charAt(start + 2);
+    }
+
+    /**
+     * Lista ordenada y sin repetidos de identificadores de un trigrama.
+     */
+    private static final class PostingList {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        void add(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return; // El trigrama se repite dentro del mismo texto
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
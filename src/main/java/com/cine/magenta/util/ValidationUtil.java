@@ -149,12 +149,13 @@ public class ValidationUtil {
     
     /**
     * Valida si un genero esta en la lista de generos permitidos.
+    * Se compara sin tildes ni mayusculas, por lo que "Animación" es valido.
     * 
     * @param genre genero a validar
     * @return true si el genero es valido
     */
     public static boolean isValidGenre(String genre) {
-    return isNotEmpty(genre) && Arrays.asList(DatabaseConfig.AVAILABLE_GENRES).contains(genre);
+    return isNotEmpty(genre) && TextNormalizer.findGenre(genre) != null;
     }
     
     /**
@@ -230,7 +231,7 @@ public class ValidationUtil {
     public static String getGenreErrorMessage(String genre) {
     if (genre == null || genre.trim().isEmpty()) {
     return "El genero es obligatorio";
-    } else if (!Arrays.asList(DatabaseConfig.AVAILABLE_GENRES).contains(genre)) {
+    } else if (TextNormalizer.findGenre(genre) == null) {
     return "Genero no valido. Generos disponibles: " + Arrays.toString(DatabaseConfig.AVAILABLE_GENRES);
     }
     return "Genero valido";
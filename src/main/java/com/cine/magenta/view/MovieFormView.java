@@ -7,7 +7,9 @@ package com.cine.magenta.view;
 import com.cine.magenta.controller.MovieController;
 import com.cine.magenta.model.Movie;
 import com.cine.magenta.config.DatabaseConfig;
+import com.cine.magenta.service.WriteResult;
 import com.cine.magenta.util.MessageUtil;
+import com.cine.magenta.util.TextNormalizer;
 import com.cine.magenta.util.ValidationUtil;
 
 import javax.swing.*;
@@ -307,7 +309,9 @@ public class MovieFormView extends JDialog {
     directorField.setText(currentMovie.getDirector());
     yearSpinner.setValue(currentMovie.getYear());
     durationSpinner.setValue(currentMovie.getDuration());
-    genreComboBox.setSelectedItem(currentMovie.getGenre());
+    // Los datos iniciales pueden traer el genero con tildes ("Animación")
+    String genre = TextNormalizer.findGenre(currentMovie.getGenre());
+    genreComboBox.setSelectedItem(genre != null ? genre : currentMovie.getGenre());
     
     // Validar todos los campos después de cargar los datos
     validateAllFields();
@@ -486,7 +490,18 @@ public class MovieFormView extends JDialog {
     Movie movie;
     if (editMode) {
     movie = new Movie(currentMovie.getId(), title, director, year, duration, genre);
-    movie = movieController.updateMovie(movie);
+    // La version leída evita sobrescribir los cambios de otro usuario
+    movie.setVersion(currentMovie.getVersion());
+    WriteResult result = movieController.tryUpdateMovie(movie);
+    if (result == WriteResult.CONFLICT) {
+    reloadAfterConflict();
+    return;
+    }
+    if (result == WriteResult.NOT_FOUND) {
+    MessageUtil.showError(this, "La película ya no existe; fue eliminada por otro usuario");
+    return;
+    }
+    currentMovie = movie;
     MessageUtil.showUpdateSuccess(this, "película '" + movie.getTitle() + "'");
     } else {
     movie = movieController.createMovie(title, director, year, duration, genre);
@@ -500,6 +515,26 @@ public class MovieFormView extends JDialog {
     }
     }
     
+    /**
+    * Recarga la película tras un conflicto de versión para que el usuario vea
+    * los cambios del otro usuario antes de volver a editar.
+    */
+    private void reloadAfterConflict() {
+    try {
+    Movie latest = movieController.getCurrentMovie(currentMovie.getId());
+    if (latest == null) {
+    MessageUtil.showError(this, "La película ya no existe; fue eliminada por otro usuario");
+    return;
+    }
+    currentMovie = latest;
+    loadMovieData();
+    MessageUtil.showWarning(this, "Otro usuario modificó esta película mientras la editaba.\n"
+    + "Se cargaron sus datos actuales; revise y vuelva a guardar.");
+    } catch (Exception ex) {
+    MessageUtil.showError(this, "Error al recargar película:\n" + ex.getMessage());
+    }
+    }
+    
     /**
     * Elimina la película actual.
     * 
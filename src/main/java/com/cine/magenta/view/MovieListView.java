@@ -4,20 +4,27 @@
  */
 package com.cine.magenta.view;
 
+import com.cine.magenta.config.DatabaseConfig;
 import com.cine.magenta.controller.MovieController;
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
 import com.cine.magenta.util.ExportUtil;
 import com.cine.magenta.util.MessageUtil;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Panel para mostrar y gestionar la lista de peliculas.
@@ -36,10 +43,10 @@ public class MovieListView extends JPanel {
     private JTable moviesTable;
     
     /** Modelo de datos para la tabla */
-    private DefaultTableModel tableModel;
+    private MovieTableModel tableModel;
     
     /** Sorter para ordenar la tabla */
-    private TableRowSorter<DefaultTableModel> tableSorter;
+    private TableRowSorter<MovieTableModel> tableSorter;
     
     /** Botones de accion */
     private JButton viewButton;
@@ -59,6 +66,34 @@ public class MovieListView extends JPanel {
     /** Indica si estamos en modo eliminacion */
     private boolean deleteMode = false;
     
+    /** Filas de margen antes del final cargado a partir de las cuales se pide otra pagina */
+    private static final int PREFETCH_MARGIN_ROWS = 10;
+    
+    /** Ejecutor de segundo plano para pedir paginas */
+    private static final ExecutorService PAGE_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cine-page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /** Panel de desplazamiento de la tabla */
+    private JScrollPane scrollPane;
+    
+    /** Cursor de la siguiente pagina o null si no hay mas */
+    private String nextCursor;
+    
+    /** Pagina siguiente pedida por adelantado */
+    private CompletableFuture<MoviePage> pendingPage;
+    
+    /** Indica si ya se espera la pagina adelantada para mostrarla */
+    private boolean pageRequested = false;
+    
+    /** Generacion de carga; descarta paginas de cargas anteriores */
+    private long loadGeneration = 0;
+    
+    /** Marca de la ultima carga o actualizacion; null obliga a recargar todo */
+    private Instant syncWatermark;
+    
     /**
      * Constructor que inicializa la vista de lista.
      * 
@@ -83,19 +118,7 @@ public class MovieListView extends JPanel {
         setLayout(new BorderLayout());
         
         // Crear modelo de tabla
-        tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Tabla de solo lectura
-            }
-            
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex == 0) return Integer.class; // ID
-                if (columnIndex == 3) return Integer.class; // Año
-                return String.class;
-            }
-        };
+        tableModel = new MovieTableModel(COLUMN_NAMES);
         
         // Crear tabla y sorter
         moviesTable = new JTable(tableModel);
@@ -112,6 +135,7 @@ public class MovieListView extends JPanel {
         moviesTable.getColumnModel().getColumn(3).setPreferredWidth(60);  // Año
         moviesTable.getColumnModel().getColumn(4).setPreferredWidth(80);  // Duracion
         moviesTable.getColumnModel().getColumn(5).setPreferredWidth(120); // Genero
+        moviesTable.getColumnModel().getColumn(MovieTableModel.COLUMN_TITLE).setCellRenderer(new StaleRowRenderer());
         
         // Botones
         viewButton = new JButton("Ver Detalles");
@@ -160,7 +184,7 @@ public class MovieListView extends JPanel {
         titlePanel.add(titleLabel);
         
         // Panel central con tabla de peliculas
-        JScrollPane scrollPane = new JScrollPane(moviesTable);
+        scrollPane = new JScrollPane(moviesTable);
         scrollPane.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createEtchedBorder(), 
             "Peliculas Disponibles", 
@@ -196,13 +220,17 @@ public class MovieListView extends JPanel {
         viewButton.addActionListener(this::viewMovieDetails);
         editButton.addActionListener(this::editMovie);
         deleteButton.addActionListener(this::deleteMovie);
-        refreshButton.addActionListener(e -> loadMovies());
+        refreshButton.addActionListener(e -> refreshMovies());
         exportButton.addActionListener(this::exportMovies);
         
+        // Cargar mas paginas al desplazarse
+        scrollPane.getViewport().addChangeListener(e -> loadMoreIfNeeded());
+        
         // Seleccion de tabla
         moviesTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 updateButtonStates();
+                verifySelectedMovie();
             }
         });
         
@@ -292,61 +320,179 @@ public class MovieListView extends JPanel {
     }
     
     /**
-     * Carga las peliculas desde el controlador.
+     * Carga las peliculas desde el controlador, una pagina a la vez.
+     * La primera pagina incluye el total estimado para dimensionar la tabla;
+     * las siguientes se piden al desplazarse, con una pagina de adelanto.
      */
     private void loadMovies() {
         updateStatus("Cargando peliculas...", true);
         
-        // Limpiar tabla
-        tableModel.setRowCount(0);
+        // Invalidar cargas anteriores y limpiar tabla
+        final long generation = ++loadGeneration;
+        syncWatermark = null;
+        nextCursor = null;
+        pendingPage = null;
+        pageRequested = false;
+        setSortingEnabled(false);
+        tableModel.clear();
         
-        // Cargar peliculas en segundo plano
-        SwingWorker<List<Movie>, Void> worker = new SwingWorker<List<Movie>, Void>() {
-            @Override
-            protected List<Movie> doInBackground() throws Exception {
-                return movieController.getAllMovies();
+        // La marca se pide al servidor antes de leer, porque updated_at usa su reloj y no
+        // el del cliente; los cambios posteriores se piden al actualizar
+        final CompletableFuture<Instant> loadStartedAt = CompletableFuture.supplyAsync(() -> {
+            try {
+                return movieController.getServerTime();
+            } catch (Exception e) {
+                throw new CompletionException(e);
             }
-            
-            @Override
-            protected void done() {
-                try {
-                    List<Movie> movies = get();
-                    updateTable(movies);
-                    updateStatus("Se encontraron " + movies.size() + " peliculas", true);
-                } catch (Exception e) {
-                    updateStatus("Error al cargar peliculas: " + e.getMessage(), false);
-                    MessageUtil.showError(MovieListView.this, 
-                        "Error al cargar peliculas:\n" + e.getMessage());
-                }
+        }, PAGE_EXECUTOR);
+        
+        loadStartedAt.thenCompose(startedAt -> fetchPage(null)).whenComplete((page, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != loadGeneration) {
+                return;
             }
-        };
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                updateStatus("Error al cargar peliculas: " + cause.getMessage(), false);
+                MessageUtil.showError(MovieListView.this, 
+                    "Error al cargar peliculas:\n" + cause.getMessage());
+                return;
+            }
+            
+            syncWatermark = loadStartedAt.join();
+            tableModel.startPaging(page.hasEstimatedTotal() ? page.getEstimatedTotal() : page.size());
+            applyPage(page);
+        }));
+    }
+    
+    /**
+     * Actualiza la tabla pidiendo solo los cambios desde la ultima carga.
+     * Si aun faltan paginas o la consulta falla, recarga el catalogo completo.
+     */
+    private void refreshMovies() {
+        if (syncWatermark == null || nextCursor != null) {
+            loadMovies();
+            return;
+        }
+        updateStatus("Buscando cambios...", true);
         
-        worker.execute();
+        final long generation = loadGeneration;
+        final Instant since = syncWatermark;
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return movieController.getChangesSince(since);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, PAGE_EXECUTOR).whenComplete((changes, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != loadGeneration) {
+                return;
+            }
+            if (error != null) {
+                loadMovies();
+                return;
+            }
+            
+            syncWatermark = changes.getWatermark();
+            tableModel.applyChanges(changes);
+            updateButtonStates();
+            updateStatus(changes.isEmpty()
+                ? "Sin cambios: " + tableModel.getRowCount() + " peliculas"
+                : "Se actualizaron " + (changes.getChanged().size() + changes.getDeletedIds().length)
+                    + " peliculas; total " + tableModel.getRowCount(), true);
+        }));
     }
     
     /**
-     * Actualiza la tabla con la lista de peliculas.
+     * Agrega una pagina recibida a la tabla y prepara la siguiente.
+     * Debe ejecutarse en el hilo de eventos.
      * 
-     * @param movies lista de peliculas
+     * @param page pagina recibida
      */
-    private void updateTable(List<Movie> movies) {
-        // Limpiar tabla
-        tableModel.setRowCount(0);
-        
-        // Agregar peliculas
-        for (Movie movie : movies) {
-            Object[] rowData = {
-                movie.getId(),
-                movie.getTitle(),
-                movie.getDirector(),
-                movie.getYear(),
-                movie.getFormattedDuration(),
-                movie.getGenre()
-            };
-            tableModel.addRow(rowData);
+    private void applyPage(MoviePage page) {
+        tableModel.appendMovies(page.getMovies());
+        nextCursor = page.getNextCursor();
+        
+        if (nextCursor == null) {
+            // Catalogo completo: quitar marcadores sobrantes y permitir ordenar
+            pendingPage = null;
+            tableModel.finishPaging();
+            setSortingEnabled(true);
+            updateStatus("Se encontraron " + tableModel.getRowCount() + " peliculas", true);
+        } else {
+            // Pedir por adelantado la pagina siguiente
+            pendingPage = fetchPage(nextCursor);
+            updateStatus("Mostrando " + tableModel.getLoadedRowCount() + " de " 
+                + tableModel.getRowCount() + " peliculas...", true);
         }
         
         updateButtonStates();
+        loadMoreIfNeeded();
+    }
+    
+    /**
+     * Solicita la pagina siguiente si las filas visibles se acercan al final
+     * de lo ya cargado. Se invoca al desplazar la tabla.
+     */
+    private void loadMoreIfNeeded() {
+        if (pendingPage == null || pageRequested) {
+            return;
+        }
+        
+        Rectangle visible = moviesTable.getVisibleRect();
+        int lastVisibleRow = moviesTable.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        if (lastVisibleRow == -1) {
+            lastVisibleRow = moviesTable.getRowCount() - 1;
+        }
+        if (lastVisibleRow < tableModel.getLoadedRowCount() - PREFETCH_MARGIN_ROWS) {
+            return;
+        }
+        
+        pageRequested = true;
+        final long generation = loadGeneration;
+        pendingPage.whenComplete((page, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != loadGeneration) {
+                return;
+            }
+            pageRequested = false;
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                pendingPage = null;
+                updateStatus("Error al cargar mas peliculas: " + cause.getMessage(), false);
+                return;
+            }
+            applyPage(page);
+        }));
+    }
+    
+    /**
+     * Pide una pagina de peliculas en el ejecutor de segundo plano.
+     * 
+     * @param cursor cursor de la pagina o null para la primera
+     * @return pagina futura
+     */
+    private CompletableFuture<MoviePage> fetchPage(final String cursor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return movieController.getMoviesPage(cursor);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, PAGE_EXECUTOR);
+    }
+    
+    /**
+     * Habilita o deshabilita el ordenamiento de las columnas.
+     * Mientras faltan paginas no se ordena, porque el orden mezclaria marcadores.
+     * 
+     * @param enabled true para permitir ordenar
+     */
+    private void setSortingEnabled(boolean enabled) {
+        if (!enabled) {
+            tableSorter.setSortKeys(null);
+        }
+        for (int column = 0; column < tableModel.getColumnCount(); column++) {
+            tableSorter.setSortable(column, enabled);
+        }
     }
     
     /**
@@ -360,15 +506,46 @@ public class MovieListView extends JPanel {
             return null;
         }
         
-        try {
-            // Convertir indice de vista a indice de modelo
-            int modelRow = moviesTable.convertRowIndexToModel(selectedRow);
-            int movieId = (Integer) tableModel.getValueAt(modelRow, 0);
-            return movieController.getMovieById(movieId);
-        } catch (Exception e) {
-            MessageUtil.showError(this, "Error al obtener pelicula seleccionada: " + e.getMessage());
-            return null;
+        // La pelicula de la fila se usa directamente, sin consultar la base de datos;
+        // las filas de paginas aun no cargadas devuelven null
+        int modelRow = moviesTable.convertRowIndexToModel(selectedRow);
+        return tableModel.getMovieAt(modelRow);
+    }
+    
+    /**
+     * Verifica en segundo plano si la pelicula seleccionada cambio en la base de datos
+     * y marca su fila si esta desactualizada. Los errores se ignoran: la verificacion
+     * es opcional y la fila sigue siendo utilizable.
+     */
+    private void verifySelectedMovie() {
+        if (!DatabaseConfig.VERIFY_SELECTION_FRESHNESS) {
+            return;
+        }
+        int selectedRow = moviesTable.getSelectedRow();
+        if (selectedRow == -1) {
+            return;
+        }
+        
+        final int modelRow = moviesTable.convertRowIndexToModel(selectedRow);
+        final Movie shown = tableModel.getMovieAt(modelRow);
+        if (shown == null || tableModel.isRowStale(modelRow)) {
+            return;
         }
+        
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return movieController.getCurrentMovie(shown.getId());
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, PAGE_EXECUTOR).whenComplete((current, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null || !tableModel.applyFreshness(modelRow, shown, current)) {
+                return;
+            }
+            updateStatus(current == null
+                ? "La pelicula '" + shown.getTitle() + "' ya no existe; actualice la lista"
+                : "La pelicula '" + shown.getTitle() + "' fue modificada; se muestran los datos actuales", false);
+        }));
     }
     
     /**
@@ -428,8 +605,8 @@ public class MovieListView extends JPanel {
             MovieFormView movieForm = new MovieFormView(parent, movieController, selectedMovie);
             movieForm.setVisible(true);
             
-            // Recargar datos despues de editar
-            loadMovies();
+            // Traer los cambios despues de editar
+            refreshMovies();
         } catch (Exception ex) {
             MessageUtil.showError(this, "Error al abrir formulario de edicion:\n" + ex.getMessage());
         }
@@ -476,7 +653,7 @@ public class MovieListView extends JPanel {
                 if (deleted) {
                     MessageUtil.showDeleteSuccess(this, 
                         "pelicula '" + selectedMovie.getTitle() + "'");
-                    loadMovies(); // Recargar lista
+                    refreshMovies(); // Actualizar lista
                 } else {
                     MessageUtil.showError(this, 
                         "No se pudo eliminar la pelicula. Verifique que no existan dependencias.");
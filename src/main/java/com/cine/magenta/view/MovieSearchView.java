@@ -6,23 +6,32 @@ package com.cine.magenta.view;
 
 import com.cine.magenta.controller.MovieController;
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieSearchCriteria;
 import com.cine.magenta.config.DatabaseConfig;
 import com.cine.magenta.util.MessageUtil;
+import com.cine.magenta.util.TextNormalizer;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Vista para busqueda avanzada de peliculas.
  * Proporciona interfaz para filtrar peliculas por diferentes criterios.
- * Incluye busqueda por titulo, director, genero y año.
+ * Incluye busqueda por titulo, director, genero y año, con sugerencias
+ * de autocompletado para titulo y director.
  *
  * @author Sistema Cine Magenta
  * @version 1.0
@@ -39,10 +48,10 @@ public class MovieSearchView extends JFrame {
     private JTable resultsTable;
     
     /** Modelo de datos para la tabla */
-    private DefaultTableModel tableModel;
+    private MovieTableModel tableModel;
     
     /** Sorter para ordenar la tabla */
-    private TableRowSorter<DefaultTableModel> tableSorter;
+    private TableRowSorter<MovieTableModel> tableSorter;
     
     /** Campos de búsqueda */
     private JTextField titleField;
@@ -60,6 +69,27 @@ public class MovieSearchView extends JFrame {
     /** Barra de estado */
     private JLabel statusLabel;
     
+    /** Temporizador que agrupa los cambios de filtros antes de buscar */
+    private Timer debounceTimer;
+    
+    /** Busqueda en curso, cancelada si los criterios cambian */
+    private SwingWorker<List<Movie>, Void> currentSearch;
+    
+    /** Generacion de la busqueda mas reciente; los resultados de otras se descartan */
+    private long searchGeneration = 0;
+    
+    /** Peliculas por genero de la ultima busqueda, por clave sin tildes ni mayusculas */
+    private Map<String, Integer> genreCounts = Collections.emptyMap();
+    
+    /** Menu emergente con las sugerencias de autocompletado */
+    private JPopupMenu suggestionPopup;
+    
+    /** Generacion de la consulta de sugerencias mas reciente */
+    private long suggestionGeneration = 0;
+    
+    /** Indica que el texto se esta reemplazando por una sugerencia elegida */
+    private boolean applyingSuggestion = false;
+    
     /** Columnas de la tabla */
     private static final String[] COLUMN_NAMES = {
     "ID", "Título", "Director", "Año", "Duración", "Género"
@@ -97,12 +127,7 @@ public class MovieSearchView extends JFrame {
     setSize(900, 600);
     
     // Crear modelo de tabla
-    tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
-    @Override
-    public boolean isCellEditable(int row, int column) {
-    return false; // Tabla de solo lectura
-    }
-    };
+    tableModel = new MovieTableModel(COLUMN_NAMES);
     
     // Crear tabla y sorter
     resultsTable = new JTable(tableModel);
@@ -119,6 +144,7 @@ public class MovieSearchView extends JFrame {
     resultsTable.getColumnModel().getColumn(3).setPreferredWidth(60);  // Año
     resultsTable.getColumnModel().getColumn(4).setPreferredWidth(80);  // Duración
     resultsTable.getColumnModel().getColumn(5).setPreferredWidth(120); // Género
+    resultsTable.getColumnModel().getColumn(MovieTableModel.COLUMN_TITLE).setCellRenderer(new StaleRowRenderer());
     
     // Campos de búsqueda
     titleField = new JTextField(20);
@@ -129,6 +155,13 @@ public class MovieSearchView extends JFrame {
     genreOptions[0] = "Todos";
     System.arraycopy(DatabaseConfig.AVAILABLE_GENRES, 0, genreOptions, 1, DatabaseConfig.AVAILABLE_GENRES.length);
     genreComboBox = new JComboBox<>(genreOptions);
+    genreComboBox.setRenderer(new DefaultListCellRenderer() {
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+    boolean isSelected, boolean cellHasFocus) {
+    return super.getListCellRendererComponent(list, withGenreCount(value), index, isSelected, cellHasFocus);
+    }
+    });
     
     // Spinners para rango de años
     int currentYear = java.time.Year.now().getValue();
@@ -296,6 +329,7 @@ public class MovieSearchView extends JFrame {
     resultsTable.getSelectionModel().addListSelectionListener(e -> {
     if (!e.getValueIsAdjusting()) {
     updateButtonStates();
+    verifySelectedMovie();
     }
     });
     
@@ -312,6 +346,148 @@ public class MovieSearchView extends JFrame {
     // Búsqueda al presionar Enter en los campos de texto
     titleField.addActionListener(this::searchMovies);
     directorField.addActionListener(this::searchMovies);
+    
+    // Búsqueda en vivo: cada cambio reinicia la espera y solo busca al dejar de escribir
+    debounceTimer = new Timer(DatabaseConfig.SEARCH_DEBOUNCE_DELAY, e -> searchMovies(false));
+    debounceTimer.setRepeats(false);
+    
+    DocumentListener liveSearch = onDocumentChange(this::scheduleSearch);
+    titleField.getDocument().addDocumentListener(liveSearch);
+    directorField.getDocument().addDocumentListener(liveSearch);
+    genreComboBox.addActionListener(e -> scheduleSearch());
+    yearFromSpinner.addChangeListener(e -> scheduleSearch());
+    yearToSpinner.addChangeListener(e -> scheduleSearch());
+    
+    // Sugerencias de autocompletado; el menú no toma el foco para no interrumpir la escritura
+    suggestionPopup = new JPopupMenu();
+    suggestionPopup.setFocusable(false);
+    titleField.getDocument().addDocumentListener(onDocumentChange(() -> showSuggestions(titleField, true)));
+    directorField.getDocument().addDocumentListener(onDocumentChange(() -> showSuggestions(directorField, false)));
+    
+    KeyAdapter hideSuggestionsOnKey = new KeyAdapter() {
+    @Override
+    public void keyPressed(KeyEvent e) {
+    if (e.getKeyCode() == KeyEvent.VK_ESCAPE || e.getKeyCode() == KeyEvent.VK_ENTER) {
+    hideSuggestions();
+    }
+    }
+    };
+    titleField.addKeyListener(hideSuggestionsOnKey);
+    directorField.addKeyListener(hideSuggestionsOnKey);
+    }
+    
+    /**
+    * Crea un listener que ejecuta la acción ante cualquier cambio del documento.
+    * 
+    * @param action acción a ejecutar
+    * @return listener de documento
+    */
+    private DocumentListener onDocumentChange(final Runnable action) {
+    return new DocumentListener() {
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+    action.run();
+    }
+    
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+    action.run();
+    }
+    
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+    action.run();
+    }
+    };
+    }
+    
+    /**
+    * Consulta en segundo plano las sugerencias para el texto del campo y las muestra
+    * bajo él. Las respuestas de consultas anteriores se descartan.
+    * 
+    * @param field campo editado
+    * @param titles true para sugerir títulos, false para directores
+    */
+    private void showSuggestions(final JTextField field, final boolean titles) {
+    final long generation = ++suggestionGeneration;
+    final String prefix = field.getText().trim();
+    if (applyingSuggestion || prefix.isEmpty() || !field.isFocusOwner()) {
+    hideSuggestions();
+    return;
+    }
+    
+    SwingWorker<List<String>, Void> worker = new SwingWorker<List<String>, Void>() {
+    @Override
+    protected List<String> doInBackground() throws Exception {
+    return titles ? movieController.suggestTitles(prefix) : movieController.suggestDirectors(prefix);
+    }
+    
+    @Override
+    protected void done() {
+    if (generation != suggestionGeneration) {
+    return;
+    }
+    
+    List<String> suggestions;
+    try {
+    suggestions = get();
+    } catch (Exception e) {
+    // Las sugerencias son opcionales: un fallo no interrumpe la búsqueda
+    hideSuggestions();
+    return;
+    }
+    
+    suggestionPopup.setVisible(false);
+    suggestionPopup.removeAll();
+    String prefixKey = TextNormalizer.normalize(prefix);
+    for (final String suggestion : suggestions) {
+    if (TextNormalizer.normalize(suggestion).equals(prefixKey)) {
+    continue; // Ya está escrita completa
+    }
+    JMenuItem item = new JMenuItem(suggestion);
+    item.addActionListener(e -> applySuggestion(field, suggestion));
+    suggestionPopup.add(item);
+    }
+    if (suggestionPopup.getComponentCount() > 0 && field.isShowing()) {
+    suggestionPopup.show(field, 0, field.getHeight());
+    }
+    }
+    };
+    
+    worker.execute();
+    }
+    
+    /**
+    * Reemplaza el texto del campo por la sugerencia elegida y busca de inmediato.
+    * 
+    * @param field campo editado
+    * @param suggestion texto sugerido
+    */
+    private void applySuggestion(JTextField field, String suggestion) {
+    applyingSuggestion = true;
+    try {
+    field.setText(suggestion);
+    } finally {
+    applyingSuggestion = false;
+    }
+    hideSuggestions();
+    searchMovies();
+    }
+    
+    /**
+    * Oculta el menú de sugerencias.
+    */
+    private void hideSuggestions() {
+    if (suggestionPopup != null) {
+    suggestionPopup.setVisible(false);
+    }
+    }
+    
+    /**
+    * Programa una búsqueda tras la espera configurada, reiniciándola si ya estaba programada.
+    */
+    private void scheduleSearch() {
+    debounceTimer.restart();
     }
     
     /**
@@ -376,16 +552,55 @@ public class MovieSearchView extends JFrame {
     return null;
     }
     
-    try {
-    // Convertir índice de vista a índice de modelo
+    // La película de la fila se usa directamente, sin consultar la base de datos
     int modelRow = resultsTable.convertRowIndexToModel(selectedRow);
-    int movieId = (Integer) tableModel.getValueAt(modelRow, 0);
-    return movieController.getMovieById(movieId);
+    return tableModel.getMovieAt(modelRow);
+    }
+    
+    /**
+    * Verifica en segundo plano si la película seleccionada cambió en la base de datos
+    * y marca su fila si está desactualizada. Los errores se ignoran: la verificación
+    * es opcional y la fila sigue siendo utilizable.
+    */
+    private void verifySelectedMovie() {
+    if (!DatabaseConfig.VERIFY_SELECTION_FRESHNESS) {
+    return;
+    }
+    int selectedRow = resultsTable.getSelectedRow();
+    if (selectedRow == -1) {
+    return;
+    }
+    
+    final int modelRow = resultsTable.convertRowIndexToModel(selectedRow);
+    final Movie shown = tableModel.getMovieAt(modelRow);
+    if (shown == null || tableModel.isRowStale(modelRow)) {
+    return;
+    }
+    
+    SwingWorker<Movie, Void> worker = new SwingWorker<Movie, Void>() {
+    @Override
+    protected Movie doInBackground() throws Exception {
+    return movieController.getCurrentMovie(shown.getId());
+    }
+    
+    @Override
+    protected void done() {
+    Movie current;
+    try {
+    current = get();
     } catch (Exception e) {
-    MessageUtil.showError(this, "Error al obtener película seleccionada: " + e.getMessage());
-    return null;
+    return;
+    }
+    if (tableModel.applyFreshness(modelRow, shown, current)) {
+    updateStatus(current == null
+    ? "La película '" + shown.getTitle() + "' ya no existe; repita la búsqueda"
+    : "La película '" + shown.getTitle() + "' fue modificada; se muestran los datos actuales", false);
     }
     }
+    };
+    
+    worker.execute();
+    }
     
     /**
     * Realiza la búsqueda de películas según los filtros.
@@ -400,7 +615,26 @@ public class MovieSearchView extends JFrame {
     * Realiza la búsqueda de películas según los filtros.
     */
     private void searchMovies() {
-    updateStatus("Buscando películas...", true);
+    searchMovies(true);
+    }
+    
+    /**
+    * Realiza la búsqueda de películas según los filtros.
+    * Las búsquedas en vivo informan los problemas en la barra de estado en lugar de
+    * abrir diálogos que interrumpirían la escritura.
+    * 
+    * @param interactive true si la pidió el usuario con Enter o con el botón
+    */
+    private void searchMovies(boolean interactive) {
+    // Una búsqueda explícita reemplaza a la programada y a la que esté en curso
+    if (debounceTimer != null) {
+    debounceTimer.stop();
+    }
+    if (currentSearch != null && !currentSearch.isDone()) {
+    // Sin interrumpir: cortar una lectura JDBC a medias puede dejar la conexión inutilizable
+    currentSearch.cancel(false);
+    }
+    final long generation = ++searchGeneration;
     
     // Obtener valores de los filtros
     final String title = titleField.getText().trim();
@@ -412,12 +646,23 @@ public class MovieSearchView extends JFrame {
     // Validar rango de años
     int tempYearFrom = (Integer) yearFromSpinner.getValue();
     if (tempYearFrom > yearTo) {
+    if (!interactive) {
+    // Mientras se ajustan los spinners el rango puede quedar invertido un momento
+    updateStatus("El año inicial no puede ser mayor que el año final", false);
+    return;
+    }
     MessageUtil.showWarning(this, "El año inicial no puede ser mayor que el año final");
     yearFromSpinner.setValue(yearTo);
     tempYearFrom = yearTo;
+    // El ajuste del spinner no debe programar otra búsqueda
+    if (debounceTimer != null) {
+    debounceTimer.stop();
+    }
     }
     yearFrom = tempYearFrom;
     
+    updateStatus("Buscando películas...", true);
+    
     // Mostrar criterios de búsqueda
     final StringBuilder criteria = new StringBuilder("Criterios: ");
     final boolean hasCriteria;
@@ -450,47 +695,47 @@ public class MovieSearchView extends JFrame {
     criteria.append("Todas las películas");
     }
     
+    // Combinar los filtros en una sola consulta a la base de datos
+    final MovieSearchCriteria searchCriteria = new MovieSearchCriteria();
+    if (hasCriteria) {
+    searchCriteria.setTitle(title);
+    searchCriteria.setDirector(director);
+    searchCriteria.setGenre(genre);
+    searchCriteria.setYearFrom(yearFrom);
+    searchCriteria.setYearTo(yearTo);
+    }
+    searchCriteria.setLimit(DatabaseConfig.MAX_SEARCH_RESULTS);
+    
     // Realizar búsqueda en segundo plano
     SwingWorker<List<Movie>, Void> worker = new SwingWorker<List<Movie>, Void>() {
+    private Map<String, Integer> counts = Collections.emptyMap();
+    
     @Override
     protected List<Movie> doInBackground() throws Exception {
-    // Si no hay criterios, obtener todas las películas
-    if (!hasCriteria) {
-    return movieController.getAllMovies();
-    }
-    
-    // Implementar búsqueda combinada
-    // Nota: En una implementación real, esto debería hacerse en el DAO con una consulta SQL optimizada
-    List<Movie> results = movieController.getAllMovies();
-    
-    // Filtrar por título
-    if (!title.isEmpty()) {
-    results.removeIf(movie -> !movie.getTitle().toLowerCase().contains(title.toLowerCase()));
-    }
-    
-    // Filtrar por director
-    if (!director.isEmpty()) {
-    results.removeIf(movie -> !movie.getDirector().toLowerCase().contains(director.toLowerCase()));
-    }
-    
-    // Filtrar por género
-    if (genre != null) {
-    results.removeIf(movie -> !movie.getGenre().equals(genre));
-    }
-    
-    // Filtrar por rango de años
-    results.removeIf(movie -> movie.getYear() < yearFrom || movie.getYear() > yearTo);
-    
-    return results;
+    List<Movie> movies = movieController.searchMovies(searchCriteria);
+    counts = movieController.getGenreCounts(searchCriteria);
+    return movies;
     }
     
     @Override
     protected void done() {
+    // Descartar resultados de búsquedas canceladas o reemplazadas por otra más nueva
+    if (isCancelled() || generation != searchGeneration) {
+    return;
+    }
+    
     try {
     List<Movie> movies = get();
     updateTable(movies);
-    updateStatus("Resultados: " + movies.size() + " películas. " + criteria.toString(), true);
+    updateGenreCounts(counts);
+    String limitNote = movies.size() >= DatabaseConfig.MAX_SEARCH_RESULTS 
+    ? " (mostrando los primeros " + DatabaseConfig.MAX_SEARCH_RESULTS + ")" : "";
+    updateStatus("Resultados: " + movies.size() + " películas" + limitNote + ". " + criteria.toString(), true);
     } catch (Exception e) {
+    if (!interactive) {
+    updateStatus("Error al buscar películas: " + e.getMessage(), false);
+    return;
+    }
     updateStatus("Error al buscar películas", false);
     MessageUtil.showError(MovieSearchView.this, 
     "Error al buscar películas:\n" + e.getMessage());
@@ -498,6 +743,7 @@ public class MovieSearchView extends JFrame {
     }
     };
     
+    currentSearch = worker;
     worker.execute();
     }
     
@@ -507,25 +753,51 @@ public class MovieSearchView extends JFrame {
     * @param movies lista de películas
     */
     private void updateTable(List<Movie> movies) {
-    // Limpiar tabla
-    tableModel.setRowCount(0);
-    
-    // Agregar películas
-    for (Movie movie : movies) {
-    Object[] rowData = {
-    movie.getId(),
-    movie.getTitle(),
-    movie.getDirector(),
-    movie.getYear(),
-    movie.getFormattedDuration(),
-    movie.getGenre()
-    };
-    tableModel.addRow(rowData);
-    }
+    // Reemplazar las filas con un solo evento; las celdas se calculan al pintarse
+    tableModel.setMovies(movies);
     
     updateButtonStates();
     }
     
+    /**
+    * Guarda los conteos por género de la última búsqueda y los muestra en el combo.
+    * 
+    * @param counts películas por género según los demás filtros
+    */
+    private void updateGenreCounts(Map<String, Integer> counts) {
+    Map<String, Integer> byKey = new HashMap<>();
+    int total = 0;
+    for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+    byKey.merge(TextNormalizer.normalize(entry.getKey()), entry.getValue(), Integer::sum);
+    total += entry.getValue();
+    }
+    if (!counts.isEmpty()) {
+    byKey.put(null, total);
+    }
+    genreCounts = byKey;
+    genreComboBox.repaint();
+    }
+    
+    /**
+    * Agrega al texto de una opción del combo de géneros su número de películas.
+    * La opción "Todos" muestra el total; sin conteos disponibles se muestra solo el texto.
+    * 
+    * @param value opción del combo
+    * @return texto a mostrar
+    */
+    private String withGenreCount(Object value) {
+    if (value == null) {
+    return null;
+    }
+    String option = value.toString();
+    String key = "Todos".equals(option) ? null : TextNormalizer.normalize(option);
+    Integer count = genreCounts.get(key);
+    if (count == null && key != null && genreCounts.containsKey(null)) {
+    count = 0;
+    }
+    return count == null ? option : option + " (" + count + ")";
+    }
+    
     /**
     * Limpia todos los filtros de búsqueda.
     * 
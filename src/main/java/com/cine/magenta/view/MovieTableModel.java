@@ -0,0 +1,387 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.view;
+
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Modelo de tabla de solo lectura respaldado directamente por una lista de peliculas.
+ * Las celdas se calculan al pedirse en lugar de copiarse a filas, y reemplazar
+ * la lista completa dispara un unico evento de cambio de datos.
+ * Admite carga por paginas: se declara un numero estimado de filas y las que aun
+ * no llegan se muestran como marcadores hasta que se agrega su pagina.
+ * Las vistas usan directamente las peliculas de cada fila; una verificacion
+ * opcional puede marcar filas cuyos datos cambiaron en la base de datos.
+ * Compartido por las vistas de lista y de busqueda.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class MovieTableModel extends AbstractTableModel {
+
+    /** Indices de las columnas */
+    public static final int COLUMN_ID = 0;
+    public static final int COLUMN_TITLE = 1;
+    public static final int COLUMN_DIRECTOR = 2;
+    public static final int COLUMN_YEAR = 3;
+    public static final int COLUMN_DURATION = 4;
+    public static final int COLUMN_GENRE = 5;
+
+    /** Texto mostrado en las filas cuya pagina aun no se carga */
+    public static final String PLACEHOLDER_TEXT = "Cargando...";
+
+    /** Nombres de columnas por defecto */
+    private static final String[] DEFAULT_COLUMN_NAMES = {
+        "ID", "Titulo", "Director", "Año", "Duracion", "Genero"
+    };
+
+    /** Nombres de las columnas mostradas */
+    private final String[] columnNames;
+
+    /** Peliculas mostradas, en el orden del modelo */
+    private List<Movie> movies = Collections.emptyList();
+
+    /** Duraciones formateadas, calculadas solo al mostrarse u ordenarse */
+    private String[] formattedDurations = new String[0];
+
+    /** Filas declaradas, incluidas las que aun son marcadores */
+    private int rowCount = 0;
+
+    /** Indica si la lista es propia y puede ampliarse con nuevas paginas */
+    private boolean ownsList = false;
+
+    /** Filas cuyos datos resultaron desactualizados al verificarse */
+    private final BitSet staleRows = new BitSet();
+
+    /**
+     * Crea un modelo vacio con los nombres de columna por defecto.
+     */
+    public MovieTableModel() {
+        this(DEFAULT_COLUMN_NAMES);
+    }
+
+    /**
+     * Crea un modelo vacio con nombres de columna propios.
+     *
+     * @param columnNames nombres de las seis columnas
+     */
+    public MovieTableModel(String[] columnNames) {
+        if (columnNames == null || columnNames.length != DEFAULT_COLUMN_NAMES.length) {
+            throw new IllegalArgumentException("Se requieren " + DEFAULT_COLUMN_NAMES.length + " nombres de columna");
+        }
+        this.columnNames = columnNames.clone();
+    }
+
+    /**
+     * Reemplaza las peliculas mostradas.
+     * La lista se usa sin copiarse; el llamador no debe modificarla despues.
+     *
+     * @param movies nuevas peliculas (null equivale a vacio)
+     */
+    public void setMovies(List<Movie> movies) {
+        this.movies = movies != null ? movies : Collections.emptyList();
+        this.formattedDurations = new String[this.movies.size()];
+        this.rowCount = this.movies.size();
+        this.ownsList = false;
+        staleRows.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Inicia una carga por paginas vaciando el modelo y declarando las filas esperadas.
+     * Las filas declaradas se muestran como marcadores hasta que llegan sus datos.
+     *
+     * @param expectedRows numero estimado de filas (0 si se desconoce)
+     */
+    public void startPaging(int expectedRows) {
+        this.movies = new ArrayList<>();
+        this.formattedDurations = new String[Math.max(expectedRows, 0)];
+        this.rowCount = Math.max(expectedRows, 0);
+        this.ownsList = true;
+        staleRows.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Agrega una pagina al final de las filas ya cargadas.
+     * Reemplaza marcadores y agrega filas si se supera la estimacion.
+     *
+     * @param page peliculas de la pagina
+     */
+    public void appendMovies(List<Movie> page) {
+        if (page == null || page.isEmpty()) {
+            return;
+        }
+        if (!ownsList) {
+            movies = new ArrayList<>(movies);
+            ownsList = true;
+        }
+
+        int first = movies.size();
+        movies.addAll(page);
+        int last = movies.size() - 1;
+        if (formattedDurations.length < movies.size()) {
+            formattedDurations = Arrays.copyOf(formattedDurations, Math.max(movies.size(), formattedDurations.length * 2));
+        }
+
+        int previousRowCount = rowCount;
+        if (movies.size() > rowCount) {
+            rowCount = movies.size();
+        }
+
+        // Las filas que eran marcadores se actualizan; las que exceden la estimacion se insertan
+        int lastUpdated = Math.min(last, previousRowCount - 1);
+        if (lastUpdated >= first) {
+            fireTableRowsUpdated(first, lastUpdated);
+        }
+        if (rowCount > previousRowCount) {
+            fireTableRowsInserted(previousRowCount, rowCount - 1);
+        }
+    }
+
+    /**
+     * Termina la carga por paginas eliminando los marcadores sobrantes
+     * cuando la estimacion supero el numero real de filas.
+     */
+    public void finishPaging() {
+        int loaded = movies.size();
+        if (rowCount > loaded) {
+            int previousRowCount = rowCount;
+            rowCount = loaded;
+            fireTableRowsDeleted(loaded, previousRowCount - 1);
+        }
+    }
+
+    /**
+     * Indica si la fila ya tiene datos o es un marcador.
+     *
+     * @param rowIndex indice de fila del modelo
+     * @return true si la pelicula de la fila esta cargada
+     */
+    public boolean isRowLoaded(int rowIndex) {
+        return rowIndex >= 0 && rowIndex < movies.size();
+    }
+
+    /**
+     * Obtiene el numero de filas con datos cargados.
+     *
+     * @return filas cargadas
+     */
+    public int getLoadedRowCount() {
+        return movies.size();
+    }
+
+    /**
+     * Indica si la fila fue marcada como desactualizada.
+     *
+     * @param rowIndex indice de fila del modelo
+     * @return true si sus datos cambiaron en la base de datos
+     */
+    public boolean isRowStale(int rowIndex) {
+        return rowIndex >= 0 && staleRows.get(rowIndex);
+    }
+
+    /**
+     * Aplica el resultado de verificar una fila contra la base de datos.
+     * Si la pelicula cambio se muestra la version actual; si fue eliminada se
+     * conservan los datos mostrados. En ambos casos la fila queda marcada.
+     * Se ignora si la fila ya no contiene la pelicula verificada, por ejemplo
+     * porque el modelo se recargo mientras se consultaba.
+     *
+     * @param rowIndex indice de fila del modelo
+     * @param shown pelicula verificada, la misma instancia de la fila
+     * @param current version actual o null si ya no existe
+     * @return true si la fila quedo marcada como desactualizada
+     */
+    public boolean applyFreshness(int rowIndex, Movie shown, Movie current) {
+        if (shown == null || getMovieAt(rowIndex) != shown) {
+            return false;
+        }
+        if (current != null && hasSameData(shown, current)) {
+            return false;
+        }
+
+        if (current != null) {
+            if (!ownsList) {
+                movies = new ArrayList<>(movies);
+                ownsList = true;
+            }
+            movies.set(rowIndex, current);
+            formattedDurations[rowIndex] = null;
+        }
+        staleRows.set(rowIndex);
+        fireTableRowsUpdated(rowIndex, rowIndex);
+        return true;
+    }
+
+    /**
+     * Aplica los cambios del catalogo sobre las filas cargadas: reemplaza las
+     * peliculas modificadas, agrega las nuevas al final y quita las eliminadas.
+     * Solo debe usarse con la carga por paginas terminada.
+     *
+     * @param changes cambios desde la ultima carga
+     */
+    public void applyChanges(MovieChanges changes) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+
+        List<Movie> updated = new ArrayList<>(movies);
+        Map<Integer, Integer> rowById = new HashMap<>();
+        for (int i = 0; i < updated.size(); i++) {
+            rowById.put(updated.get(i).getId(), i);
+        }
+        for (Movie movie : changes.getChanged()) {
+            Integer row = rowById.get(movie.getId());
+            if (row != null) {
+                updated.set(row, movie);
+            } else {
+                rowById.put(movie.getId(), updated.size());
+                updated.add(movie);
+            }
+        }
+
+        Set<Integer> deleted = new HashSet<>();
+        for (int id : changes.getDeletedIds()) {
+            deleted.add(id);
+        }
+        if (!deleted.isEmpty()) {
+            updated.removeIf(movie -> deleted.contains(movie.getId()));
+        }
+
+        movies = updated;
+        ownsList = true;
+        formattedDurations = new String[updated.size()];
+        rowCount = updated.size();
+        staleRows.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Elimina todas las filas.
+     */
+    public void clear() {
+        setMovies(null);
+    }
+
+    /**
+     * Obtiene la pelicula de una fila del modelo.
+     *
+     * @param rowIndex indice de fila del modelo (no de la vista)
+     * @return pelicula de la fila o null si la fila aun es un marcador
+     */
+    public Movie getMovieAt(int rowIndex) {
+        return isRowLoaded(rowIndex) ? movies.get(rowIndex) : null;
+    }
+
+    /**
+     * Obtiene las peliculas mostradas.
+     *
+     * @return lista de solo lectura
+     */
+    public List<Movie> getMovies() {
+        return Collections.unmodifiableList(movies);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        if (columnIndex == COLUMN_ID || columnIndex == COLUMN_YEAR) {
+            return Integer.class;
+        }
+        return String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false; // Tabla de solo lectura
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if (!isRowLoaded(rowIndex)) {
+            return columnIndex == COLUMN_TITLE ? PLACEHOLDER_TEXT : null;
+        }
+
+        Movie movie = movies.get(rowIndex);
+        switch (columnIndex) {
+            case COLUMN_ID:
+                return movie.getId();
+            case COLUMN_TITLE:
+                return movie.getTitle();
+            case COLUMN_DIRECTOR:
+                return movie.getDirector();
+            case COLUMN_YEAR:
+                return movie.getYear();
+            case COLUMN_DURATION:
+                return getFormattedDuration(rowIndex, movie);
+            case COLUMN_GENRE:
+                return movie.getGenre();
+            default:
+                throw new IndexOutOfBoundsException("Columna invalida: " + columnIndex);
+        }
+    }
+
+    /**
+     * Obtiene la duracion formateada de una fila, formateandola una sola vez.
+     *
+     * @param rowIndex indice de fila
+     * @param movie pelicula de la fila
+     * @return duracion formateada
+     */
+    private String getFormattedDuration(int rowIndex, Movie movie) {
+        String formatted = formattedDurations[rowIndex];
+        if (formatted == null) {
+            formatted = movie.getFormattedDuration();
+            formattedDurations[rowIndex] = formatted;
+        }
+        return formatted;
+    }
+
+    /**
+     * Compara todos los datos visibles de dos peliculas.
+     * Movie.equals solo compara el ID, lo que no basta para detectar cambios.
+     *
+     * @param a primera pelicula
+     * @param b segunda pelicula
+     * @return true si ningun campo difiere
+     */
+    private static boolean hasSameData(Movie a, Movie b) {
+        return a.getId() == b.getId()
+            && Objects.equals(a.getTitle(), b.getTitle())
+            && Objects.equals(a.getDirector(), b.getDirector())
+            && a.getYear() == b.getYear()
+            && a.getDuration() == b.getDuration()
+            && Objects.equals(a.getGenre(), b.getGenre())
+            && a.getVersion() == b.getVersion();
+    }
+}
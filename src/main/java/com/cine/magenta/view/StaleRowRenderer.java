@@ -0,0 +1,46 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.view;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+
+/**
+ * Renderizador que resalta las filas marcadas como desactualizadas en un MovieTableModel.
+ * Las celdas de esas filas se muestran en cursiva con un aviso al pasar el cursor.
+ *
+ * @author Sistema Cine Magenta
+ * @version 1.0
+ */
+public class StaleRowRenderer extends DefaultTableCellRenderer {
+
+    /** Color del texto de las filas desactualizadas */
+    private static final Color STALE_COLOR = new Color(180, 90, 0);
+
+    /** Aviso mostrado sobre las filas desactualizadas */
+    private static final String STALE_TOOLTIP = "Esta pelicula cambio en la base de datos; actualice la lista";
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+
+        boolean stale = false;
+        if (table.getModel() instanceof MovieTableModel) {
+            int modelRow = table.convertRowIndexToModel(row);
+            stale = ((MovieTableModel) table.getModel()).isRowStale(modelRow);
+        }
+
+        component.setFont(stale ? table.getFont().deriveFont(Font.ITALIC) : table.getFont());
+        if (!isSelected) {
+            component.setForeground(stale ? STALE_COLOR : table.getForeground());
+        }
+        setToolTipText(stale ? STALE_TOOLTIP : null);
+        return component;
+    }
+}
@@ -6,6 +6,7 @@ package com.cine.magenta.controller;
 
 import com.cine.magenta.model.Movie;
 import com.cine.magenta.service.MovieService;
+import com.cine.magenta.service.WriteResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -204,12 +205,21 @@ public class MovieControllerTest {
         verify(mockMovieService).updateMovie(any(Movie.class));
     }
     
+    @Test
+    @DisplayName("Debe verificar la versión actual sin pasar por el cache")
+    void testGetCurrentMovie() throws Exception {
+        Movie current = new Movie(1, "Título", "Director", 2020, 120, "Drama");
+        when(mockMovieService.refreshMovie(1)).thenReturn(current);
+        
+        assertSame(current, movieController.getCurrentMovie(1));
+        verify(mockMovieService, never()).getMovieById(anyInt());
+    }
+    
     @Test
     @DisplayName("Debe eliminar película correctamente")
     void testDeleteMovie() throws Exception {
         // Configurar el comportamiento del mock
-        when(mockMovieService.movieExists(1)).thenReturn(true);
-        when(mockMovieService.deleteMovie(1)).thenReturn(true);
+        when(mockMovieService.tryDeleteMovie(1)).thenReturn(WriteResult.SUCCESS);
         
         // Ejecutar el método a probar
         boolean result = movieController.deleteMovie(1);
@@ -217,16 +227,16 @@ public class MovieControllerTest {
         // Verificar el resultado
         assertTrue(result);
         
-        // Verificar que se llamaron los métodos esperados
-        verify(mockMovieService).movieExists(1);
-        verify(mockMovieService).deleteMovie(1);
+        // Una sola sentencia: sin verificar antes la existencia
+        verify(mockMovieService).tryDeleteMovie(1);
+        verify(mockMovieService, never()).movieExists(anyInt());
     }
     
     @Test
     @DisplayName("Debe lanzar excepción al eliminar película inexistente")
     void testDeleteNonExistentMovie() throws Exception {
         // Configurar el mock para indicar que la película no existe
-        when(mockMovieService.movieExists(999)).thenReturn(false);
+        when(mockMovieService.tryDeleteMovie(999)).thenReturn(WriteResult.NOT_FOUND);
         
         // Ejecutar el método y verificar que lanza excepción
         Exception exception = assertThrows(IllegalArgumentException.class, () -> movieController.deleteMovie(999));
@@ -262,4 +272,18 @@ public class MovieControllerTest {
         // Verificar que se llamó al servicio
         verify(mockMovieService).getTotalMovies();
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Debe devolver null al verificar una película eliminada")
+    void testGetCurrentMovieDeleted() throws Exception {
+        // Configurar el comportamiento del mock
+        when(mockMovieService.refreshMovie(5)).thenReturn(null);
+        
+        // Una película eliminada no es un error
+        assertNull(movieController.getCurrentMovie(5));
+        
+        // Un fallo de la consulta se propaga
+        when(mockMovieService.refreshMovie(5)).thenThrow(new Exception("sin conexion"));
+        assertThrows(Exception.class, () -> movieController.getCurrentMovie(5));
+    }
+}
@@ -4,8 +4,13 @@
  */
 package com.cine.magenta.dao;
 
+import com.cine.magenta.config.DatabaseConfig;
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
 import com.cine.magenta.util.DatabaseConnection;
+import com.cine.magenta.util.IntLinkedMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,7 +24,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -178,6 +188,22 @@ class MovieDAOImplTest {
         verify(preparedStatement).executeUpdate();
     }
     
+    @Test
+    void testUpdateWithVersion() throws SQLException {
+        // Setup: pelicula leida de la base de datos con version 4
+        testMovie.setVersion(4);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        
+        // Execute
+        boolean result = movieDAO.update(testMovie);
+        
+        // Verify: la fila solo se actualiza si la version sigue vigente
+        assertTrue(result);
+        verify(connection).prepareStatement(contains("WHERE id = ? AND version = ?"));
+        verify(preparedStatement).setInt(7, 4);
+        assertEquals(5, testMovie.getVersion());
+    }
+    
     @Test
     void testDelete() throws SQLException {
         // Setup
@@ -186,12 +212,101 @@ class MovieDAOImplTest {
         // Execute
         boolean result = movieDAO.delete(1);
         
-        // Verify
+        // Verify: la fila queda como lapida para la consulta de cambios
         assertTrue(result);
+        verify(connection).prepareStatement(startsWith("UPDATE Cartelera SET deleted_at"));
         verify(preparedStatement).setInt(1, 1);
         verify(preparedStatement).executeUpdate();
     }
     
+    @Test
+    void testFindChangedSince() throws SQLException {
+        // Setup: una pelicula modificada y una eliminada
+        Instant since = Instant.parse("2025-01-01T10:00:00Z");
+        Instant latest = Instant.parse("2025-01-01T10:05:00Z");
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt("id")).thenReturn(1, 2);
+        when(resultSet.getString("titulo")).thenReturn("El Padrino");
+        when(resultSet.getString("director")).thenReturn("Francis Ford Coppola");
+        when(resultSet.getInt("ano")).thenReturn(1972);
+        when(resultSet.getInt("duracion")).thenReturn(175);
+        when(resultSet.getString("genero")).thenReturn("Drama");
+        when(resultSet.getTimestamp("deleted_at")).thenReturn(null, Timestamp.from(latest));
+        when(resultSet.getTimestamp("updated_at")).thenReturn(Timestamp.from(since), Timestamp.from(latest));
+        
+        // Execute
+        MovieChanges changes = movieDAO.findChangedSince(since);
+        
+        // Verify: la consulta se solapa hacia atras y la marca avanza a la ultima modificacion
+        assertEquals(1, changes.getChanged().size());
+        assertEquals("El Padrino", changes.getChanged().get(0).getTitle());
+        assertArrayEquals(new int[] {2}, changes.getDeletedIds());
+        assertEquals(latest, changes.getWatermark());
+        verify(preparedStatement).setTimestamp(1,
+            Timestamp.from(since.minusMillis(DatabaseConfig.CHANGE_FEED_OVERLAP)));
+    }
+    
+    @Test
+    void testCurrentTimestampReadsServerClock() throws SQLException {
+        // Setup
+        Instant now = Instant.parse("2025-01-01T10:00:00.123Z");
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getTimestamp("ahora")).thenReturn(Timestamp.from(now));
+        
+        // Execute
+        Instant serverTime = movieDAO.currentTimestamp();
+        
+        // Verify
+        assertEquals(now, serverTime);
+        verify(connection).prepareStatement(contains("CURRENT_TIMESTAMP(3)"));
+    }
+    
+    @Test
+    void testFindByIdsKeepsRequestOrder() throws SQLException {
+        // Setup: la base de datos devuelve las filas ordenadas por id
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt("id")).thenReturn(1, 3);
+        when(resultSet.getString("titulo")).thenReturn("Alien", "Cars");
+        when(resultSet.getString("director")).thenReturn("Director");
+        when(resultSet.getInt("ano")).thenReturn(2000);
+        when(resultSet.getInt("duracion")).thenReturn(100);
+        when(resultSet.getString("genero")).thenReturn("Drama");
+        
+        // Execute: el 3 se repite y el 2 no existe
+        IntLinkedMap<Movie> result = movieDAO.findByIds(new int[] {3, 2, 1, 3});
+        
+        // Verify: una sola consulta, lista rellenada a 4 con el ultimo ID
+        assertArrayEquals(new int[] {3, 1}, result.keys());
+        assertEquals("Cars", result.get(3).getTitle());
+        verify(connection).prepareStatement(
+            "SELECT id, titulo, director, ano, duracion, genero, version, created_at, updated_at FROM Cartelera"
+            + " WHERE id IN (?, ?, ?, ?) AND deleted_at IS NULL");
+        verify(preparedStatement).setInt(1, 3);
+        verify(preparedStatement).setInt(2, 2);
+        verify(preparedStatement, times(2)).setInt(anyInt(), eq(1));
+    }
+    
+    @Test
+    void testFindByIdsSplitsIntoBoundedChunks() throws SQLException {
+        // Setup
+        int[] ids = new int[DatabaseConfig.MAX_IN_LIST_SIZE + 10];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        when(resultSet.next()).thenReturn(false);
+        
+        // Execute
+        IntLinkedMap<Movie> result = movieDAO.findByIds(ids);
+        
+        // Verify: dos consultas sobre la misma conexion, ninguna supera el maximo
+        assertTrue(result.isEmpty());
+        verify(dbConnection, times(1)).getConnection();
+        verify(connection).prepareStatement(MovieDAOImpl.buildFindByIdsQuery(DatabaseConfig.MAX_IN_LIST_SIZE));
+        verify(connection).prepareStatement(MovieDAOImpl.buildFindByIdsQuery(16));
+        assertEquals(16, MovieDAOImpl.inListSize(10));
+        assertEquals(1, MovieDAOImpl.inListSize(1));
+    }
+    
     @Test
     void testExists() throws SQLException {
         // Setup
@@ -206,6 +321,323 @@ class MovieDAOImplTest {
         verify(preparedStatement).executeQuery();
     }
     
+    @Test
+    void testConnectionReturnedToPool() throws SQLException {
+        // Setup
+        when(resultSet.next()).thenReturn(false);
+        
+        // Execute
+        movieDAO.findById(1);
+        movieDAO.exists(1);
+        
+        // Verify: cada operacion cierra (devuelve al pool) su conexion
+        verify(connection, times(2)).close();
+        verify(preparedStatement, times(2)).close();
+        verify(resultSet, times(2)).close();
+    }
+    
+    @Test
+    void testSearchBuildsQueryFromSetFilters() throws SQLException {
+        // Setup
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setTitle("Matrix");
+        criteria.setGenre("Accion");
+        criteria.setYearFrom(1990);
+        criteria.setSortField(MovieSearchCriteria.SortField.YEAR);
+        criteria.setAscending(false);
+        criteria.setLimit(50);
+        when(resultSet.next()).thenReturn(false);
+        
+        // Execute
+        List<Movie> result = movieDAO.search(criteria);
+        
+        // Verify: una sola consulta con solo los filtros establecidos
+        assertTrue(result.isEmpty());
+        verify(connection).prepareStatement(
+            "SELECT id, titulo, director, ano, duracion, genero, version, created_at, updated_at FROM Cartelera"
+            + " WHERE deleted_at IS NULL AND titulo LIKE ? AND genero = ? AND ano >= ?"
+            + " ORDER BY ano DESC, id DESC LIMIT ?");
+        verify(preparedStatement).setString(1, "%Matrix%");
+        verify(preparedStatement).setString(2, "Accion");
+        verify(preparedStatement).setInt(3, 1990);
+        verify(preparedStatement).setInt(4, 50);
+    }
+    
+    @Test
+    void testSearchWithoutFilters() {
+        List<Object> params = new ArrayList<>();
+        
+        String sql = movieDAO.buildSearchQuery(new MovieSearchCriteria(), params);
+        
+        assertEquals("SELECT id, titulo, director, ano, duracion, genero, version, created_at, updated_at FROM Cartelera"
+            + " WHERE deleted_at IS NULL ORDER BY titulo ASC, id ASC", sql);
+        assertTrue(params.isEmpty());
+    }
+    
+    @Test
+    void testSearchInvalidYearRange() {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setYearFrom(2020);
+        criteria.setYearTo(2000);
+        
+        assertThrows(IllegalArgumentException.class, () -> movieDAO.search(criteria));
+    }
+    
+    @Test
+    void testFindPageReturnsCursorForNextPage() throws SQLException {
+        // Setup: se piden 2 filas y la consulta devuelve 3 (una extra)
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getInt("id")).thenReturn(1, 2, 3);
+        when(resultSet.getString("titulo")).thenReturn("Alien", "Batman", "Cars");
+        when(resultSet.getString("director")).thenReturn("Director");
+        when(resultSet.getInt("ano")).thenReturn(2000);
+        when(resultSet.getInt("duracion")).thenReturn(100);
+        when(resultSet.getString("genero")).thenReturn("Drama");
+        
+        // Execute
+        MoviePage page = movieDAO.findPage(null, null, 2, false);
+        
+        // Verify
+        assertEquals(2, page.size());
+        assertTrue(page.hasNext());
+        assertFalse(page.hasEstimatedTotal());
+        verify(preparedStatement).setInt(1, 3);
+        
+        Object[] position = MovieDAOImpl.decodeCursor(page.getNextCursor());
+        assertEquals("Batman", position[0]);
+        assertEquals(2, position[1]);
+    }
+    
+    @Test
+    void testFindPageEstimatesTotalWithoutCounting() throws SQLException {
+        // Setup: una fila de pagina y luego la fila de estadisticas
+        when(resultSet.next()).thenReturn(true, false, true);
+        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getString("titulo")).thenReturn("Alien");
+        when(resultSet.getString("genero")).thenReturn("Drama");
+        when(resultSet.getLong("total")).thenReturn(250000L);
+        
+        // Execute
+        MoviePage page = movieDAO.findPage(null, null, 20, true);
+        
+        // Verify: sin filtros no se recorre la tabla con COUNT(*)
+        assertEquals(250000, page.getEstimatedTotal());
+        verify(connection).prepareStatement(contains("information_schema.TABLES"));
+        verify(connection, never()).prepareStatement(contains("COUNT(*)"));
+    }
+    
+    @Test
+    void testFindPageCountsFilteredTotal() throws SQLException {
+        // Setup
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setGenre("Drama");
+        when(resultSet.next()).thenReturn(false, true);
+        when(resultSet.getInt("total")).thenReturn(12);
+        
+        // Execute
+        MoviePage page = movieDAO.findPage(criteria, null, 20, true);
+        
+        // Verify
+        assertEquals(12, page.getEstimatedTotal());
+        verify(connection).prepareStatement(contains("COUNT(*)"));
+        verify(connection, never()).prepareStatement(contains("information_schema"));
+    }
+    
+    @Test
+    void testBuildPageQueryUsesKeysetInsteadOfOffset() {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setGenre("Drama");
+        List<Object> params = new ArrayList<>();
+        
+        String sql = movieDAO.buildPageQuery(criteria, MovieDAOImpl.encodeCursor("Batman", 7), 20, params);
+        
+        assertEquals("SELECT id, titulo, director, ano, duracion, genero, version, created_at, updated_at FROM Cartelera"
+            + " WHERE deleted_at IS NULL AND genero = ? AND (titulo > ? OR (titulo = ? AND id > ?))"
+            + " ORDER BY titulo ASC, id ASC LIMIT ?", sql);
+        assertEquals(List.of("Drama", "Batman", "Batman", 7, 21), params);
+        assertFalse(sql.contains("OFFSET"));
+    }
+    
+    @Test
+    void testInvalidPageCursor() {
+        assertThrows(IllegalArgumentException.class, () -> movieDAO.findPage(null, "no-es-un-cursor", 10, false));
+    }
+    
+    @Test
+    void testStreamAllUsesStreamingCursorAndReleasesConnection() throws SQLException {
+        // Setup
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+            .thenReturn(preparedStatement);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt("id")).thenReturn(1, 2);
+        when(resultSet.getString("titulo")).thenReturn("Alien", "Batman");
+        
+        // Execute
+        List<String> titles;
+        try (Stream<Movie> movies = movieDAO.streamAll()) {
+            titles = movies.map(Movie::getTitle).collect(Collectors.toList());
+            verify(connection, never()).close();
+        }
+        
+        // Verify
+        assertEquals(List.of("Alien", "Batman"), titles);
+        verify(preparedStatement).setFetchSize(Integer.MIN_VALUE);
+        verify(resultSet).close();
+        verify(preparedStatement).close();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testStreamAllConsumerReleasesConnectionOnError() throws SQLException {
+        // Setup
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+            .thenReturn(preparedStatement);
+        when(resultSet.next()).thenReturn(true).thenThrow(new SQLException("conexion perdida"));
+        
+        // Execute
+        assertThrows(SQLException.class, () -> movieDAO.streamAll(movie -> { }));
+        
+        // Verify
+        verify(connection).close();
+    }
+    
+    @Test
+    void testCreateAllBatchesInOneTransaction() throws SQLException {
+        // Setup: 3 peliculas en lotes de 2
+        movieDAO.setBatchSize(2);
+        List<Movie> movies = new ArrayList<>(List.of(
+            new Movie("Alien", "Ridley Scott", 1979, 117, "Terror"),
+            new Movie("Batman", "Tim Burton", 1989, 126, "Accion"),
+            new Movie("Cars", "John Lasseter", 2006, 117, "Animacion")));
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeBatch()).thenReturn(new int[] {1, 1}, new int[] {1});
+        when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(10, 11, 12);
+        
+        // Execute
+        int created = movieDAO.createAll(movies);
+        
+        // Verify
+        assertEquals(3, created);
+        assertEquals(10, movies.get(0).getId());
+        assertEquals(11, movies.get(1).getId());
+        assertEquals(12, movies.get(2).getId());
+        verify(preparedStatement, times(3)).addBatch();
+        verify(preparedStatement, times(2)).executeBatch();
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+    }
+    
+    @Test
+    void testDeleteAllRollsBackOnError() throws SQLException {
+        // Setup
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeBatch()).thenThrow(new SQLException("fallo en lote"));
+        
+        // Execute
+        assertThrows(SQLException.class, () -> movieDAO.deleteAll(new int[] {1, 2, 3}));
+        
+        // Verify
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+    }
+    
+    @Test
+    void testUpdateAllSumsAffectedRows() throws SQLException {
+        // Setup
+        Movie other = new Movie(2, "Otra", "Director", 2000, 90, "Drama");
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeBatch()).thenReturn(new int[] {1, Statement.SUCCESS_NO_INFO});
+        
+        // Execute
+        int updated = movieDAO.updateAll(List.of(testMovie, other));
+        
+        // Verify
+        assertEquals(2, updated);
+        verify(preparedStatement).setInt(6, 1);
+        verify(preparedStatement).setInt(6, 2);
+        verify(connection).commit();
+    }
+    
+    @Test
+    void testUpdateAllChecksVersions() throws SQLException {
+        // Setup
+        testMovie.setVersion(4);
+        Movie other = new Movie(2, "Otra", "Director", 2000, 90, "Drama");
+        other.setVersion(7);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeBatch()).thenReturn(new int[] {1, 1});
+        
+        // Execute
+        int updated = movieDAO.updateAll(List.of(testMovie, other));
+        
+        // Verify
+        assertEquals(2, updated);
+        verify(connection).prepareStatement(contains("AND version = ?"));
+        verify(preparedStatement).setInt(7, 4);
+        verify(preparedStatement).setInt(7, 7);
+        verify(connection).commit();
+        assertEquals(5, testMovie.getVersion());
+        assertEquals(8, other.getVersion());
+    }
+    
+    @Test
+    void testUpdateAllRollsBackOnVersionConflict() throws SQLException {
+        // Setup: la segunda pelicula fue modificada por otro usuario
+        testMovie.setVersion(4);
+        Movie other = new Movie(2, "Otra", "Director", 2000, 90, "Drama");
+        other.setVersion(7);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeBatch()).thenReturn(new int[] {1, 0});
+        
+        // Execute
+        SQLException thrown = assertThrows(SQLException.class, () -> movieDAO.updateAll(List.of(testMovie, other)));
+        
+        // Verify
+        assertTrue(thrown.getMessage().contains("1 peliculas fueron modificadas"));
+        assertTrue(thrown.getMessage().contains("[2]"));
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        assertEquals(4, testMovie.getVersion());
+        assertEquals(7, other.getVersion());
+    }
+    
+    @Test
+    void testFindByTitleFullText() throws SQLException {
+        // Setup
+        when(resultSet.next()).thenReturn(false);
+        
+        // Execute
+        movieDAO.findByTitle("caballero  osc", true);
+        
+        // Verify
+        verify(connection).prepareStatement(contains("MATCH(titulo) AGAINST (? IN BOOLEAN MODE)"));
+        verify(preparedStatement).setString(1, "+caballero* +osc*");
+    }
+    
+    @Test
+    void testFullTextQueryStripsOperatorsAndShortWords() {
+        assertEquals("+Padrino*", MovieDAOImpl.toFullTextQuery("El -Padrino\""));
+        assertNull(MovieDAOImpl.toFullTextQuery("El a"));
+    }
+    
+    @Test
+    void testFindByTitleFullTextFallsBackToLike() throws SQLException {
+        // Setup: ninguna palabra alcanza el tamaño indexado
+        when(resultSet.next()).thenReturn(false);
+        
+        // Execute
+        movieDAO.findByTitle("Up", true);
+        
+        // Verify
+        verify(connection).prepareStatement(contains("titulo LIKE ?"));
+        verify(preparedStatement).setString(1, "%Up%");
+    }
+    
     @Test
     void testCount() throws SQLException {
         // Setup
@@ -212,4 +212,43 @@ public class MovieTest {
         assertTrue(toString.contains("duration=2h"));
         assertTrue(toString.contains("genre='Drama'"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Debe generar claves de búsqueda sin tildes ni mayúsculas")
+    void testSearchKeys() {
+        Movie movie = new Movie(1, "El Niño Pez", "Lucía Puenzo", 2009, 96, "Animación");
+        
+        assertEquals("el nino pez", movie.getTitleKey());
+        assertEquals("lucia puenzo", movie.getDirectorKey());
+        assertEquals("animacion", movie.getGenreKey());
+        assertSame(movie.getTitleKey(), movie.getTitleKey());
+        
+        // El género de los datos iniciales con tilde es válido
+        assertTrue(movie.validate().isValid());
+        
+        // Cambiar el texto recalcula la clave
+        movie.setTitle("Ágora");
+        assertEquals("agora", movie.getTitleKey());
+    }
+
+    @Test
+    @DisplayName("Debe copiar todos los campos en una instancia independiente")
+    void testCopy() {
+        Movie movie = new Movie(1, "El Padrino", "Francis Ford Coppola", 1972, 175, "Drama");
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime updated = LocalDateTime.of(2024, 6, 1, 10, 0);
+        movie.setVersion(3);
+        movie.setCreatedAt(created);
+        movie.setUpdatedAt(updated);
+
+        Movie copy = movie.copy();
+        copy.setTitle("Otro");
+
+        assertNotSame(movie, copy);
+        assertEquals("El Padrino", movie.getTitle());
+        assertEquals(3, copy.getVersion());
+        assertEquals(created, copy.getCreatedAt());
+        assertEquals("Francis Ford Coppola", copy.getDirector());
+        assertEquals(updated, movie.getUpdatedAt());
+    }
+}
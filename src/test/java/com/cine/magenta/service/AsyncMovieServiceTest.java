@@ -0,0 +1,94 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para AsyncMovieService")
+class AsyncMovieServiceTest {
+
+    @Mock
+    private MovieService mockService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Debe ejecutar lecturas independientes en paralelo")
+    void testParallelReads() throws Exception {
+        when(mockService.getTotalMovies()).thenReturn(3);
+        when(mockService.getMoviesByGenre("Drama")).thenReturn(List.of(new Movie(1, "El Padrino", "Coppola", 1972, 175, "Drama")));
+
+        AsyncMovieService asyncService = new AsyncMovieService(mockService, executor, 2);
+        CompletableFuture<Integer> total = asyncService.getTotalMovies();
+        CompletableFuture<List<Movie>> dramas = asyncService.getMoviesByGenre("Drama");
+
+        assertEquals(3, total.get(5, TimeUnit.SECONDS));
+        assertEquals("El Padrino", dramas.get(5, TimeUnit.SECONDS).get(0).getTitle());
+    }
+
+    @Test
+    @DisplayName("Debe limitar las operaciones simultaneas y encolar el resto")
+    void testConcurrencyBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockService.movieExists(anyInt())).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+
+        AsyncMovieService asyncService = new AsyncMovieService(mockService, executor, 1);
+        CompletableFuture<Boolean> first = asyncService.movieExists(1);
+        CompletableFuture<Boolean> second = asyncService.movieExists(2);
+
+        assertEquals(1, asyncService.getActiveCount());
+        assertEquals(1, asyncService.getQueuedCount());
+
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        verify(mockService, times(2)).movieExists(anyInt());
+    }
+
+    @Test
+    @DisplayName("Debe conservar la excepcion original del servicio")
+    void testFailurePropagated() throws Exception {
+        when(mockService.getAllMovies()).thenThrow(new SQLException("sin conexion"));
+
+        AsyncMovieService asyncService = new AsyncMovieService(mockService, executor, 2);
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+            () -> asyncService.getAllMovies().get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(SQLException.class, thrown.getCause());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.util.IntLinkedMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para CachingMovieService")
+class CachingMovieServiceTest {
+
+    @Mock
+    private MovieService mockService;
+
+    private CachingMovieService cachingService;
+    private Movie testMovie;
+
+    @BeforeEach
+    void setUp() {
+        cachingService = new CachingMovieService(mockService, 60000);
+        testMovie = new Movie(1, "Título de Prueba", "Director de Prueba", 2020, 120, "Drama");
+    }
+
+    @Test
+    @DisplayName("Debe resolver la segunda lectura por ID desde el cache")
+    void testGetMovieByIdCached() throws Exception {
+        when(mockService.getMovieById(1)).thenReturn(testMovie);
+
+        Movie first = cachingService.getMovieById(1);
+        Movie second = cachingService.getMovieById(1);
+
+        assertEquals("Título de Prueba", second.getTitle());
+        assertNotSame(first, second);
+        verify(mockService, times(1)).getMovieById(1);
+        assertEquals(1, cachingService.getHitCount());
+        assertEquals(1, cachingService.getMissCount());
+        assertEquals(0.5, cachingService.getHitRate(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Debe leer la versión actual sin usar la copia cacheada")
+    void testRefreshMovieBypassesCache() throws Exception {
+        when(mockService.getMovieById(1)).thenReturn(testMovie);
+        cachingService.getMovieById(1);
+
+        Movie edited = testMovie.copy();
+        edited.setTitle("Editada por otro cliente");
+        when(mockService.refreshMovie(1)).thenReturn(edited);
+
+        assertEquals("Editada por otro cliente", cachingService.refreshMovie(1).getTitle());
+        // La fila leida reemplaza a la cacheada
+        assertEquals("Editada por otro cliente", cachingService.getMovieById(1).getTitle());
+        verify(mockService, times(1)).getMovieById(1);
+        verify(mockService).refreshMovie(1);
+    }
+
+    @Test
+    @DisplayName("Debe pedir al servicio solo los IDs que faltan en el cache")
+    void testGetMoviesByIdsUsesCache() throws Exception {
+        when(mockService.getMovieById(1)).thenReturn(testMovie);
+        cachingService.getMovieById(1);
+
+        IntLinkedMap<Movie> loaded = new IntLinkedMap<>();
+        loaded.put(2, new Movie(2, "Alien", "Ridley Scott", 1979, 117, "Terror"));
+        when(mockService.getMoviesByIds(new int[] {2, 5})).thenReturn(loaded);
+
+        IntLinkedMap<Movie> result = cachingService.getMoviesByIds(new int[] {2, 1, 5});
+
+        assertArrayEquals(new int[] {2, 1}, result.keys());
+        assertEquals("Título de Prueba", result.get(1).getTitle());
+        assertEquals("Alien", cachingService.getMovieById(2).getTitle());
+        verify(mockService, never()).getMovieById(2);
+    }
+
+    @Test
+    @DisplayName("Debe cargar el catálogo una vez y llenar el cache por ID")
+    void testGetAllMoviesCached() throws Exception {
+        List<Movie> movies = new ArrayList<>();
+        movies.add(testMovie);
+        when(mockService.getAllMovies()).thenReturn(movies);
+
+        cachingService.getAllMovies().clear();
+        List<Movie> again = cachingService.getAllMovies();
+        Movie byId = cachingService.getMovieById(1);
+
+        assertEquals(1, again.size());
+        assertEquals(1, byId.getId());
+        verify(mockService, times(1)).getAllMovies();
+        verify(mockService, never()).getMovieById(anyInt());
+    }
+
+    @Test
+    @DisplayName("Debe invalidar el catálogo al crear, actualizar y eliminar")
+    void testWritesInvalidate() throws Exception {
+        when(mockService.getAllMovies()).thenReturn(new ArrayList<>(List.of(testMovie)));
+        when(mockService.createMovie(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockService.updateMovie(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockService.deleteMovie(1)).thenReturn(true);
+        when(mockService.getMovieById(1)).thenReturn(testMovie);
+
+        cachingService.getAllMovies();
+        cachingService.createMovie(new Movie(2, "Nueva", "Director", 2021, 100, "Comedia"));
+        cachingService.getAllMovies();
+
+        Movie updated = new Movie(1, "Título Cambiado", "Director de Prueba", 2020, 120, "Drama");
+        cachingService.updateMovie(updated);
+        assertEquals("Título Cambiado", cachingService.getMovieById(1).getTitle());
+        cachingService.getAllMovies();
+
+        cachingService.deleteMovie(1);
+        cachingService.getMovieById(1);
+        cachingService.getAllMovies();
+
+        verify(mockService, times(4)).getAllMovies();
+        verify(mockService, times(1)).getMovieById(1);
+    }
+
+    @Test
+    @DisplayName("No debe guardar una lectura que empezó antes de una escritura concurrente")
+    void testReadDuringWriteNotStored() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        when(mockService.getAllMovies()).thenAnswer(invocation -> {
+            reading.countDown();
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            return new ArrayList<>(List.of(testMovie));
+        });
+        Movie updated = new Movie(1, "Título Cambiado", "Director de Prueba", 2020, 120, "Drama");
+        when(mockService.updateMovie(any(Movie.class))).thenReturn(updated);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Movie>> reader = executor.submit(() -> cachingService.getAllMovies());
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+            cachingService.updateMovie(updated);
+            written.countDown();
+            assertEquals("Título de Prueba", reader.get(5, TimeUnit.SECONDS).get(0).getTitle());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // La lectura anterior no reemplaza la pelicula escrita ni deja el catalogo cacheado
+        assertEquals("Título Cambiado", cachingService.getMovieById(1).getTitle());
+        verify(mockService, never()).getMovieById(anyInt());
+        assertTrue(cachingService.getCacheStats().contains("no cargado"));
+    }
+
+    @Test
+    @DisplayName("No debe exponer la instancia cacheada al llamador")
+    void testReturnedMovieIsCopy() throws Exception {
+        when(mockService.getMovieById(1)).thenReturn(testMovie);
+
+        cachingService.getMovieById(1).setTitle("Modificada");
+
+        assertEquals("Título de Prueba", cachingService.getMovieById(1).getTitle());
+    }
+}
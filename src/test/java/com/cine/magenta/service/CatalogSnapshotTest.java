@@ -0,0 +1,223 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para CatalogSnapshot")
+class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new CatalogSnapshot(List.of(
+            new Movie(7, "Toy Story", "John Lasseter", 1995, 81, "Animación"),
+            new Movie(3, "Alien", "Ridley Scott", 1979, 117, "Terror"),
+            new Movie(5, "Blade Runner", "Ridley Scott", 1982, 117, "Ciencia Ficcion"),
+            new Movie(9, "Coco", "Lee Unkrich", 2017, 105, "Animacion")));
+    }
+
+    @Test
+    @DisplayName("Debe ordenar las filas por ID y codificar los géneros sin tildes")
+    void testColumnsAndDictionary() {
+        assertEquals(4, snapshot.size());
+        assertEquals(3, snapshot.getId(0));
+        assertEquals(9, snapshot.getId(3));
+        assertEquals(3, snapshot.getGenreCount());
+        assertEquals(snapshot.genreCode("Animación"), snapshot.genreCode("ANIMACION"));
+        assertEquals(-1, snapshot.genreCode("Documental"));
+
+        Movie rebuilt = snapshot.getMovie(1);
+        assertEquals(5, rebuilt.getId());
+        assertEquals("Blade Runner", rebuilt.getTitle());
+        assertEquals("Ridley Scott", rebuilt.getDirector());
+        assertNotSame(rebuilt, snapshot.getMovie(1));
+    }
+
+    @Test
+    @DisplayName("Debe conservar la grafia del género de cada película")
+    void testGenreSpellingPerRow() {
+        // Toy Story y Coco comparten codigo aunque su genero se escribio distinto
+        assertEquals(snapshot.genreCode("Animación"), snapshot.genreCode("Animacion"));
+        assertEquals("Animación", snapshot.getMovie(2).getGenre());
+        assertEquals("Animacion", snapshot.getMovie(3).getGenre());
+    }
+
+    @Test
+    @DisplayName("Debe conservar las fechas de creación y actualización al reconstruir")
+    void testTimestampsSurviveRebuild() {
+        Movie dated = new Movie(4, "Heat", "Michael Mann", 1995, 170, "Accion");
+        dated.setCreatedAt(LocalDateTime.of(2024, 3, 10, 2, 30, 15, 123_000_000));
+        dated.setUpdatedAt(LocalDateTime.of(2025, 11, 2, 1, 45, 0, 7_000_000));
+        Movie undated = new Movie(6, "Ran", "Akira Kurosawa", 1985, 162, "Drama");
+        undated.setCreatedAt(null);
+        undated.setUpdatedAt(null);
+
+        CatalogSnapshot dates = new CatalogSnapshot(List.of(undated, dated));
+
+        Movie rebuilt = dates.getMovie(0);
+        assertEquals(dated.getCreatedAt(), rebuilt.getCreatedAt());
+        assertEquals(dated.getUpdatedAt(), rebuilt.getUpdatedAt());
+        assertNull(dates.getMovie(1).getCreatedAt());
+        assertNull(dates.getMovie(1).getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Debe combinar filtros de columnas como conjuntos de filas")
+    void testCombinedFilters() {
+        BitSet rows = snapshot.filterGenre("animacion");
+        rows.and(snapshot.filterYearRange(2000, 2100));
+
+        List<Movie> movies = snapshot.getMoviesByTitle(rows);
+        assertEquals(1, movies.size());
+        assertEquals("Coco", movies.get(0).getTitle());
+
+        assertEquals(2, snapshot.filterDurationRange(110, 120).cardinality());
+        assertTrue(snapshot.filterGenre("Documental").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe traducir IDs a filas y devolver las películas por título")
+    void testRowsForIdsInTitleOrder() {
+        BitSet rows = snapshot.rowsForIds(new int[] {3, 4, 7, 9});
+
+        List<Movie> movies = snapshot.getMoviesByTitle(rows);
+        assertEquals(3, movies.size());
+        assertEquals("Alien", movies.get(0).getTitle());
+        assertEquals("Coco", movies.get(1).getTitle());
+        assertEquals("Toy Story", movies.get(2).getTitle());
+    }
+
+    @Test
+    @DisplayName("Debe resolver rangos de años en los bordes y contar por género")
+    void testYearIndexAndGenreCounts() {
+        assertEquals(1, snapshot.filterYearRange(1979, 1979).cardinality());
+        assertEquals(2, snapshot.filterYearRange(1979, 1982).cardinality());
+        assertEquals(4, snapshot.filterYearRange(Integer.MIN_VALUE, Integer.MAX_VALUE).cardinality());
+        assertTrue(snapshot.filterYearRange(1983, 1994).isEmpty());
+        assertTrue(snapshot.filterYearRange(2000, 1990).isEmpty());
+
+        int[] counts = snapshot.countByGenre(snapshot.filterYearRange(1980, 2020));
+        assertEquals(2, counts[snapshot.genreCode("Animacion")]);
+        assertEquals(1, counts[snapshot.genreCode("Ciencia Ficcion")]);
+        assertEquals(0, counts[snapshot.genreCode("Terror")]);
+    }
+
+    @Test
+    @DisplayName("Debe corregir la copia al guardar una película sin modificar la original")
+    void testWithMoviePatchesRows() {
+        Movie updated = new Movie(5, "Zodiac", "David Fincher", 2007, 157, "Suspenso");
+        CatalogSnapshot patched = snapshot
+            .withMovie(updated)
+            .withMovie(new Movie(4, "Akira", "Katsuhiro Otomo", 1988, 124, "Animacion"))
+            .withMovie(new Movie(12, "Heat", "Michael Mann", 1995, 170, "Accion"));
+
+        assertEquals(6, patched.size());
+        assertEquals(4, patched.getId(1));
+        assertEquals(12, patched.getId(5));
+        assertEquals("Zodiac", patched.getMovie(2).getTitle());
+        assertEquals("Suspenso", patched.getGenreName(patched.genreCode("suspenso")));
+        assertEquals(3, patched.filterYearRange(1995, 2007).cardinality());
+        assertTrue(patched.filterGenre("Ciencia Ficcion").isEmpty());
+        assertEquals(3, patched.filterGenre("Animacion").cardinality());
+
+        List<Movie> movies = patched.getMoviesByTitle(patched.allRows());
+        assertEquals(List.of("Akira", "Alien", "Coco", "Heat", "Toy Story", "Zodiac"),
+            movies.stream().map(Movie::getTitle).collect(Collectors.toList()));
+
+        assertEquals(4, snapshot.size());
+        assertEquals("Blade Runner", snapshot.getMovie(1).getTitle());
+        assertEquals(-1, snapshot.genreCode("Suspenso"));
+    }
+
+    @Test
+    @DisplayName("Debe corregir la copia al eliminar una película")
+    void testWithoutMoviePatchesRows() {
+        CatalogSnapshot patched = snapshot.withoutMovie(5);
+
+        assertEquals(3, patched.size());
+        assertEquals(7, patched.getId(1));
+        assertTrue(patched.filterGenre("Ciencia Ficcion").isEmpty());
+        assertEquals(2, patched.filterGenre("Animacion").cardinality());
+        assertTrue(patched.filterYearRange(1980, 1990).isEmpty());
+        assertSame(patched, patched.withoutMovie(5));
+        assertEquals(4, snapshot.size());
+    }
+
+    @Test
+    @DisplayName("Debe coincidir con una reconstrucción tras muchas correcciones")
+    void testPatchesMatchRebuild() {
+        Random random = new Random(42);
+        String[] genres = {"Drama", "Terror", "Comedia", "Animación", "Animacion", "Accion"};
+        Map<Integer, Movie> movies = new LinkedHashMap<>();
+        CatalogSnapshot patched = new CatalogSnapshot(List.of());
+
+        // Mas de 64 filas para que las correcciones crucen palabras de los mapas de bits
+        for (int i = 0; i < 600; i++) {
+            int id = 1 + random.nextInt(150);
+            if (random.nextInt(4) == 0) {
+                movies.remove(id);
+                patched = patched.withoutMovie(id);
+            } else {
+                Movie movie = new Movie(id, "Titulo " + random.nextInt(40), "Director " + random.nextInt(10),
+                    1950 + random.nextInt(70), 80 + random.nextInt(100), genres[random.nextInt(genres.length)]);
+                movies.put(id, movie);
+                patched = patched.withMovie(movie);
+            }
+        }
+
+        assertSameCatalog(new CatalogSnapshot(movies.values()), patched);
+    }
+
+    /**
+     * Compara dos copias por sus filas, filtros y orden por titulo.
+     */
+    private static void assertSameCatalog(CatalogSnapshot expected, CatalogSnapshot actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            Movie movie = expected.getMovie(row);
+            Movie other = actual.getMovie(row);
+            assertEquals(movie.getId(), other.getId());
+            assertEquals(movie.getTitle(), other.getTitle());
+            assertEquals(movie.getDirector(), other.getDirector());
+            assertEquals(movie.getGenre(), other.getGenre());
+            assertEquals(movie.getYear(), other.getYear());
+            assertEquals(movie.getDuration(), other.getDuration());
+        }
+        for (int year = 1950; year < 2020; year += 7) {
+            assertEquals(expected.filterYearRange(year, year + 10), actual.filterYearRange(year, year + 10));
+        }
+        for (int code = 0; code < expected.getGenreCount(); code++) {
+            String genre = expected.getGenreName(code);
+            assertEquals(expected.filterGenre(genre), actual.filterGenre(genre));
+        }
+
+        List<Integer> expectedOrder = new ArrayList<>();
+        expected.getMoviesByTitle(expected.allRows()).forEach(movie -> expectedOrder.add(movie.getId()));
+        List<Integer> actualOrder = new ArrayList<>();
+        actual.getMoviesByTitle(actual.allRows()).forEach(movie -> actualOrder.add(movie.getId()));
+        assertEquals(expectedOrder, actualOrder);
+
+        // Pocas filas usan el orden de sus posiciones en lugar de recorrer todo el catalogo
+        BitSet few = expected.filterYearRange(1960, 1961);
+        assertEquals(expected.getMoviesByTitle(few).stream().map(Movie::getId).collect(Collectors.toList()),
+            actual.getMoviesByTitle(few).stream().map(Movie::getId).collect(Collectors.toList()));
+    }
+}
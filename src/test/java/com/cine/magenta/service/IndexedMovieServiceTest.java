@@ -0,0 +1,228 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MovieChanges;
+import com.cine.magenta.model.MovieSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para IndexedMovieService")
+class IndexedMovieServiceTest {
+
+    @Mock
+    private MovieService mockService;
+
+    private IndexedMovieService indexedService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        indexedService = new IndexedMovieService(mockService, 60000);
+        List<Movie> catalog = new ArrayList<>();
+        catalog.add(new Movie(1, "Pulp Fiction", "Quentin Tarantino", 1994, 154, "Drama"));
+        catalog.add(new Movie(2, "El Padrino", "Francis Ford Coppola", 1972, 175, "Drama"));
+        catalog.add(new Movie(3, "Kill Bill", "Quentin Tarantino", 2003, 111, "Accion"));
+        when(mockService.getAllMovies()).thenReturn(catalog);
+    }
+
+    @Test
+    @DisplayName("Debe responder búsquedas por título y director desde el índice")
+    void testSearchFromIndex() throws Exception {
+        List<Movie> byTitle = indexedService.searchMoviesByTitle("padr");
+        List<Movie> byDirector = indexedService.getMoviesByDirector("tarantino");
+
+        assertEquals(1, byTitle.size());
+        assertEquals("El Padrino", byTitle.get(0).getTitle());
+        assertEquals(2, byDirector.size());
+        assertEquals("Kill Bill", byDirector.get(0).getTitle());
+        assertEquals(3, indexedService.getIndexedCount());
+
+        // El catálogo se carga una sola vez y no se usa LIKE en la base de datos
+        verify(mockService, times(1)).getAllMovies();
+        verify(mockService, never()).searchMoviesByTitle(anyString());
+        verify(mockService, never()).getMoviesByDirector(anyString());
+    }
+
+    @Test
+    @DisplayName("Debe mantener el índice con las escrituras")
+    void testIndexMaintainedOnWrites() throws Exception {
+        indexedService.searchMoviesByTitle("pulp");
+
+        Movie created = new Movie(4, "Jackie Brown", "Quentin Tarantino", 1997, 154, "Drama");
+        when(mockService.createMovie(any(Movie.class))).thenReturn(created);
+        indexedService.createMovie(new Movie("Jackie Brown", "Quentin Tarantino", 1997, 154, "Drama"));
+
+        Movie renamed = new Movie(1, "Tiempos Violentos", "Quentin Tarantino", 1994, 154, "Drama");
+        when(mockService.updateMovie(renamed)).thenReturn(renamed);
+        indexedService.updateMovie(renamed);
+
+        when(mockService.deleteMovie(3)).thenReturn(true);
+        indexedService.deleteMovie(3);
+
+        assertTrue(indexedService.searchMoviesByTitle("pulp").isEmpty());
+        assertEquals(1, indexedService.searchMoviesByTitle("violentos").size());
+        List<Movie> byDirector = indexedService.getMoviesByDirector("tarantino");
+        assertEquals(2, byDirector.size());
+        assertEquals("Jackie Brown", byDirector.get(0).getTitle());
+        verify(mockService, times(1)).getAllMovies();
+    }
+
+    @Test
+    @DisplayName("Debe notificar los cambios del catálogo a los receptores registrados")
+    void testChangeListenerNotified() throws Exception {
+        SuggestionService suggestions = new SuggestionService();
+        indexedService.addChangeListener(suggestions);
+        indexedService.ensureIndexed();
+        assertEquals(List.of("Kill Bill"), suggestions.suggestTitles("kill", 5));
+
+        when(mockService.deleteMovie(3)).thenReturn(true);
+        indexedService.deleteMovie(3);
+        assertTrue(suggestions.suggestTitles("kill", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar filtros, orden y límite de los criterios")
+    void testSearchMoviesWithCriteria() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setDirector("quentin");
+        criteria.setYearFrom(1990);
+        criteria.setSortField(MovieSearchCriteria.SortField.YEAR);
+        criteria.setAscending(false);
+        criteria.setLimit(1);
+
+        List<Movie> result = indexedService.searchMovies(criteria);
+
+        assertEquals(1, result.size());
+        assertEquals("Kill Bill", result.get(0).getTitle());
+        verify(mockService, never()).searchMovies(any());
+    }
+
+    @Test
+    @DisplayName("Debe comparar título, director y género sin tildes ni mayúsculas")
+    void testAccentInsensitiveMatching() throws Exception {
+        Movie animated = new Movie(5, "Coco", "Lee Unkrich", 2017, 105, "Animación");
+        when(mockService.createMovie(any(Movie.class))).thenReturn(animated);
+        indexedService.ensureIndexed();
+        indexedService.createMovie(new Movie("Coco", "Lee Unkrich", 2017, 105, "Animación"));
+
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setTitle("COCO");
+        criteria.setGenre("Animacion");
+
+        assertEquals(1, indexedService.searchMovies(criteria).size());
+        assertEquals("El Padrino", indexedService.searchMoviesByTitle("padrí").get(0).getTitle());
+        assertEquals("Coco", indexedService.getMoviesByDirector("UNKRÍCH").get(0).getTitle());
+    }
+
+    @Test
+    @DisplayName("Debe resolver género y rango de años en memoria")
+    void testGenreAndYearFromSnapshot() throws Exception {
+        List<Movie> dramas = indexedService.getMoviesByGenre("drama");
+        List<Movie> seventies = indexedService.getMoviesByYearRange(1970, 1979);
+
+        assertEquals(2, dramas.size());
+        assertEquals("El Padrino", dramas.get(0).getTitle());
+        assertEquals(1, seventies.size());
+        assertThrows(IllegalArgumentException.class, () -> indexedService.getMoviesByYearRange(2000, 1990));
+        verify(mockService, never()).getMoviesByGenre(anyString());
+        verify(mockService, never()).getMoviesByYearRange(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Debe contar películas por género ignorando el filtro de género")
+    void testGenreCounts() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setDirector("tarantino");
+        criteria.setGenre("Drama");
+
+        Map<String, Integer> counts = indexedService.getGenreCounts(criteria);
+
+        assertEquals(1, counts.get("Drama"));
+        assertEquals(1, counts.get("Accion"));
+        assertEquals(3, indexedService.getGenreCounts(null).values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    @DisplayName("Debe sincronizar el índice vencido pidiendo solo los cambios")
+    void testExpiredIndexSyncsChanges() throws Exception {
+        IndexedMovieService shortLived = new IndexedMovieService(mockService, 1);
+        shortLived.ensureIndexed();
+        Thread.sleep(10);
+
+        Movie renamed = new Movie(1, "Tiempos Violentos", "Quentin Tarantino", 1994, 154, "Drama");
+        Instant watermark = Instant.now();
+        when(mockService.getChangesSince(any(Instant.class)))
+            .thenReturn(new MovieChanges(List.of(renamed), new int[] {3}, watermark));
+
+        assertEquals(1, shortLived.searchMoviesByTitle("violentos").size());
+        assertTrue(shortLived.searchMoviesByTitle("kill").isEmpty());
+        assertEquals(2, shortLived.getIndexedCount());
+        verify(mockService, times(1)).getAllMovies();
+    }
+
+    @Test
+    @DisplayName("Debe seguir buscando y aceptando escrituras mientras sincroniza el índice")
+    void testSyncDoesNotBlockSearchesOrWrites() throws Exception {
+        IndexedMovieService shortLived = new IndexedMovieService(mockService, 1);
+        shortLived.ensureIndexed();
+        Thread.sleep(10);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Movie renamed = new Movie(1, "Tiempos Violentos", "Quentin Tarantino", 1994, 154, "Drama");
+        when(mockService.getChangesSince(any(Instant.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new MovieChanges(List.of(renamed), new int[0], Instant.now());
+        });
+        Movie created = new Movie(4, "Jackie Brown", "Quentin Tarantino", 1997, 154, "Drama");
+        when(mockService.createMovie(any(Movie.class))).thenReturn(created);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> sync = executor.submit(() -> {
+                shortLived.ensureIndexed();
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Con la consulta en curso, las busquedas usan el indice vigente y las escrituras no esperan
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertEquals(1, shortLived.searchMoviesByTitle("pulp").size());
+                shortLived.createMovie(new Movie("Jackie Brown", "Quentin Tarantino", 1997, 154, "Drama"));
+            });
+
+            release.countDown();
+            sync.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, shortLived.searchMoviesByTitle("violentos").size());
+        assertEquals(1, shortLived.searchMoviesByTitle("jackie").size());
+        verify(mockService, times(1)).getAllMovies();
+    }
+}
@@ -6,6 +6,8 @@ package com.cine.magenta.service;
 
 import com.cine.magenta.dao.MovieDAO;
 import com.cine.magenta.model.Movie;
+import com.cine.magenta.model.MoviePage;
+import com.cine.magenta.model.MovieSearchCriteria;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -153,6 +155,55 @@ public class MovieServiceImplTest {
         verify(mockMovieDAO).findByTitle("Título");
     }
     
+    @Test
+    @DisplayName("Debe delegar la búsqueda combinada en una sola consulta del DAO")
+    void testSearchMoviesWithCriteria() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setDirector("Director 1");
+        criteria.setYearFrom(2000);
+        criteria.setYearTo(2022);
+        List<Movie> expectedMovies = new ArrayList<>();
+        expectedMovies.add(new Movie(1, "Título de Prueba", "Director 1", 2020, 120, "Drama"));
+        when(mockMovieDAO.search(criteria)).thenReturn(expectedMovies);
+        
+        List<Movie> results = movieService.searchMovies(criteria);
+        
+        assertEquals(expectedMovies, results);
+        verify(mockMovieDAO).search(criteria);
+        verify(mockMovieDAO, never()).findAll();
+    }
+    
+    @Test
+    @DisplayName("Debe obtener una página de películas y rechazar tamaños inválidos")
+    void testGetMoviesPage() throws Exception {
+        MoviePage expectedPage = new MoviePage(new ArrayList<>(), null, 0);
+        when(mockMovieDAO.findPage(null, null, 20, true)).thenReturn(expectedPage);
+        
+        assertSame(expectedPage, movieService.getMoviesPage(null, null, 20, true));
+        assertThrows(IllegalArgumentException.class, () -> movieService.getMoviesPage(null, null, 0, false));
+        verify(mockMovieDAO).findPage(null, null, 20, true);
+    }
+    
+    @Test
+    @DisplayName("Debe validar todas las películas antes de crear el lote")
+    void testCreateMoviesValidatesBeforeBatch() throws Exception {
+        Movie invalid = new Movie("", "Director", 2020, 120, "Drama");
+        List<Movie> movies = List.of(testMovie, invalid);
+        
+        assertThrows(IllegalArgumentException.class, () -> movieService.createMovies(movies));
+        verify(mockMovieDAO, never()).createAll(any());
+    }
+    
+    @Test
+    @DisplayName("Debe crear el lote de películas en una sola llamada al DAO")
+    void testCreateMovies() throws Exception {
+        List<Movie> movies = List.of(testMovie);
+        when(mockMovieDAO.createAll(movies)).thenReturn(1);
+        
+        assertSame(movies, movieService.createMovies(movies));
+        verify(mockMovieDAO).createAll(movies);
+    }
+    
     @Test
     @DisplayName("Debe actualizar película correctamente")
     void testUpdateMovie() throws Exception {
@@ -160,7 +211,6 @@ public class MovieServiceImplTest {
         Movie movieToUpdate = new Movie(1, "Título Actualizado", "Director Actualizado", 2021, 130, "Comedia");
         
         // Configurar el comportamiento del mock
-        when(mockMovieDAO.exists(1)).thenReturn(true);
         when(mockMovieDAO.update(any(Movie.class))).thenReturn(true);
         
         // Ejecutar el método a probar
@@ -172,29 +222,29 @@ public class MovieServiceImplTest {
         assertEquals(movieToUpdate.getTitle(), result.getTitle());
         
         // Verificar que se llamaron los métodos esperados
-        verify(mockMovieDAO).exists(1);
         verify(mockMovieDAO).update(movieToUpdate);
+        verify(mockMovieDAO, never()).exists(anyInt());
     }
     
     @Test
     @DisplayName("Debe lanzar excepción al actualizar película inexistente")
-    void testUpdateNonExistentMovie() throws SQLException {
+    void testUpdateNonExistentMovie() throws Exception {
         // Crear película con ID que no existe
         Movie nonExistentMovie = new Movie(999, "Título", "Director", 2020, 120, "Drama");
         
-        // Configurar el mock para indicar que la película no existe
-        when(mockMovieDAO.exists(999)).thenReturn(false);
+        // El UPDATE no afecta filas cuando la película no existe
+        when(mockMovieDAO.update(nonExistentMovie)).thenReturn(false);
         
         // Ejecutar el método y verificar que lanza excepción
         Exception exception = assertThrows(Exception.class, () -> movieService.updateMovie(nonExistentMovie));
         assertTrue(exception.getMessage().contains("No existe pelicula"));
+        assertEquals(WriteResult.NOT_FOUND, movieService.tryUpdateMovie(nonExistentMovie));
     }
     
     @Test
     @DisplayName("Debe eliminar película correctamente")
     void testDeleteMovie() throws Exception {
         // Configurar el comportamiento del mock
-        when(mockMovieDAO.exists(1)).thenReturn(true);
         when(mockMovieDAO.delete(1)).thenReturn(true);
         
         // Ejecutar el método a probar
@@ -204,8 +254,32 @@ public class MovieServiceImplTest {
         assertTrue(result);
         
         // Verificar que se llamaron los métodos esperados
-        verify(mockMovieDAO).exists(1);
         verify(mockMovieDAO).delete(1);
+        verify(mockMovieDAO, never()).exists(anyInt());
+    }
+    
+    @Test
+    @DisplayName("Debe informar CONFLICT si otro usuario modificó la película")
+    void testUpdateVersionConflict() throws Exception {
+        Movie staleMovie = new Movie(1, "Título", "Director", 2020, 120, "Drama");
+        staleMovie.setVersion(2);
+        
+        // La versión leída ya no coincide, pero la película existe
+        when(mockMovieDAO.update(staleMovie)).thenReturn(false);
+        when(mockMovieDAO.exists(1)).thenReturn(true);
+        
+        assertEquals(WriteResult.CONFLICT, movieService.tryUpdateMovie(staleMovie));
+        Exception exception = assertThrows(Exception.class, () -> movieService.updateMovie(staleMovie));
+        assertTrue(exception.getMessage().contains("modificada por otro usuario"));
+    }
+    
+    @Test
+    @DisplayName("Debe informar NOT_FOUND al eliminar película inexistente")
+    void testTryDeleteNonExistentMovie() throws Exception {
+        when(mockMovieDAO.delete(999)).thenReturn(false);
+        
+        assertEquals(WriteResult.NOT_FOUND, movieService.tryDeleteMovie(999));
+        assertThrows(Exception.class, () -> movieService.deleteMovie(999));
     }
     
     @Test
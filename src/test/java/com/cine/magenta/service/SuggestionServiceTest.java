@@ -0,0 +1,72 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.service;
+
+import com.cine.magenta.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para SuggestionService")
+class SuggestionServiceTest {
+
+    private SuggestionService suggestions;
+
+    @BeforeEach
+    void setUp() {
+        suggestions = new SuggestionService();
+        suggestions.catalogLoaded(List.of(
+            new Movie(1, "El Padrino", "Francis Ford Coppola", 1972, 175, "Drama"),
+            new Movie(2, "El Padrino II", "Francis Ford Coppola", 1974, 202, "Drama"),
+            new Movie(3, "Pulp Fiction", "Quentin Tarantino", 1994, 154, "Drama")));
+    }
+
+    @Test
+    @DisplayName("Debe sugerir por el inicio del texto o de cualquier palabra")
+    void testPrefixAndWordCompletions() {
+        assertEquals(List.of("El Padrino", "El Padrino II"), suggestions.suggestTitles("el p", 10));
+        assertEquals(List.of("El Padrino", "El Padrino II"), suggestions.suggestTitles("PADR", 10));
+        assertEquals(List.of("El Padrino"), suggestions.suggestTitles("padr", 1));
+        assertEquals(List.of("Quentin Tarantino"), suggestions.suggestDirectors("taran", 10));
+        assertTrue(suggestions.suggestTitles("", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe conservar un director compartido hasta retirar su última película")
+    void testSharedTextCounted() {
+        suggestions.movieDeleted(1);
+        assertEquals(List.of("Francis Ford Coppola"), suggestions.suggestDirectors("coppola", 10));
+
+        suggestions.movieDeleted(2);
+        assertTrue(suggestions.suggestDirectors("coppola", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe reemplazar los textos anteriores al actualizar una película")
+    void testMovieSavedReplacesTexts() {
+        suggestions.movieSaved(new Movie(3, "Tiempos Violentos", "Quentin Tarantino", 1994, 154, "Drama"));
+
+        assertTrue(suggestions.suggestTitles("pulp", 10).isEmpty());
+        assertEquals(List.of("Tiempos Violentos"), suggestions.suggestTitles("viol", 10));
+    }
+
+    @Test
+    @DisplayName("Debe mantener el orden al intercalar cambios y consultas")
+    void testChangesBetweenQueriesKeepOrder() {
+        assertEquals(List.of("El Padrino", "El Padrino II"), suggestions.suggestTitles("el", 10));
+
+        suggestions.movieSaved(new Movie(4, "El Ocaso", "Billy Wilder", 1950, 110, "Drama"));
+        assertEquals(List.of("El Ocaso", "El Padrino", "El Padrino II"), suggestions.suggestTitles("el", 10));
+
+        suggestions.movieSaved(new Movie(5, "El Apartamento", "Billy Wilder", 1960, 125, "Comedia"));
+        suggestions.movieDeleted(1);
+        assertEquals(List.of("El Apartamento", "El Ocaso", "El Padrino II"), suggestions.suggestTitles("el", 10));
+        assertEquals(List.of("El Apartamento"), suggestions.suggestTitles("el", 1));
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para ConnectionPool")
+class ConnectionPoolTest {
+
+    private static final String H2_URL = "jdbc:h2:mem:pool_test";
+
+    private final AtomicInteger created = new AtomicInteger();
+    private ConnectionPool pool;
+
+    private ConnectionPool newPool(int max, long timeoutMs) {
+        pool = new ConnectionPool(() -> {
+            created.incrementAndGet();
+            return DriverManager.getConnection(H2_URL);
+        }, max, timeoutMs, 30000, 4);
+        return pool;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.closeAll();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar la conexion devuelta por el mismo hilo")
+    void testReuseAfterRelease() throws SQLException {
+        newPool(3, 1000);
+
+        PoolEntry first = pool.borrow();
+        assertEquals(1, pool.getActiveCount());
+        pool.release(first);
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        PoolEntry second = pool.borrow();
+        assertSame(first, second);
+        assertEquals(1, created.get());
+        pool.release(second);
+    }
+
+    @Test
+    @DisplayName("No debe superar el maximo de conexiones con hilos concurrentes")
+    void testNeverExceedsMaximum() throws Exception {
+        newPool(3, 5000);
+        int threads = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 50; j++) {
+                        PoolEntry entry = pool.borrow();
+                        maxActive.accumulateAndGet(pool.getActiveCount(), Math::max);
+                        pool.release(entry);
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(0, errors.get());
+        assertTrue(created.get() <= 3, "Conexiones creadas: " + created.get());
+        assertTrue(pool.getTotalCount() <= 3);
+        assertTrue(maxActive.get() <= 3);
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    @DisplayName("Debe entregar la conexion devuelta a un hilo en espera")
+    void testHandoffToWaiter() throws Exception {
+        newPool(1, 5000);
+        PoolEntry held = pool.borrow();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<PoolEntry> future = executor.submit(() -> pool.borrow());
+
+        // Esperar a que el hilo quede en espera y devolver la conexion
+        while (pool.getWaitingCount() == 0) {
+            Thread.sleep(5);
+        }
+        pool.release(held);
+
+        PoolEntry received = future.get(5, TimeUnit.SECONDS);
+        assertSame(held, received);
+        pool.release(received);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe lanzar SQLException al agotar el tiempo de espera")
+    void testTimeout() throws SQLException {
+        newPool(1, 100);
+        PoolEntry held = pool.borrow();
+
+        assertThrows(SQLException.class, () -> pool.borrow());
+
+        pool.release(held);
+    }
+
+    @Test
+    @DisplayName("Debe descartar conexiones cerradas al devolverlas")
+    void testDiscardClosedConnection() throws SQLException {
+        newPool(2, 1000);
+        PoolEntry entry = pool.borrow();
+        Connection physical = entry.getConnection();
+        physical.close();
+
+        pool.release(entry);
+
+        assertEquals(0, pool.getTotalCount());
+        assertNotSame(entry, pool.borrow());
+    }
+
+    @Test
+    @DisplayName("Debe precargar conexiones libres hasta el minimo")
+    void testFillToMinimumIdle() throws SQLException {
+        newPool(3, 1000);
+
+        assertEquals(2, pool.fillToMinimumIdle(2));
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+
+        // Ya se cumple el minimo y no se supera el maximo
+        assertEquals(0, pool.fillToMinimumIdle(2));
+        assertEquals(1, pool.fillToMinimumIdle(5));
+        assertEquals(3, pool.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Debe cerrar conexiones inactivas conservando el minimo")
+    void testEvictIdle() throws Exception {
+        newPool(3, 1000);
+        pool.fillToMinimumIdle(3);
+        Thread.sleep(20);
+
+        assertEquals(2, pool.evictIdle(10, 1));
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Debe retirar conexiones caducadas sin afectar a las prestadas")
+    void testRetireExpired() throws Exception {
+        newPool(3, 1000);
+        pool.fillToMinimumIdle(1);
+        PoolEntry held = pool.borrow();
+        pool.fillToMinimumIdle(1);
+        Thread.sleep(20);
+
+        assertEquals(2, pool.retireExpired(10));
+        assertEquals(1, pool.getTotalCount());
+        assertFalse(held.getConnection().isClosed());
+
+        // La conexion prestada se cierra al devolverse
+        pool.release(held);
+        assertTrue(held.getConnection().isClosed());
+        assertEquals(0, pool.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Debe deshacer la transaccion abierta y restaurar la sesion al devolver la conexion")
+    void testReleaseResetsSession() throws SQLException {
+        newPool(1, 1000);
+
+        PoolEntry first = pool.borrow();
+        Connection conn = first.getConnection();
+        int defaultIsolation = conn.getTransactionIsolation();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS reset_test (id INT)");
+        }
+        conn.setAutoCommit(false);
+        first.recordIsolationChange(defaultIsolation);
+        conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO reset_test VALUES (1)");
+        }
+        pool.release(first);
+
+        // El siguiente prestamo no hereda la transaccion ni sus cambios
+        PoolEntry second = pool.borrow();
+        assertSame(first, second);
+        assertTrue(second.getConnection().getAutoCommit());
+        assertEquals(defaultIsolation, second.getConnection().getTransactionIsolation());
+        try (Statement stmt = second.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM reset_test")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+        pool.release(second);
+    }
+
+    @Test
+    @DisplayName("Debe mantener el formato de estado del pool")
+    void testPoolStatus() {
+        newPool(5, 1000);
+        String status = pool.getPoolStatus();
+
+        assertTrue(status.contains("Conexiones activas"));
+        assertTrue(status.contains("Disponibles"));
+        assertTrue(status.contains("Total"));
+        assertTrue(status.contains("Capacidad maxima: 5"));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para IntLinkedMap")
+class IntLinkedMapTest {
+
+    @Test
+    @DisplayName("Debe conservar el orden de inserción al reemplazar valores")
+    void testInsertionOrder() {
+        IntLinkedMap<String> map = new IntLinkedMap<>();
+        map.put(30, "Alien");
+        map.put(10, "Batman");
+        map.put(20, "Cars");
+        assertEquals("Batman", map.put(10, "Batman Begins"));
+
+        assertArrayEquals(new int[] {30, 10, 20}, map.keys());
+        assertEquals(List.of("Alien", "Batman Begins", "Cars"), map.values());
+        assertEquals(10, map.keyAt(1));
+        assertEquals("Cars", map.valueAt(2));
+        assertEquals("{30=Alien, 10=Batman Begins, 20=Cars}", map.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> map.valueAt(3));
+    }
+
+    @Test
+    @DisplayName("Debe crecer más allá de la capacidad inicial sin perder claves")
+    void testGrowth() {
+        IntLinkedMap<Integer> map = new IntLinkedMap<>(1);
+        for (int id = 1000; id > 0; id--) {
+            map.put(id, id * 2);
+        }
+
+        assertEquals(1000, map.size());
+        assertEquals(1000, map.keyAt(0));
+        assertEquals(2, map.get(1));
+        assertTrue(map.containsKey(500));
+        assertFalse(map.containsKey(0));
+        assertNull(map.get(1001));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para RequestCoalescer")
+class RequestCoalescerTest {
+
+    @Test
+    @DisplayName("Debe ejecutar una sola vez las llamadas identicas simultaneas")
+    void testConcurrentCallsShareExecution() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List<String>> leader = executor.submit(() -> coalescer.execute("findAll", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return new ArrayList<>(List.of("Alien"));
+            }, ArrayList::new));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<List<String>>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> coalescer.execute("findAll", () -> {
+                    executions.incrementAndGet();
+                    return new ArrayList<>(List.of("otra"));
+                }, ArrayList::new)));
+            }
+            // Esperar a que las tres llamadas se unan a la operacion en curso
+            long deadline = System.currentTimeMillis() + 5000;
+            while (coalescer.getCoalescedCount() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            List<String> first = leader.get(5, TimeUnit.SECONDS);
+            for (Future<List<String>> follower : followers) {
+                List<String> shared = follower.get(5, TimeUnit.SECONDS);
+                assertEquals(first, shared);
+                assertNotSame(first, shared);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(1, coalescer.getExecutedCount());
+        assertEquals(3, coalescer.getCoalescedCount());
+        assertEquals(0.75, coalescer.getCoalescedRate(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Debe entregar a las llamadas unidas el resultado original aunque la primera lo modifique")
+    void testLeaderMutationNotShared() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch mutated = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> leader = executor.submit(() -> {
+                List<String> result = coalescer.execute("findAll", () -> {
+                    started.countDown();
+                    release.await();
+                    return new ArrayList<>(List.of("Alien", "Coco"));
+                }, ArrayList::new);
+                // El llamador modifica su lista mientras la otra llamada la copia
+                result.clear();
+                result.add("modificada");
+                mutated.countDown();
+                return result;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<List<String>> follower = executor.submit(() -> coalescer.execute("findAll",
+                () -> new ArrayList<>(List.of("otra")), shared -> {
+                    try {
+                        assertTrue(mutated.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new ArrayList<>(shared);
+                }));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (coalescer.getCoalescedCount() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertEquals(List.of("modificada"), leader.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("Alien", "Coco"), follower.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("No debe copiar el resultado si ninguna llamada se unió")
+    void testNoCopyWithoutFollowers() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        List<String> result = new ArrayList<>(List.of("Alien"));
+
+        List<String> returned = coalescer.execute("findAll", () -> result, shared -> {
+            throw new AssertionError("copia innecesaria");
+        });
+
+        assertSame(result, returned);
+    }
+
+    @Test
+    @DisplayName("Debe volver a ejecutar la operacion una vez terminada")
+    void testSequentialCallsAreNotCached() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger executions = new AtomicInteger();
+
+        coalescer.execute("count", executions::incrementAndGet, n -> n);
+        coalescer.execute("count", executions::incrementAndGet, n -> n);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Debe propagar la excepcion original de la operacion")
+    void testExceptionPropagated() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+
+        SQLException thrown = assertThrows(SQLException.class, () ->
+            coalescer.execute("findAll", () -> {
+                throw new SQLException("sin conexion");
+            }, n -> n));
+
+        assertEquals("sin conexion", thrown.getMessage());
+        assertTrue(coalescer.getStats().contains("ejecutadas 1"));
+    }
+}
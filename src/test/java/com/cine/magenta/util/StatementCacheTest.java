@@ -0,0 +1,111 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Tests para StatementCache")
+class StatementCacheTest {
+
+    private AtomicLong poolHits;
+    private AtomicLong poolMisses;
+    private StatementCache cache;
+
+    @BeforeEach
+    void setUp() {
+        poolHits = new AtomicLong();
+        poolMisses = new AtomicLong();
+        cache = new StatementCache(2, poolHits, poolMisses);
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar una sentencia devuelta al cache")
+    void testHitAfterRelease() {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+
+        // Primer uso: fallo
+        assertNull(cache.take("SELECT 1"));
+        cache.release("SELECT 1", stmt);
+
+        // Segundo uso: acierto con la misma sentencia
+        assertSame(stmt, cache.take("SELECT 1"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, poolHits.get());
+        assertEquals(1, poolMisses.get());
+    }
+
+    @Test
+    @DisplayName("Debe cerrar la sentencia menos usada al superar la capacidad")
+    void testEvictsLeastRecentlyUsed() throws SQLException {
+        PreparedStatement first = mock(PreparedStatement.class);
+        PreparedStatement second = mock(PreparedStatement.class);
+        PreparedStatement third = mock(PreparedStatement.class);
+
+        cache.release("A", first);
+        cache.release("B", second);
+
+        // Usar A para que B sea la menos reciente
+        cache.release("A", cache.take("A"));
+        cache.release("C", third);
+
+        assertEquals(2, cache.size());
+        verify(second).close();
+        verify(first, never()).close();
+        assertNull(cache.take("B"));
+    }
+
+    @Test
+    @DisplayName("Debe cerrar todas las sentencias al limpiar")
+    void testClear() throws SQLException {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        cache.release("A", stmt);
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        verify(stmt).close();
+    }
+
+    @Test
+    @DisplayName("Debe descartar el lote pendiente y restaurar los limites al devolver la sentencia")
+    void testReturnResetsStatement() throws SQLException {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        PooledConnection lease = new PooledConnection(mock(PoolEntry.class), null, false);
+        PreparedStatement proxy = CachedStatement.wrap(stmt, "UPDATE", cache, lease).getProxy();
+
+        proxy.setMaxRows(10);
+        proxy.addBatch();
+        proxy.close();
+
+        verify(stmt).clearBatch();
+        verify(stmt).setMaxRows(0);
+        verify(stmt).setFetchSize(0);
+        assertSame(stmt, cache.take("UPDATE"));
+    }
+
+    @Test
+    @DisplayName("Debe cerrar la sentencia que no se puede limpiar en lugar de guardarla")
+    void testReturnClosesStatementWhenResetFails() throws SQLException {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        doThrow(new SQLException("sin conexion")).when(stmt).clearBatch();
+        PooledConnection lease = new PooledConnection(mock(PoolEntry.class), null, false);
+
+        CachedStatement.wrap(stmt, "UPDATE", cache, lease).getProxy().close();
+
+        verify(stmt).close();
+        verify(stmt, never()).setMaxRows(anyInt());
+        assertNull(cache.take("UPDATE"));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para TextNormalizer")
+class TextNormalizerTest {
+
+    @Test
+    @DisplayName("Debe quitar tildes y mayúsculas")
+    void testNormalize() {
+        assertEquals("animacion", TextNormalizer.normalize("Animación"));
+        assertEquals("ciencia ficcion", TextNormalizer.normalize("CIENCIA FICCIÓN"));
+        assertEquals("ano pequeno", TextNormalizer.normalize("Año Pequeño"));
+        assertEquals("", TextNormalizer.normalize(null));
+    }
+
+    @Test
+    @DisplayName("Debe devolver la misma cadena si ya es una clave")
+    void testAlreadyNormalized() {
+        String key = "el padrino ii";
+        assertSame(key, TextNormalizer.normalize(key));
+    }
+
+    @Test
+    @DisplayName("Debe reconocer los géneros con tildes de los datos iniciales")
+    void testFindGenre() {
+        assertEquals("Animacion", TextNormalizer.findGenre("Animación"));
+        assertEquals("Ciencia Ficcion", TextNormalizer.findGenre(" ciencia ficción "));
+        assertNull(TextNormalizer.findGenre("Documental"));
+    }
+}
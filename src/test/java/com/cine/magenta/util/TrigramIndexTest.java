@@ -0,0 +1,56 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para TrigramIndex")
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1, "El Padrino");
+        index.put(2, "El Padrino II");
+        index.put(3, "Pulp Fiction");
+        index.put(4, "Drino Pad");
+    }
+
+    @Test
+    @DisplayName("Debe encontrar subcadenas sin distinguir mayúsculas")
+    void testSubstringSearch() {
+        assertArrayEquals(new int[] {1, 2}, index.search("PADRINO"));
+        assertArrayEquals(new int[] {3}, index.search("lp fic"));
+        assertArrayEquals(new int[0], index.search("matrix"));
+        // Los trigramas existen en el texto 4 pero no de forma contigua
+        assertArrayEquals(new int[] {1, 2}, index.search("padrino"));
+    }
+
+    @Test
+    @DisplayName("Debe recorrer los textos con consultas de menos de tres caracteres")
+    void testShortQuery() {
+        assertArrayEquals(new int[] {1, 2, 3, 4}, index.search(""));
+        assertArrayEquals(new int[] {2}, index.search("ii"));
+    }
+
+    @Test
+    @DisplayName("Debe mantener las listas al reemplazar y eliminar textos")
+    void testPutAndRemove() {
+        index.put(3, "Jackie Brown");
+        assertArrayEquals(new int[0], index.search("pulp"));
+        assertArrayEquals(new int[] {3}, index.search("brown"));
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertArrayEquals(new int[] {2}, index.search("padrino"));
+        assertEquals(3, index.size());
+    }
+}
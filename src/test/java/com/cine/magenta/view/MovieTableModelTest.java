@@ -0,0 +1,143 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.cine.magenta.view;
+
+import com.cine.magenta.model.Movie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para MovieTableModel")
+class MovieTableModelTest {
+
+    @Test
+    @DisplayName("Debe calcular las celdas desde la lista de películas")
+    void testCellValues() {
+        MovieTableModel model = new MovieTableModel();
+        model.setMovies(List.of(new Movie(7, "Interestelar", "Christopher Nolan", 2014, 169, "Ciencia Ficcion")));
+
+        assertEquals(1, model.getRowCount());
+        assertEquals(6, model.getColumnCount());
+        assertEquals(7, model.getValueAt(0, MovieTableModel.COLUMN_ID));
+        assertEquals("Interestelar", model.getValueAt(0, MovieTableModel.COLUMN_TITLE));
+        assertEquals(2014, model.getValueAt(0, MovieTableModel.COLUMN_YEAR));
+        assertEquals("2h 49m", model.getValueAt(0, MovieTableModel.COLUMN_DURATION));
+        assertEquals(Integer.class, model.getColumnClass(MovieTableModel.COLUMN_ID));
+        assertFalse(model.isCellEditable(0, 1));
+        assertEquals(7, model.getMovieAt(0).getId());
+    }
+
+    @Test
+    @DisplayName("Debe reemplazar 100.000 filas con un solo evento")
+    void testSetMoviesFiresSingleEvent() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 100_000; i++) {
+            movies.add(new Movie(i, "Pelicula " + i, "Director", 2000, 90, "Drama"));
+        }
+        MovieTableModel model = new MovieTableModel();
+        AtomicInteger events = new AtomicInteger();
+        model.addTableModelListener(e -> {
+            events.incrementAndGet();
+            assertEquals(Integer.MAX_VALUE, e.getLastRow());
+        });
+
+        long start = System.nanoTime();
+        model.setMovies(movies);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(1, events.get());
+        assertEquals(100_000, model.getRowCount());
+        assertTrue(elapsedMs < 1000, "setMovies tardo " + elapsedMs + " ms");
+    }
+
+    @Test
+    @DisplayName("Debe mostrar marcadores hasta que llegan las páginas")
+    void testPagingWithPlaceholders() {
+        MovieTableModel model = new MovieTableModel();
+        model.startPaging(5);
+
+        assertEquals(5, model.getRowCount());
+        assertFalse(model.isRowLoaded(0));
+        assertEquals(MovieTableModel.PLACEHOLDER_TEXT, model.getValueAt(0, MovieTableModel.COLUMN_TITLE));
+        assertNull(model.getMovieAt(0));
+
+        model.appendMovies(List.of(new Movie(1, "A", "D", 2000, 90, "Drama"),
+            new Movie(2, "B", "D", 2000, 90, "Drama")));
+        assertEquals(2, model.getLoadedRowCount());
+        assertEquals("B", model.getValueAt(1, MovieTableModel.COLUMN_TITLE));
+
+        // La estimacion era mayor que el total real
+        model.appendMovies(List.of(new Movie(3, "C", "D", 2000, 90, "Drama")));
+        model.finishPaging();
+        assertEquals(3, model.getRowCount());
+    }
+
+    @Test
+    @DisplayName("Debe agregar filas si las páginas superan la estimación")
+    void testPagingBeyondEstimate() {
+        MovieTableModel model = new MovieTableModel();
+        model.startPaging(1);
+        AtomicInteger inserted = new AtomicInteger();
+        model.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.INSERT) {
+                inserted.addAndGet(e.getLastRow() - e.getFirstRow() + 1);
+            }
+        });
+
+        model.appendMovies(List.of(new Movie(1, "A", "D", 2000, 90, "Drama"),
+            new Movie(2, "B", "D", 2000, 90, "Drama")));
+
+        assertEquals(2, model.getRowCount());
+        assertEquals(1, inserted.get());
+        assertEquals("1h 30m", model.getValueAt(1, MovieTableModel.COLUMN_DURATION));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un número incorrecto de columnas")
+    void testInvalidColumnNames() {
+        assertThrows(IllegalArgumentException.class, () -> new MovieTableModel(new String[] {"ID"}));
+    }
+
+    @Test
+    @DisplayName("Debe marcar y actualizar la fila cuando la película cambió")
+    void testApplyFreshnessMarksChangedRow() {
+        Movie shown = new Movie(3, "Alien", "Ridley Scott", 1979, 117, "Terror");
+        MovieTableModel model = new MovieTableModel();
+        model.setMovies(List.of(shown));
+
+        assertFalse(model.applyFreshness(0, shown, new Movie(3, "Alien", "Ridley Scott", 1979, 117, "Terror")));
+        assertFalse(model.isRowStale(0));
+
+        assertTrue(model.applyFreshness(0, shown, new Movie(3, "Alien", "Ridley Scott", 1979, 137, "Terror")));
+        assertTrue(model.isRowStale(0));
+        assertEquals("2h 17m", model.getValueAt(0, MovieTableModel.COLUMN_DURATION));
+
+        // Recargar el modelo limpia las marcas
+        model.setMovies(List.of(shown));
+        assertFalse(model.isRowStale(0));
+    }
+
+    @Test
+    @DisplayName("Debe ignorar verificaciones de filas que ya cambiaron de película")
+    void testApplyFreshnessIgnoresReplacedRow() {
+        Movie shown = new Movie(3, "Alien", "Ridley Scott", 1979, 117, "Terror");
+        MovieTableModel model = new MovieTableModel();
+        model.setMovies(List.of(shown));
+
+        assertTrue(model.applyFreshness(0, shown, null));
+        assertTrue(model.isRowStale(0));
+        assertSame(shown, model.getMovieAt(0));
+
+        model.setMovies(List.of(new Movie(3, "Alien", "Ridley Scott", 1979, 117, "Terror")));
+        assertFalse(model.applyFreshness(0, shown, null));
+        assertFalse(model.isRowStale(0));
+    }
+}